@@ -0,0 +1,96 @@
+package org.littlestar.tpcc;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Open-loop事务调度器: 按每种事务类型配置的目标速率(TPs)生成事务请求, 放入队列由terminal(BenchmarkThread)执行.
+ *
+ * 与closed-loop不同, 事务的发出不依赖于上一个事务的完成, 数据库停顿时请求在队列中积压, 积压的等待时间计入响应时间.
+ */
+public class ArrivalScheduler implements Runnable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(ArrivalScheduler.class);
+	/** 队列积压上限, 超过后丢弃新的请求(计入dropped), 避免数据库长时间停顿时耗尽内存. */
+	public static final int MAX_BACKLOG = 1000000;
+
+	private final double[] arrivalRates;
+	private final BlockingQueue<ScheduledTransaction> queue;
+	private final AtomicLong scheduledCount = new AtomicLong(0L);
+	private final AtomicLong droppedCount = new AtomicLong(0L);
+	private volatile int maxBacklog = 0;
+
+	/**
+	 * @param arrivalRates 每种事务类型的目标速率(TPs), 按TransactionType.getId()索引, 0表示不生成该类型的事务.
+	 */
+	public ArrivalScheduler(double[] arrivalRates) {
+		this.arrivalRates = arrivalRates;
+		this.queue = new LinkedBlockingQueue<>(MAX_BACKLOG);
+	}
+
+	public BlockingQueue<ScheduledTransaction> getQueue() {
+		return queue;
+	}
+
+	@Override
+	public void run() {
+		TransactionType[] types = TransactionType.values();
+		long beginNanos = System.nanoTime();
+		//// 每种事务类型下一个请求的计划时间(相对beginNanos的偏移, 纳秒).
+		double[] intervals = new double[types.length];
+		double[] nextOffsets = new double[types.length];
+		for (TransactionType type : types) {
+			double rate = arrivalRates[type.getId()];
+			intervals[type.getId()] = rate > 0.0D ? (1000000000.0D / rate) : Double.MAX_VALUE;
+			nextOffsets[type.getId()] = intervals[type.getId()];
+		}
+		LOGGER.trace("Arrival scheduler started.");
+		while (TpccDriver.transactionOn.get()) {
+			int next = 0;
+			for (int i = 1; i < nextOffsets.length; i++) {
+				if (nextOffsets[i] < nextOffsets[next]) {
+					next = i;
+				}
+			}
+			if (nextOffsets[next] == Double.MAX_VALUE) {
+				break;
+			}
+			long offset = (long) nextOffsets[next];
+			long waitNanos = beginNanos + offset - System.nanoTime();
+			if (waitNanos > 0L) {
+				LockSupport.parkNanos(Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(100L)));
+				continue;
+			}
+			long intendedStartNanos = beginNanos + offset;
+			if (queue.offer(new ScheduledTransaction(types[next], intendedStartNanos))) {
+				scheduledCount.incrementAndGet();
+				maxBacklog = Math.max(maxBacklog, queue.size());
+			} else {
+				droppedCount.incrementAndGet();
+			}
+			nextOffsets[next] += intervals[next];
+		}
+		LOGGER.trace("Arrival scheduler stopped.");
+	}
+
+	public double getArrivalRate(TransactionType type) {
+		return arrivalRates[type.getId()];
+	}
+
+	public long getScheduledCount() {
+		return scheduledCount.get();
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	public int getMaxBacklog() {
+		return maxBacklog;
+	}
+}
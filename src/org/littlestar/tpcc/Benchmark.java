@@ -1,5 +1,8 @@
 package org.littlestar.tpcc;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Benchmark {
 	public static final String BENCHMARK_COMMAND = "benchmark";
 	public static final String LOAD_COMMAND = "load";
@@ -8,14 +11,39 @@ public class Benchmark {
 	public static final String ADDFK_COMMAND = "addfk";
 	public static final String DROPFK_COMMAND = "dropfk";
 	public static final String GATHERSTATS_COMMAND = "gather";
+	public static final String COMPARE_COMMAND = "compare";
 	public static void main(String[] args) throws Exception {
-		if (args.length != 2) {
+		if (args.length > 0 && COMPARE_COMMAND.equalsIgnoreCase(args[0])) {
+			System.exit(compare(args));
+		} else if (args.length != 2) {
 			throw new IllegalArgumentException(
-					"usage: org.littlestar.tpcc.Benchmark {benchmark-config-file} {benchmark|load|drop|addfk|dropfk|check|gather}");
+					"usage: org.littlestar.tpcc.Benchmark {benchmark-config-file} {benchmark|load|drop|addfk|dropfk|check|gather}\n"
+					+ "       org.littlestar.tpcc.Benchmark compare [--threshold=pct] [--alpha=a] {baseline-result} {result} ...");
 		} else {
 			String configFile = args[0];
 			String command = args[1];
 			new BenchmarkBuilder(configFile).execute(command);
 		}
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * compare [--threshold=pct] [--alpha=a] {baseline-result} {result} ...
+	 * @return 有回归时返回1, 否则返回0.
+	 */
+	private static int compare(String[] args) throws Exception {
+		double threshold = RunComparison.THRESHOLD_DEFAULT;
+		double alpha = RunComparison.ALPHA_DEFAULT;
+		List<String> files = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].startsWith("--threshold=")) {
+				threshold = Double.parseDouble(args[i].substring("--threshold=".length()));
+			} else if (args[i].startsWith("--alpha=")) {
+				alpha = Double.parseDouble(args[i].substring("--alpha=".length()));
+			} else {
+				files.add(args[i]);
+			}
+		}
+		boolean regression = new RunComparison(threshold, alpha).compare(files);
+		return regression ? 1 : 0;
+	}
+}
\ No newline at end of file
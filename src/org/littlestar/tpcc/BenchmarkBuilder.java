@@ -91,7 +91,27 @@ public class BenchmarkBuilder {
 				int runTime = benchmarkConfig.getRunTime();
 				int rampUp = benchmarkConfig.getRampUp();
 				int reportInterval = benchmarkConfig.getReportInterval();
-				TpccDriver tpccDriver = new TpccDriver(ds, dbms, wareCount);
+				TerminalEngine engine = benchmarkConfig.getEngine();
+				Pacing pacing = benchmarkConfig.getPacing();
+				TpccDriver tpccDriver = new TpccDriver(ds, dbms, wareCount).withEngine(engine).withPacing(pacing)
+						.withArrivalRates(benchmarkConfig.getArrivalRates())
+						.withThinkTimeScale(benchmarkConfig.getThinkTimeScale())
+						.withWarehouseAffinity(benchmarkConfig.getWarehouseAffinity())
+						.withStickyConnection(benchmarkConfig.getStickyConnection())
+						.withStatementCache(benchmarkConfig.getStatementCache())
+						.withStatementProfile(benchmarkConfig.getStatementProfile())
+						.withDriverHealth(benchmarkConfig.getDriverHealth())
+						.withMetricsPort(benchmarkConfig.getMetricsPort())
+						.withMetricsBind(benchmarkConfig.getMetricsBind())
+						.withResultFile(benchmarkConfig.getResultFile())
+						.withHtmlReport(benchmarkConfig.getHtmlReport())
+						.withProfile(benchmarkConfig.getBenchmarkProfile())
+						.withRetryPolicy(benchmarkConfig.getRetryPolicy())
+						.withTransactionMix(benchmarkConfig.getTransactionMix())
+						.withLadder(benchmarkConfig.getLadder(), benchmarkConfig.getLadderStepTime(),
+								benchmarkConfig.getLadderSettleTime(), benchmarkConfig.getLadderKneeThreshold())
+						.withSla(benchmarkConfig.getSlaP90(), benchmarkConfig.getSlaMinTerminals(),
+								benchmarkConfig.getSlaIncrease(), benchmarkConfig.getSlaDecrease());
 				tpccDriver.benchmark(runTime, rampUp, reportInterval, threads);
 			} else if (Objects.equals(command.toLowerCase(), Benchmark.DROP_COMMAND)) {
 				new TpccLoader(ds, dbms, wareCount, threads).doDropTables();
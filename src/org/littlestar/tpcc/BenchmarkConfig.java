@@ -22,6 +22,53 @@ public class BenchmarkConfig {
 	public static final String  LOG_LEVEL_OPTION   = "log-level";
 	public static final Integer REPORT_INTERVAL_DEFAULT = 5;
 	public static final String  REPORT_INTERVAL_OPTION  = "report-interval";
+	public static final TerminalEngine ENGINE_DEFAULT = TerminalEngine.Platform;
+	public static final String  ENGINE_OPTION      = "engine";
+	public static final Pacing  PACING_DEFAULT     = Pacing.Closed;
+	public static final String  PACING_OPTION      = "pacing";
+	public static final String  ARRIVAL_RATES_OPTION = "arrival-rates";
+	public static final Double  THINK_TIME_SCALE_DEFAULT = 1.0D;
+	public static final String  THINK_TIME_SCALE_OPTION  = "think-time-scale";
+	public static final Boolean WAREHOUSE_AFFINITY_DEFAULT = false;
+	public static final String  WAREHOUSE_AFFINITY_OPTION  = "warehouse-affinity";
+	public static final Boolean STICKY_CONNECTION_DEFAULT  = false;
+	public static final String  STICKY_CONNECTION_OPTION   = "sticky-connection";
+	public static final Boolean STATEMENT_CACHE_DEFAULT    = false;
+	public static final String  STATEMENT_CACHE_OPTION     = "statement-cache";
+	public static final Boolean STATEMENT_PROFILE_DEFAULT  = false;
+	public static final String  STATEMENT_PROFILE_OPTION   = "statement-profile";
+	public static final Boolean DRIVER_HEALTH_DEFAULT      = true;
+	public static final String  DRIVER_HEALTH_OPTION       = "driver-health";
+	public static final Integer METRICS_PORT_DEFAULT       = 0;
+	public static final String  METRICS_PORT_OPTION        = "metrics-port";
+	public static final String  METRICS_BIND_DEFAULT       = "127.0.0.1";
+	public static final String  METRICS_BIND_OPTION        = "metrics-bind";
+	public static final String  RESULT_FILE_OPTION         = "result-file";
+	public static final String  HTML_REPORT_OPTION         = "html-report";
+	public static final Integer MAX_RETRIES_DEFAULT        = TpccConstants.MAX_RETRY;
+	public static final String  MAX_RETRIES_OPTION         = "max-retries";
+	public static final Long    RETRY_BACKOFF_DEFAULT      = 10L;
+	public static final String  RETRY_BACKOFF_OPTION       = "retry-backoff";
+	public static final Long    RETRY_BACKOFF_MAX_DEFAULT  = 1000L;
+	public static final String  RETRY_BACKOFF_MAX_OPTION   = "retry-backoff-max";
+	public static final String  RETRY_POLICY_OPTION        = "retry-policy";
+	public static final TransactionMix TRANSACTION_MIX_DEFAULT = TransactionMix.STANDARD;
+	public static final String  TRANSACTION_MIX_OPTION     = "transaction-mix";
+	public static final String  LADDER_OPTION              = "ladder";
+	public static final Integer LADDER_STEP_TIME_DEFAULT   = 60;
+	public static final String  LADDER_STEP_TIME_OPTION    = "ladder-step-time";
+	public static final Integer LADDER_SETTLE_TIME_DEFAULT = 10;
+	public static final String  LADDER_SETTLE_TIME_OPTION  = "ladder-settle-time";
+	public static final Double  LADDER_KNEE_THRESHOLD_DEFAULT = 0.2D;
+	public static final String  LADDER_KNEE_THRESHOLD_OPTION  = "ladder-knee-threshold";
+	public static final Long    SLA_P90_DEFAULT            = 0L;
+	public static final String  SLA_P90_OPTION             = "sla-p90";
+	public static final Integer SLA_MIN_TERMINALS_DEFAULT  = 1;
+	public static final String  SLA_MIN_TERMINALS_OPTION   = "sla-min-terminals";
+	public static final Integer SLA_INCREASE_DEFAULT       = 1;
+	public static final String  SLA_INCREASE_OPTION        = "sla-increase";
+	public static final Double  SLA_DECREASE_DEFAULT       = 0.8D;
+	public static final String  SLA_DECREASE_OPTION        = "sla-decrease";
 	
 	private final Properties benchmark;
 	private final Properties connectionPool;
@@ -92,6 +139,278 @@ public class BenchmarkConfig {
 		}
 	}
 	
+	public TerminalEngine getEngine() {
+		try {
+			String value = benchmark.getProperty(ENGINE_OPTION);
+			return TerminalEngine.parse(value);
+		} catch (Exception e) {
+			return ENGINE_DEFAULT;
+		}
+	}
+	
+	public Pacing getPacing() {
+		try {
+			String value = benchmark.getProperty(PACING_OPTION);
+			return Pacing.parse(value);
+		} catch (Exception e) {
+			return PACING_DEFAULT;
+		}
+	}
+	
+	/**
+	 * arrival-rates: 每种事务的目标速率(TPs), 如: "NewOrder=45,Payment=43,OrderStatus=4,Delivery=4,StockLevel=4".
+	 * @return 按TransactionType.getId()索引的速率数组, 未配置的事务类型为0.
+	 */
+	public double[] getArrivalRates() {
+		return parseTransactionValues(benchmark.getProperty(ARRIVAL_RATES_OPTION));
+	}
+	
+	/**
+	 * think-time-scale: terminal emulation模式下keying/think time的缩放系数, 1.0为规范值.
+	 */
+	public double getThinkTimeScale() {
+		try {
+			String value = benchmark.getProperty(THINK_TIME_SCALE_OPTION);
+			double scale = Double.parseDouble(value);
+			return scale >= 0.0D ? scale : THINK_TIME_SCALE_DEFAULT;
+		} catch (Exception e) {
+			return THINK_TIME_SCALE_DEFAULT;
+		}
+	}
+	
+	/**
+	 * warehouse-affinity: 每个测试线程绑定一个home warehouse范围, 避免所有线程争用所有仓库的district/warehouse行锁.
+	 */
+	public boolean getWarehouseAffinity() {
+		String value = benchmark.getProperty(WAREHOUSE_AFFINITY_OPTION);
+		return Objects.isNull(value) ? WAREHOUSE_AFFINITY_DEFAULT : Boolean.parseBoolean(value.trim());
+	}
+	
+	/**
+	 * sticky-connection: 每个测试线程在整个测试期间持有一个长连接, 只在连接断开后重连.
+	 */
+	public boolean getStickyConnection() {
+		String value = benchmark.getProperty(STICKY_CONNECTION_OPTION);
+		return Objects.isNull(value) ? STICKY_CONNECTION_DEFAULT : Boolean.parseBoolean(value.trim());
+	}
+	
+	/**
+	 * statement-cache: 在连接上按语句缓存PreparedStatement, 与sticky-connection一起使用.
+	 */
+	public boolean getStatementCache() {
+		String value = benchmark.getProperty(STATEMENT_CACHE_OPTION);
+		return Objects.isNull(value) ? STATEMENT_CACHE_DEFAULT : Boolean.parseBoolean(value.trim());
+	}
+	
+	/**
+	 * statement-profile: 统计事务内每条语句执行/读取结果集以及提交的耗时.
+	 */
+	public boolean getStatementProfile() {
+		String value = benchmark.getProperty(STATEMENT_PROFILE_OPTION);
+		return Objects.isNull(value) ? STATEMENT_PROFILE_DEFAULT : Boolean.parseBoolean(value.trim());
+	}
+	
+	/**
+	 * driver-health: 每个报告周期检查压测端是否饱和.
+	 */
+	public boolean getDriverHealth() {
+		String value = benchmark.getProperty(DRIVER_HEALTH_OPTION);
+		return Objects.isNull(value) ? DRIVER_HEALTH_DEFAULT : Boolean.parseBoolean(value.trim());
+	}
+	
+	/**
+	 * metrics-port: 以OpenMetrics格式输出实时指标的HTTP端口, 0为不开启.
+	 */
+	public int getMetricsPort() {
+		try {
+			String value = benchmark.getProperty(METRICS_PORT_OPTION);
+			int port = Integer.parseInt(value.trim());
+			return (port > 0 && port <= 65535) ? port : METRICS_PORT_DEFAULT;
+		} catch (Exception e) {
+			return METRICS_PORT_DEFAULT;
+		}
+	}
+	
+	/**
+	 * metrics-bind: 指标HTTP endpoint监听的地址, 默认只监听本机(loopback). endpoint没有认证, 监听0.0.0.0时任何能访问这台机器的人都可以读取.
+	 */
+	public String getMetricsBind() {
+		String value = benchmark.getProperty(METRICS_BIND_OPTION);
+		return (Objects.isNull(value) || value.trim().isEmpty()) ? METRICS_BIND_DEFAULT : value.trim();
+	}
+	
+	/**
+	 * result-file: CSV/JSON Lines结果文件的路径前缀, 没有设置时返回null.
+	 */
+	public String getResultFile() {
+		String value = benchmark.getProperty(RESULT_FILE_OPTION);
+		return (Objects.isNull(value) || value.trim().isEmpty()) ? null : value.trim();
+	}
+	
+	/**
+	 * html-report: 测试结束后生成的HTML报告文件, 没有设置时返回null.
+	 */
+	public String getHtmlReport() {
+		String value = benchmark.getProperty(HTML_REPORT_OPTION);
+		return (Objects.isNull(value) || value.trim().isEmpty()) ? null : value.trim();
+	}
+	
+	public int getMaxRetries() {
+		try {
+			String value = benchmark.getProperty(MAX_RETRIES_OPTION);
+			int maxRetries = Integer.parseInt(value.trim());
+			return maxRetries > 0 ? maxRetries : MAX_RETRIES_DEFAULT;
+		} catch (Exception e) {
+			return MAX_RETRIES_DEFAULT;
+		}
+	}
+	
+	public long getRetryBackoff() {
+		try {
+			String value = benchmark.getProperty(RETRY_BACKOFF_OPTION);
+			long backoff = Long.parseLong(value.trim());
+			return backoff >= 0L ? backoff : RETRY_BACKOFF_DEFAULT;
+		} catch (Exception e) {
+			return RETRY_BACKOFF_DEFAULT;
+		}
+	}
+	
+	public long getRetryBackoffMax() {
+		try {
+			String value = benchmark.getProperty(RETRY_BACKOFF_MAX_OPTION);
+			long backoffMax = Long.parseLong(value.trim());
+			return backoffMax >= 0L ? backoffMax : RETRY_BACKOFF_MAX_DEFAULT;
+		} catch (Exception e) {
+			return RETRY_BACKOFF_MAX_DEFAULT;
+		}
+	}
+	
+	/**
+	 * max-retries, retry-backoff, retry-backoff-max, 以及"retry-policy"中对每种失败分类的动作的覆盖, 
+	 * 如: "Constraint=Backoff,Other=None".
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return new RetryPolicy()
+				.withMaxRetries(getMaxRetries())
+				.withBackoff(getRetryBackoff(), getRetryBackoffMax())
+				.withActions(benchmark.getProperty(RETRY_POLICY_OPTION));
+	}
+	
+	/**
+	 * transaction-mix: 每种事务的权重, 如: "NewOrder=45,Payment=43,OrderStatus=4,Delivery=4,StockLevel=4",
+	 * 未配置的事务类型权重为0.
+	 */
+	public TransactionMix getTransactionMix() {
+		String value = benchmark.getProperty(TRANSACTION_MIX_OPTION);
+		if (Objects.isNull(value) || value.trim().isEmpty()) {
+			return TRANSACTION_MIX_DEFAULT;
+		}
+		return new TransactionMix(parseTransactionValues(value));
+	}
+	
+	/**
+	 * ladder: 逐级增加的terminal数量, 如: "8,16,32,64,128". 配置后threads和runtime被忽略.
+	 * @return 没有配置时返回null.
+	 */
+	public int[] getLadder() {
+		return LoadLadder.parseSteps(benchmark.getProperty(LADDER_OPTION));
+	}
+	
+	public int getLadderStepTime() {
+		try {
+			String value = benchmark.getProperty(LADDER_STEP_TIME_OPTION);
+			int stepTime = Integer.parseInt(value.trim());
+			return stepTime > 0 ? stepTime : LADDER_STEP_TIME_DEFAULT;
+		} catch (Exception e) {
+			return LADDER_STEP_TIME_DEFAULT;
+		}
+	}
+	
+	public int getLadderSettleTime() {
+		try {
+			String value = benchmark.getProperty(LADDER_SETTLE_TIME_OPTION);
+			int settleTime = Integer.parseInt(value.trim());
+			return settleTime >= 0 ? settleTime : LADDER_SETTLE_TIME_DEFAULT;
+		} catch (Exception e) {
+			return LADDER_SETTLE_TIME_DEFAULT;
+		}
+	}
+	
+	public double getLadderKneeThreshold() {
+		try {
+			String value = benchmark.getProperty(LADDER_KNEE_THRESHOLD_OPTION);
+			double threshold = Double.parseDouble(value.trim());
+			return threshold >= 0.0D ? threshold : LADDER_KNEE_THRESHOLD_DEFAULT;
+		} catch (Exception e) {
+			return LADDER_KNEE_THRESHOLD_DEFAULT;
+		}
+	}
+	
+	/**
+	 * sla-p90: New-Order响应时间90百分位数的目标(ms), 大于0时开启SLA自适应并发控制.
+	 */
+	public long getSlaP90() {
+		try {
+			String value = benchmark.getProperty(SLA_P90_OPTION);
+			long target = Long.parseLong(value.trim());
+			return target > 0L ? target : SLA_P90_DEFAULT;
+		} catch (Exception e) {
+			return SLA_P90_DEFAULT;
+		}
+	}
+	
+	public int getSlaMinTerminals() {
+		try {
+			String value = benchmark.getProperty(SLA_MIN_TERMINALS_OPTION);
+			int minTerminals = Integer.parseInt(value.trim());
+			return minTerminals > 0 ? minTerminals : SLA_MIN_TERMINALS_DEFAULT;
+		} catch (Exception e) {
+			return SLA_MIN_TERMINALS_DEFAULT;
+		}
+	}
+	
+	public int getSlaIncrease() {
+		try {
+			String value = benchmark.getProperty(SLA_INCREASE_OPTION);
+			int increase = Integer.parseInt(value.trim());
+			return increase > 0 ? increase : SLA_INCREASE_DEFAULT;
+		} catch (Exception e) {
+			return SLA_INCREASE_DEFAULT;
+		}
+	}
+	
+	public double getSlaDecrease() {
+		try {
+			String value = benchmark.getProperty(SLA_DECREASE_OPTION);
+			double decrease = Double.parseDouble(value.trim());
+			return (decrease > 0.0D && decrease < 1.0D) ? decrease : SLA_DECREASE_DEFAULT;
+		} catch (Exception e) {
+			return SLA_DECREASE_DEFAULT;
+		}
+	}
+	
+	/**
+	 * 解析"Type=value,Type=value,..."格式的配置, 返回按TransactionType.getId()索引的数组.
+	 */
+	public static double[] parseTransactionValues(String value) {
+		double[] values = new double[TransactionType.values().length];
+		if (Objects.isNull(value)) {
+			return values;
+		}
+		for (String item : value.split(",")) {
+			String[] pair = item.split("=");
+			if (pair.length != 2) {
+				throw new IllegalArgumentException("Illegal value '" + item + "', must be 'Type=value'.");
+			}
+			TransactionType type = TransactionType.parse(pair[0].trim());
+			if (Objects.isNull(type)) {
+				throw new IllegalArgumentException("Unknown transaction type '" + pair[0].trim() + "'.");
+			}
+			values[type.getId()] = Double.parseDouble(pair[1].trim());
+		}
+		return values;
+	}
+	
 	public Level getLogLevel() {
 		try {
 			String value = benchmark.getProperty(LOG_LEVEL_OPTION);
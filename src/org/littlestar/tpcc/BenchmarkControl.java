@@ -0,0 +1,266 @@
+package org.littlestar.tpcc;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BenchmarkControlMXBean的实现, 由TpccDriver在测试开始时注册, 结束时注销. 作为IntervalListener保存最近一个报告周期的统计
+ * (IntervalStatistics的数组由BenchmarkReporter重用, 回调时复制需要的值).
+ * 
+ * 远程访问需要开启JMX agent, 如: -Dcom.sun.management.jmxremote.port=9010 (见tpcc.sh中的JMX_OPTS).
+ */
+public class BenchmarkControl implements BenchmarkControlMXBean, BenchmarkReporter.IntervalListener {
+	private final static Logger LOGGER = LoggerFactory.getLogger(BenchmarkControl.class);
+	public static final String OBJECT_NAME = "org.littlestar.tpcc:type=Benchmark";
+
+	private final List<BenchmarkThread> benchmarkThreads;
+	private final RetryExecutor retryExecutor;
+	private final AtomicInteger activeTerminals;
+	private final int threads;
+	private final AtomicBoolean paused;
+	private final AtomicBoolean stopped;
+	private final Runnable stopTask;
+	private final long beginNanos = System.nanoTime();
+	private static final double[] PERCENTILES = { 50.0D, 90.0D, 99.0D };
+	//// 最近一个报告周期的值, 按TransactionType.getId()索引. 报告线程写, JMX线程读, 整体替换.
+	private static class IntervalValues {
+		private final double tps;
+		private final double tpmc;
+		private final double[] transactionTps = new double[TransactionType.values().length];
+		private final long[][] percentileMicros = new long[PERCENTILES.length][TransactionType.values().length];
+
+		IntervalValues(IntervalStatistics interval) {
+			tps = interval.getTps();
+			tpmc = interval.getTpmc();
+			for (TransactionType type : TransactionType.values()) {
+				if (interval.getIntervalMillis() > 0L) {
+					transactionTps[type.getId()] = interval.getSucceedCount(type) * 1000.0D / interval.getIntervalMillis();
+				}
+				for (int i = 0; i < PERCENTILES.length; i++) {
+					percentileMicros[i][type.getId()] = interval.getHistogram(type).getValueAtPercentile(PERCENTILES[i]);
+				}
+			}
+		}
+	}
+	private volatile IntervalValues lastInterval = null;
+	private ObjectName objectName = null;
+
+	/**
+	 * @param paused 测试线程检查的暂停标志.
+	 * @param stopped 测试已经结束(到达运行时间或stop).
+	 * @param stopTask 结束测试.
+	 */
+	public BenchmarkControl(List<BenchmarkThread> benchmarkThreads, RetryExecutor retryExecutor,
+			AtomicInteger activeTerminals, int threads, AtomicBoolean paused, AtomicBoolean stopped, Runnable stopTask) {
+		this.benchmarkThreads = benchmarkThreads;
+		this.retryExecutor = retryExecutor;
+		this.activeTerminals = activeTerminals;
+		this.threads = threads;
+		this.paused = paused;
+		this.stopped = stopped;
+		this.stopTask = stopTask;
+	}
+
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+			objectName = name;
+		} catch (Exception e) {
+			LOGGER.warn("Register MBean '" + OBJECT_NAME + "' failed.", e);
+		}
+	}
+
+	public void unregister() {
+		if (Objects.nonNull(objectName)) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (Exception e) {
+				LOGGER.warn("Unregister MBean '" + OBJECT_NAME + "' failed.", e);
+			}
+			objectName = null;
+		}
+	}
+
+	@Override
+	public void intervalReported(IntervalStatistics interval) {
+		lastInterval = new IntervalValues(interval);
+	}
+
+	@Override
+	public String getState() {
+		if (stopped.get()) {
+			return "Stopped";
+		}
+		if (!TpccDriver.countingOn.get()) {
+			return "RampUp";
+		}
+		return paused.get() ? "Paused" : "Running";
+	}
+
+	@Override
+	public long getElapsedSeconds() {
+		return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - beginNanos);
+	}
+
+	@Override
+	public int getTerminals() {
+		return threads;
+	}
+
+	@Override
+	public int getActiveTerminals() {
+		return paused.get() ? 0 : Math.min(activeTerminals.get(), threads);
+	}
+
+	@Override
+	public void setActiveTerminals(int terminals) {
+		if (terminals < 1 || terminals > threads) {
+			throw new IllegalArgumentException("Active terminals must be between 1 and " + threads + ".");
+		}
+		activeTerminals.set(terminals);
+		LOGGER.info("Active terminals set to " + terminals + " via JMX.");
+	}
+
+	@Override
+	public int getIdleTerminals() {
+		return threads - getActiveTerminals();
+	}
+
+	@Override
+	public double getTps() {
+		IntervalValues interval = lastInterval;
+		return Objects.isNull(interval) ? 0.0D : interval.tps;
+	}
+
+	@Override
+	public double getTpmc() {
+		IntervalValues interval = lastInterval;
+		return Objects.isNull(interval) ? 0.0D : interval.tpmc;
+	}
+
+	@Override
+	public Map<String, Double> getTransactionTps() {
+		Map<String, Double> values = new LinkedHashMap<>();
+		IntervalValues interval = lastInterval;
+		for (TransactionType type : TransactionType.values()) {
+			values.put(type.name(), Objects.isNull(interval) ? 0.0D : interval.transactionTps[type.getId()]);
+		}
+		return values;
+	}
+
+	@Override
+	public Map<String, Double> getP50Millis() {
+		return percentileMillis(0);
+	}
+
+	@Override
+	public Map<String, Double> getP90Millis() {
+		return percentileMillis(1);
+	}
+
+	@Override
+	public Map<String, Double> getP99Millis() {
+		return percentileMillis(2);
+	}
+
+	/**
+	 * @param percentile PERCENTILES的下标.
+	 */
+	private Map<String, Double> percentileMillis(int percentile) {
+		Map<String, Double> values = new LinkedHashMap<>();
+		IntervalValues interval = lastInterval;
+		for (TransactionType type : TransactionType.values()) {
+			long micros = Objects.isNull(interval) ? 0L : interval.percentileMicros[percentile][type.getId()];
+			values.put(type.name(), micros / 1000.0D);
+		}
+		return values;
+	}
+
+	@Override
+	public Map<String, Long> getSucceedCounts() {
+		return counts(TerminalStatistics.SUCCEED_COUNT);
+	}
+
+	@Override
+	public Map<String, Long> getFailedCounts() {
+		return counts(TerminalStatistics.FAILURE_COUNT);
+	}
+
+	@Override
+	public Map<String, Long> getRetryCounts() {
+		return counts(TerminalStatistics.RETRY_COUNT);
+	}
+
+	private Map<String, Long> counts(int field) {
+		long[] counters = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			benchmarkThread.getStatistics().snapshot(snapshot);
+			TerminalStatistics.merge(counters, snapshot);
+		}
+		Map<String, Long> values = new LinkedHashMap<>();
+		for (TransactionType type : TransactionType.values()) {
+			values.put(type.name(), counters[TerminalStatistics.index(type, field)]);
+		}
+		return values;
+	}
+
+	@Override
+	public Map<String, Long> getFailureCounts() {
+		Map<String, Long> values = new LinkedHashMap<>();
+		for (FailureClass failureClass : FailureClass.values()) {
+			values.put(failureClass.name(), retryExecutor.getFailureCount(failureClass));
+		}
+		return values;
+	}
+
+	@Override
+	public boolean isPaused() {
+		return paused.get();
+	}
+
+	@Override
+	public void pause() {
+		if (paused.compareAndSet(false, true)) {
+			LOGGER.info("Benchmark paused via JMX.");
+		}
+	}
+
+	@Override
+	public void resume() {
+		if (paused.compareAndSet(true, false)) {
+			LOGGER.info("Benchmark resumed via JMX.");
+		}
+	}
+
+	@Override
+	public void stop() {
+		if (stopped.get()) {
+			return;
+		}
+		if (!TpccDriver.countingOn.get()) {
+			throw new IllegalStateException("Benchmark is ramping up, stop it after ramp-up.");
+		}
+		LOGGER.info("Benchmark stopped via JMX.");
+		paused.set(false);
+		stopTask.run();
+	}
+}
@@ -0,0 +1,65 @@
+package org.littlestar.tpcc;
+
+import java.util.Map;
+
+/**
+ * 测试过程中通过JMX(jconsole, VisualVM, jmxterm等)查看和控制测试, ObjectName: org.littlestar.tpcc:type=Benchmark.
+ * 
+ * TPs和响应时间百分位数(ms)为最近一个报告周期的值, 计数为计数阶段(ramp-up之后)的累计值. 按事务类型的属性以事务名称为key.
+ */
+public interface BenchmarkControlMXBean {
+	/**
+	 * @return RampUp, Running, Paused, Stopped.
+	 */
+	String getState();
+
+	long getElapsedSeconds();
+
+	int getTerminals();
+
+	int getActiveTerminals();
+
+	/**
+	 * 调整活动的terminal数量(1 ~ terminals), 开启ladder或SLA自适应并发控制时会被下一次调整覆盖.
+	 */
+	void setActiveTerminals(int activeTerminals);
+
+	int getIdleTerminals();
+
+	double getTps();
+
+	double getTpmc();
+
+	Map<String, Double> getTransactionTps();
+
+	Map<String, Double> getP50Millis();
+
+	Map<String, Double> getP90Millis();
+
+	Map<String, Double> getP99Millis();
+
+	Map<String, Long> getSucceedCounts();
+
+	Map<String, Long> getFailedCounts();
+
+	Map<String, Long> getRetryCounts();
+
+	/**
+	 * @return 按FailureClass的失败的事务尝试次数.
+	 */
+	Map<String, Long> getFailureCounts();
+
+	boolean isPaused();
+
+	/**
+	 * 暂停: 所有terminal停止提交新的事务(正在执行的事务会完成), 测试时间和计数阶段不变.
+	 */
+	void pause();
+
+	void resume();
+
+	/**
+	 * 提前结束测试, 与到达运行时间一样输出汇总和结果文件.
+	 */
+	void stop();
+}
@@ -2,185 +2,398 @@ package org.littlestar.tpcc;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+import org.littlestar.tpcc.datasource.PoolMetrics;
 import org.littlestar.tpcc.datasource.TpccDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class BenchmarkReporter implements Runnable {
+/**
+ * 每个报告周期(report-interval)汇总所有测试线程的统计并输出一行.
+ * 
+ * 汇总(StatisticsAggregator)、周期增量和输出行都使用预分配的缓冲区, 报告一个周期不随测试线程数分配对象,
+ * 不会因为报告线程产生GC停顿而影响测试线程的响应时间.
+ */
+public class BenchmarkReporter implements Runnable, AutoCloseable {
 	private final static Logger LOGGER = LoggerFactory.getLogger(BenchmarkReporter.class);
-	private final List<BenchmarkThread> benchmarkThreads;
-	private long lastNoTotalRuntime = 0L;
-	private long lastNoSucceedCount = 0L;
-	private long lastPyTotalRuntime = 0L;
-	private long lastPySucceedCount = 0L;
-	private long lastOsTotalRuntime = 0L;
-	private long lastOsSucceedCount = 0L;
-	private long lastDlTotalRuntime = 0L;
-	private long lastDlSucceedCount = 0L;
-	private long lastSlTotalRuntime = 0L;
-	private long lastSlSucceedCount = 0L;
-	
-	LocalDateTime beginTime;
+	/** 按TransactionType.getId()索引. */
+	private static final String[] TYPE_LABELS = { "New-Order", "Payment", "Order-Status", "Delivery", "Stock-Level" };
+	
+	/**
+	 * 每个报告周期结束时在报告线程中调用.
+	 */
+	public interface IntervalListener {
+		void intervalReported(IntervalStatistics statistics);
+	}
+	
+	private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+	private static final int TOP_FAILURES = 10;
+	private final FailureAccounting failureAccounting;
+	private final List<IntervalListener> intervalListeners = new ArrayList<>();
+	private final StatisticsAggregator aggregator;
+	//// 以下缓冲区在报告线程中重用. 计数器按TerminalStatistics.index(type, field)索引, 直方图按TransactionType.getId()索引.
+	private final long[] lastCounters = new long[TerminalStatistics.COUNTERS_LENGTH];
+	private final long[] deltaCounters = new long[TerminalStatistics.COUNTERS_LENGTH];
+	private final long[] currFailures = new long[FailureClass.values().length];
+	private final long[] lastFailures = new long[FailureClass.values().length];
+	private final long[] deltaFailures = new long[FailureClass.values().length];
+	private PoolMetrics poolMetrics = null;
+	private final long[] currPool = new long[PoolMetrics.FIELD_COUNT];
+	private final long[] lastPool = new long[PoolMetrics.FIELD_COUNT];
+	private final long[] deltaPool = new long[PoolMetrics.FIELD_COUNT];
+	private long maxPoolPending = 0L;
+	private DriverHealthMonitor healthMonitor = null;
+	private final long[] health = new long[DriverHealthMonitor.FIELD_COUNT];
+	private final StringBuilder line = new StringBuilder(256);
+	
+	private long beginNanos;
 	
 	public BenchmarkReporter(List<BenchmarkThread> benchmarkThreads) {
-		this.benchmarkThreads = benchmarkThreads;
-		this.beginTime = LocalDateTime.now();
+		this(new StatisticsAggregator(benchmarkThreads), null);
+	}
+	
+	/**
+	 * @param aggregator 每个周期由报告线程调用aggregate(), close()时停止它的汇总线程.
+	 * @param failureAccounting 不为null时, 每个周期有失败时输出按FailureClass分类的失败次数.
+	 */
+	public BenchmarkReporter(StatisticsAggregator aggregator, FailureAccounting failureAccounting) {
+		this.failureAccounting = failureAccounting;
+		this.aggregator = aggregator;
+		this.beginNanos = System.nanoTime();
+	}
+	
+	/**
+	 * 每个周期读取连接池的统计, 连接池有等待、超时或者创建了新连接时输出, 并传递给IntervalListener.
+	 */
+	public BenchmarkReporter withPoolMetrics(PoolMetrics poolMetrics) {
+		this.poolMetrics = poolMetrics;
+		if (Objects.nonNull(poolMetrics)) {
+			poolMetrics.snapshot(lastPool);
+			poolMetrics.nextInterval();
+		}
+		return this;
+	}
+	
+	/**
+	 * 每个周期检查压测端是否饱和, 饱和时在该周期的行后面输出警告, 并传递给IntervalListener.
+	 */
+	public BenchmarkReporter withHealthMonitor(DriverHealthMonitor healthMonitor) {
+		this.healthMonitor = healthMonitor;
+		return this;
+	}
+	
+	public BenchmarkReporter addIntervalListener(IntervalListener listener) {
+		intervalListeners.add(listener);
+		return this;
 	}
 	
 	@Override
 	public void run() {
-		ArrayList<HashMap<TransactionType, ExecutionStatistics>> currAllStats = new ArrayList<>();
-		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
-			currAllStats.add(benchmarkThread.getBenchmarkStatistics());
+		try {
+			aggregator.aggregate();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
 		}
-		LocalDateTime endTime = LocalDateTime.now();
-		Duration duration = Duration.between(beginTime, endTime);
-		beginTime = endTime;
-		long interval = duration.toMillis();
-		
-		long currNoTotalRuntime = 0L;
-		long currNoMaxRuntime   = 0L;
-		long currNoSucceedCount = 0L;
+		long[] currCounters = aggregator.getCounters();
+		//// 汇总的直方图即为本周期的直方图.
+		LatencyHistogram[] deltaHistograms = aggregator.getHistograms();
+		long endNanos = System.nanoTime();
+		long interval = TimeUnit.NANOSECONDS.toMillis(endNanos - beginNanos);
+		beginNanos = endNanos;
 		
-		long currPyTotalRuntime = 0L;
-		long currPyMaxRuntime   = 0L;
-		long currPySucceedCount = 0L;
-		
-		long currOsTotalRuntime = 0L;
-		long currOsMaxRuntime   = 0L;
-		long currOsSucceedCount = 0L;
+		//// 本周期的计数器增量, 最大响应时间取当前值.
+		for (int i = 0; i < deltaCounters.length; i++) {
+			int field = i % TerminalStatistics.FIELD_COUNT;
+			if (field == TerminalStatistics.MAX_RUNTIME || field == TerminalStatistics.INTERVAL_MAX_RUNTIME) {
+				deltaCounters[i] = currCounters[i];
+			} else {
+				deltaCounters[i] = currCounters[i] - lastCounters[i];
+			}
+		}
+		System.arraycopy(currCounters, 0, lastCounters, 0, TerminalStatistics.COUNTERS_LENGTH);
 		
-		long currDlTotalRuntime = 0L;
-		long currDlMaxRuntime   = 0L;
-		long currDlSucceedCount = 0L;
+		boolean saturated = false;
+		if (Objects.nonNull(healthMonitor)) {
+			//// 事务开始延迟: 周期内所有事务(包括失败的)的平均QUEUE_TIME.
+			long queueTime = 0L, transactions = 0L;
+			for (TransactionType type : TransactionType.values()) {
+				queueTime += deltaCounters[TerminalStatistics.index(type, TerminalStatistics.QUEUE_TIME)];
+				transactions += deltaCounters[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)]
+						+ deltaCounters[TerminalStatistics.index(type, TerminalStatistics.FAILURE_COUNT)];
+			}
+			saturated = healthMonitor.sample((transactions == 0L) ? 0L : (queueTime / transactions),
+					TpccDriver.countingOn.get(), health);
+		}
 		
-		long currSlTotalRuntime = 0L;
-		long currSlMaxRuntime   = 0L;
-		long currSlSucceedCount = 0L;
+		line.setLength(0);
+		TIMESTAMP_FORMATTER.formatTo(LocalTime.now(), line);
+		line.append(" | ");
+		long deltaSucceedCount = 0L;
+		for (TransactionType type : TransactionType.values()) {
+			deltaSucceedCount += deltaCounters[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)];
+		}
+		appendPadded(line, Math.round((deltaSucceedCount * 1000.0D) / interval), 6);
+		for (TransactionType type : TransactionType.values()) {
+			int id = type.getId();
+			long deltaSucceed = deltaCounters[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)];
+			long deltaRuntime = deltaCounters[TerminalStatistics.index(type, TerminalStatistics.TOTAL_RUNTIME)];
+			long maxRt = deltaCounters[TerminalStatistics.index(type, TerminalStatistics.INTERVAL_MAX_RUNTIME)];
+			//// 百分位数按bucket上限报告, 不超过周期最大值.
+			appendColumn(line, Math.round((deltaSucceed * 1000.0D) / interval),
+					(deltaSucceed == 0L) ? 0L : (deltaRuntime / deltaSucceed),
+					Math.min(deltaHistograms[id].getValueAtPercentile(90.0D), maxRt),
+					Math.min(deltaHistograms[id].getValueAtPercentile(99.0D), maxRt), maxRt);
+		}
+		line.append(" |");
+		if (saturated) {
+			line.append(" <- DRIVER SATURATED");
+		}
+		System.out.println(line);
+		if (saturated) {
+			reportIntervalHealth(health);
+		}
 		
-		for (HashMap<TransactionType, ExecutionStatistics> stats : currAllStats) {
-			if (stats.containsKey(TransactionType.NewOrder)) {
-				ExecutionStatistics no = stats.get(TransactionType.NewOrder);
-				currNoTotalRuntime += no.getRuntime();
-				currNoSucceedCount += no.getSucceedCount();
-				currNoMaxRuntime = Math.max(currNoMaxRuntime, no.getMaxRuntime2());
-			} else {
-				currNoTotalRuntime = lastNoTotalRuntime;
-				currNoSucceedCount = lastNoSucceedCount;
+		if (Objects.nonNull(failureAccounting)) {
+			failureAccounting.snapshot(currFailures);
+			for (int i = 0; i < currFailures.length; i++) {
+				deltaFailures[i] = currFailures[i] - lastFailures[i];
 			}
-
-			if (stats.containsKey(TransactionType.Payment)) {
-				ExecutionStatistics py = stats.get(TransactionType.Payment);
-				currPyTotalRuntime += py.getRuntime();
-				currPySucceedCount += py.getSucceedCount();
-				currPyMaxRuntime = Math.max(currPyMaxRuntime, py.getMaxRuntime2());
-			} else {
-				currPyTotalRuntime = lastPyTotalRuntime;
-				currPySucceedCount = lastPySucceedCount;
+			System.arraycopy(currFailures, 0, lastFailures, 0, currFailures.length);
+			reportIntervalFailures(deltaFailures);
+		}
+		
+		if (Objects.nonNull(poolMetrics)) {
+			poolMetrics.snapshot(currPool);
+			poolMetrics.nextInterval();
+			for (int i = 0; i < deltaPool.length; i++) {
+				deltaPool[i] = PoolMetrics.isCounter(i) ? (currPool[i] - lastPool[i]) : currPool[i];
 			}
-
-			if (stats.containsKey(TransactionType.OrderStatus)) {
-				ExecutionStatistics os = stats.get(TransactionType.OrderStatus);
-				currOsTotalRuntime += os.getRuntime();
-				currOsSucceedCount += os.getSucceedCount();
-				currOsMaxRuntime = Math.max(currOsMaxRuntime, os.getMaxRuntime2());
-			} else {
-				currOsTotalRuntime = lastOsTotalRuntime;
-				currOsSucceedCount = lastOsSucceedCount;
+			System.arraycopy(currPool, 0, lastPool, 0, PoolMetrics.FIELD_COUNT);
+			maxPoolPending = Math.max(maxPoolPending, deltaPool[PoolMetrics.PENDING_THREADS]);
+			reportIntervalPool(deltaPool);
+		}
+		
+		if (!intervalListeners.isEmpty()) {
+			//// 数组只在intervalReported()中有效, 下一个周期会被覆盖.
+			IntervalStatistics intervalStats = new IntervalStatistics(interval, deltaCounters, deltaHistograms,
+					deltaFailures, Objects.isNull(poolMetrics) ? null : deltaPool,
+					Objects.isNull(healthMonitor) ? null : health);
+			for (IntervalListener listener : intervalListeners) {
+				try {
+					listener.intervalReported(intervalStats);
+				} catch (Exception e) {
+					LOGGER.error("Interval listener failed.", e);
+				}
 			}
-			
-			if (stats.containsKey(TransactionType.Delivery)) {
-				ExecutionStatistics dl = stats.get(TransactionType.Delivery);
-				currDlTotalRuntime += dl.getRuntime();
-				currDlSucceedCount += dl.getSucceedCount();
-				currDlMaxRuntime = Math.max(currDlMaxRuntime, dl.getMaxRuntime2());
-			} else {
-				currDlTotalRuntime = lastDlTotalRuntime;
-				currDlSucceedCount = lastDlSucceedCount;
+		}
+	}
+	
+	/**
+	 * 停止汇总线程.
+	 */
+	@Override
+	public void close() {
+		aggregator.close();
+	}
+	
+	/**
+	 * 周期内有失败时, 在该周期的行下面输出按FailureClass分类的失败次数.
+	 */
+	private static void reportIntervalFailures(long[] failures) {
+		StringBuilder line = new StringBuilder();
+		for (FailureClass failureClass : FailureClass.values()) {
+			long count = failures[failureClass.ordinal()];
+			if (count > 0L) {
+				line.append((line.length() > 0) ? ", " : "").append(failureClass).append(": ").append(count);
 			}
-			
-			if (stats.containsKey(TransactionType.StockLevel)) {
-				ExecutionStatistics sl = stats.get(TransactionType.StockLevel);
-				currSlTotalRuntime += sl.getRuntime();
-				currSlSucceedCount += sl.getSucceedCount();
-				currSlMaxRuntime = Math.max(currSlMaxRuntime, sl.getMaxRuntime2());
-			} else {
-				currSlTotalRuntime = lastSlTotalRuntime;
-				currSlSucceedCount = lastSlSucceedCount;
+		}
+		if (line.length() > 0) {
+			output("         | Failures -> " + line);
+		}
+	}
+	
+	/**
+	 * 周期内连接池有线程等待连接、获取连接超时或者创建了新连接时, 在该周期的行下面输出连接池的状态.
+	 */
+	private static void reportIntervalPool(long[] pool) {
+		if (pool[PoolMetrics.PENDING_THREADS] == 0L && pool[PoolMetrics.TIMEOUT_COUNT] == 0L
+				&& pool[PoolMetrics.CREATED_COUNT] == 0L) {
+			return;
+		}
+		long acquired = pool[PoolMetrics.ACQUIRED_COUNT];
+		long created = pool[PoolMetrics.CREATED_COUNT];
+		output(String.format("         | Pool -> Pending: %s, Active: %s, Idle: %s, Acquire-Avg: %s ms, Acquire-Max: %s ms, Created: %s (Avg: %s ms), Timeouts: %s",
+				pool[PoolMetrics.PENDING_THREADS], pool[PoolMetrics.ACTIVE_CONNECTIONS], pool[PoolMetrics.IDLE_CONNECTIONS],
+				formatMillis((acquired > 0L) ? pool[PoolMetrics.ACQUIRE_TIME] / acquired : 0L),
+				formatMillis(pool[PoolMetrics.MAX_ACQUIRE_TIME]), created,
+				formatMillis((created > 0L) ? pool[PoolMetrics.CREATE_TIME] / created : 0L), pool[PoolMetrics.TIMEOUT_COUNT]));
+	}
+	
+	/**
+	 * 压测端饱和的周期, 在该周期的行下面输出饱和的原因和压测端的状态.
+	 */
+	private static void reportIntervalHealth(long[] health) {
+		output("         | Driver -> Saturated (" + DriverHealthMonitor.reasons(health[DriverHealthMonitor.REASONS]) + "): "
+				+ formatHealth(health[DriverHealthMonitor.PROCESS_CPU], health[DriverHealthMonitor.GC_PAUSE_TIME],
+						health[DriverHealthMonitor.SAFEPOINT_TIME], health[DriverHealthMonitor.RUNNABLE_THREADS])
+				+ ", Schedule-Lag: " + formatMillis(health[DriverHealthMonitor.SCHEDULE_LAG]) + " ms (Max: "
+				+ formatMillis(health[DriverHealthMonitor.MAX_SCHEDULE_LAG]) + " ms), Start-Lag: "
+				+ formatMillis(health[DriverHealthMonitor.START_LAG]) + " ms");
+	}
+	
+	private static String formatHealth(long cpu, long gcPause, long safepoint, long runnable) {
+		return "CPU: " + ((cpu < 0L) ? "n/a" : String.format("%.1f %%", cpu / 10.0D))
+				+ ", GC-Pause: " + formatMillis(gcPause) + " ms"
+				+ ", Safepoint: " + ((safepoint < 0L) ? "n/a" : (formatMillis(safepoint) + " ms"))
+				+ ", Runnable: " + ((runnable < 0L) ? "n/a" : String.valueOf(runnable));
+	}
+	
+	/**
+	 * 压测端的健康状态. 计数阶段有饱和的周期时测试结果无效.
+	 */
+	public static void reportDriverHealth(DriverHealthMonitor monitor) {
+		if (monitor.isValid()) {
+			output(String.format("Driver Health -> OK, no saturated interval (%s intervals, CPUs: %s, Max-CPU: %s, Max-Pause: %.1f %%, Max-Runnable: %s, Max-Schedule-Lag: %s ms)",
+					monitor.getIntervals(), monitor.getProcessors(),
+					(monitor.getMaxCpu() < 0L) ? "n/a" : String.format("%.1f %%", monitor.getMaxCpu() / 10.0D),
+					monitor.getMaxPause() / 10.0D, (monitor.getMaxRunnable() < 0L) ? "n/a" : monitor.getMaxRunnable(),
+					formatMillis(monitor.getMaxScheduleLag())));
+			output("");
+			return;
+		}
+		StringBuilder reasons = new StringBuilder();
+		for (int reason : new int[] { DriverHealthMonitor.CPU_SATURATED, DriverHealthMonitor.PAUSE_SATURATED,
+				DriverHealthMonitor.RUNNABLE_SATURATED, DriverHealthMonitor.SCHEDULE_SATURATED,
+				DriverHealthMonitor.START_LAG_SATURATED }) {
+			long count = monitor.getReasonCount(reason);
+			if (count > 0L) {
+				reasons.append((reasons.length() > 0) ? ", " : "").append(DriverHealthMonitor.reasons(reason)).append(": ")
+						.append(count);
 			}
 		}
-		long deltaNoTotalRuntime = currNoTotalRuntime - lastNoTotalRuntime;
-		long deltaNoSucceedCount = currNoSucceedCount - lastNoSucceedCount;
-		long deltaPyTotalRuntime = currPyTotalRuntime - lastPyTotalRuntime;
-		long deltaPySucceedCount = currPySucceedCount - lastPySucceedCount;
-		long deltaOsTotalRuntime = currOsTotalRuntime - lastOsTotalRuntime;
-		long deltaOsSucceedCount = currOsSucceedCount - lastOsSucceedCount;
-		long deltaDlTotalRuntime = currDlTotalRuntime - lastDlTotalRuntime;
-		long deltaDlSucceedCount = currDlSucceedCount - lastDlSucceedCount;
-		long deltaSlTotalRuntime = currSlTotalRuntime - lastSlTotalRuntime;
-		long deltaSlSucceedCount = currSlSucceedCount - lastSlSucceedCount;
-		long deltaSucceedCount = deltaNoSucceedCount + deltaPySucceedCount + deltaOsSucceedCount + deltaDlSucceedCount
-				+ deltaSlSucceedCount;
-		lastNoTotalRuntime = currNoTotalRuntime;
-		lastNoSucceedCount = currNoSucceedCount;
-		lastPyTotalRuntime = currPyTotalRuntime;
-		lastPySucceedCount = currPySucceedCount;
-		lastOsTotalRuntime = currOsTotalRuntime;
-		lastOsSucceedCount = currOsSucceedCount;
-		lastDlTotalRuntime = currDlTotalRuntime;
-		lastDlSucceedCount = currDlSucceedCount;
-		lastSlTotalRuntime = currSlTotalRuntime;
-		lastSlSucceedCount = currSlSucceedCount;
-		
-		long noAvgRt = (deltaNoSucceedCount == 0L) ? 0L : (deltaNoTotalRuntime / deltaNoSucceedCount);
-		long pyAvgRt = (deltaPySucceedCount == 0L) ? 0L : (deltaPyTotalRuntime / deltaPySucceedCount);
-		long osAvgRt = (deltaOsSucceedCount == 0L) ? 0L : (deltaOsTotalRuntime / deltaOsSucceedCount);
-		long dlAvgRt = (deltaDlSucceedCount == 0L) ? 0L : (deltaDlTotalRuntime / deltaDlSucceedCount);
-		long slAvgRt = (deltaSlSucceedCount == 0L) ? 0L : (deltaSlTotalRuntime / deltaSlSucceedCount);
-		
-		
-		long totalTps = Math.round((deltaSucceedCount * 1000.0D) / interval);
-		long noTps = Math.round((deltaNoSucceedCount * 1000.0D) / interval);
-		long pyTps = Math.round((deltaPySucceedCount * 1000.0D) / interval);
-		long osTps = Math.round((deltaOsSucceedCount * 1000.0D) / interval);
-		long dlTps = Math.round((deltaDlSucceedCount * 1000.0D) / interval);
-		long slTps = Math.round((deltaSlSucceedCount * 1000.0D) / interval);
-		
-		reportRow(totalTps, 
-				noTps, noAvgRt, currNoMaxRuntime,
-				pyTps, pyAvgRt, currPyMaxRuntime,
-				osTps, osAvgRt, currOsMaxRuntime,
-				dlTps, dlAvgRt, currDlMaxRuntime,
-				slTps, slAvgRt, currSlMaxRuntime
-				);
-		
+		output("******************************************************************");
+		output(String.format("WARNING: the load generator was saturated in %s of %s intervals (%s).",
+				monitor.getSaturatedIntervals(), monitor.getIntervals(), reasons));
+		output(String.format("  CPUs: %s, Max-CPU: %s, Max-Pause: %.1f %%, Max-Runnable: %s, Max-Schedule-Lag: %s ms, Max-Start-Lag: %s ms",
+				monitor.getProcessors(),
+				(monitor.getMaxCpu() < 0L) ? "n/a" : String.format("%.1f %%", monitor.getMaxCpu() / 10.0D),
+				monitor.getMaxPause() / 10.0D, (monitor.getMaxRunnable() < 0L) ? "n/a" : monitor.getMaxRunnable(),
+				formatMillis(monitor.getMaxScheduleLag()), formatMillis(monitor.getMaxStartLag())));
+		output("  The results measure the client, not the database: RESULT INVALID.");
+		output("  Use fewer threads per driver, more CPUs, or several driver hosts.");
+		output("******************************************************************");
+		output("");
+	}
+	
+	/**
+	 * 按TPC-C规范检查的结果, 最后一行为PASS/FAIL.
+	 */
+	public static void reportCompliance(ComplianceValidator validator) {
+		output(String.format("TPC-C Compliance -> tpmC: %.2f (New-Order/min, Clause 5.4.1), not an audited result.", validator.getTpmc()));
+		output("  Check                       | Clause  | Value              | Requirement        | Result");
+		for (ComplianceValidator.Check check : validator.getChecks()) {
+			output(String.format("  %-27s | %-7s | %-18s | %-18s | %s", check.getName(), check.getClause(),
+					check.getValue(), check.getRequirement(), check.getStatus().getLabel()));
+		}
+		int failed = validator.getFailedCount();
+		output(failed == 0 ? "Compliance: PASS" : String.format("Compliance: FAIL (%s of %s checks failed)", failed,
+				validator.getChecks().size()));
+		output("");
+	}
+	
+	/**
+	 * @return 报告周期结束时看到的最大等待连接的线程数.
+	 */
+	public long getMaxPoolPending() {
+		return maxPoolPending;
+	}
+	
+	/**
+	 * 响应时间(μs)格式化为毫秒, 不超过5个字符: 小于10ms保留3位小数, 小于100ms保留2位, 小于1000ms保留1位, 否则取整.
+	 */
+	public static String formatMillis(long micros) {
+		StringBuilder millis = new StringBuilder(8);
+		appendMillis(millis, micros);
+		return millis.toString();
 	}
 	
-	public static void reportRow(long totalTps, 
-			long noTps, long noAvgRt, long noMaxRt,
-			long pyTps, long pyAvgRt, long pyMaxRt,
-			long osTps, long osAvgRt, long osMaxRt,
-			long dlTps, long dlAvgRt, long dlMaxRt,
-			long slTps, long slAvgRt, long slMaxRt
-			) {
-		String totalColumn = String.format("| %6s ", totalTps);
-		String newOrderColumn = String.format("| %5s %5s %5s ", noTps, noAvgRt, noMaxRt);
-		String playmentColumn = String.format("| %5s %5s %5s ", pyTps, pyAvgRt, pyMaxRt);
-		String orderStatusColumn = String.format("| %5s %5s %5s ", osTps, osAvgRt, osMaxRt);
-		String deliveryColumn = String.format("| %5s %5s %5s ", dlTps, dlAvgRt, dlMaxRt);
-		String stockLevelColumn = String.format("| %5s %5s %5s |", slTps, slAvgRt, slMaxRt);
-		output2(totalColumn + newOrderColumn + playmentColumn + orderStatusColumn + deliveryColumn + stockLevelColumn);
+	/**
+	 * 与formatMillis()相同(四舍五入), 直接追加到line, 不分配对象.
+	 */
+	private static void appendMillis(StringBuilder line, long micros) {
+		if (micros < 0L) {
+			line.append('-');
+			appendFixed(line, -micros, 3);
+		} else if (micros < 9999L) {
+			appendFixed(line, micros, 3);
+		} else if (micros < 99950L) {
+			appendFixed(line, (micros + 5L) / 10L, 2);
+		} else if (micros < 999950L) {
+			appendFixed(line, (micros + 50L) / 100L, 1);
+		} else {
+			line.append((micros + 500L) / 1000L);
+		}
+	}
+	
+	/**
+	 * 追加value / 10^scale, 保留scale位小数.
+	 */
+	private static void appendFixed(StringBuilder line, long value, int scale) {
+		long unit = (scale == 3) ? 1000L : ((scale == 2) ? 100L : 10L);
+		line.append(value / unit).append('.');
+		long fraction = value % unit;
+		for (long digit = unit / 10L; digit > 1L && fraction < digit; digit /= 10L) {
+			line.append('0');
+		}
+		line.append(fraction);
 	}
 	
-	public static void reportWelcome(TpccDataSource ds, int warehouses, int threads) {
+	/**
+	 * 右对齐到width个字符(与%{width}s相同, 超长时不截断).
+	 */
+	private static void appendPadded(StringBuilder line, long value, int width) {
+		int length = line.length();
+		line.append(value);
+		padLeft(line, length, width);
+	}
+	
+	private static void padLeft(StringBuilder line, int start, int width) {
+		for (int pad = width - (line.length() - start); pad > 0; pad--) {
+			line.insert(start, ' ');
+		}
+	}
+	
+	/**
+	 * 一种事务的列: "| TPs AvgRt P90 P99 MaxRt ", 每个值右对齐到5个字符.
+	 */
+	private static void appendColumn(StringBuilder line, long tps, long avgRt, long p90Rt, long p99Rt, long maxRt) {
+		line.append(" | ");
+		appendPadded(line, tps, 5);
+		appendMillisPadded(line, avgRt);
+		appendMillisPadded(line, p90Rt);
+		appendMillisPadded(line, p99Rt);
+		appendMillisPadded(line, maxRt);
+	}
+	
+	private static void appendMillisPadded(StringBuilder line, long micros) {
+		line.append(' ');
+		int length = line.length();
+		appendMillis(line, micros);
+		padLeft(line, length, 5);
+	}
+	
+	public static void reportWelcome(TpccDataSource ds, int warehouses, int threads, TerminalEngine engine, Pacing pacing,
+			boolean warehouseAffinity, boolean stickyConnection, TransactionMix transactionMix) {
 		String dataSourceName = ds.getDataSourceClassName();
 		String dbmsInfo ="n/a";
 		String driverInfo = "n/a";
@@ -203,124 +416,322 @@ public class BenchmarkReporter implements Runnable {
 			   .append("  [DBMS]      : ").append(dbmsInfo).append("\n")
 			   .append("  [Warehouse] : ").append(warehouses).append("\n")
 			   .append("  [Threads]   : ").append(threads).append("\n")
+			   .append("  [Engine]    : ").append(engine).append("\n")
+			   .append("  [Pacing]    : ").append(pacing).append("\n")
+			   .append("  [Affinity]  : ").append(warehouseAffinity ? "home warehouse per thread" : "none").append("\n")
+			   .append("  [Connection]: ").append(stickyConnection ? "sticky" : "per transaction").append("\n")
+			   .append("  [Mix]       : ").append(Objects.isNull(transactionMix) ? "arrival-rates" : transactionMix).append("\n")
 		       .append("******************************************************************\n");
 		output(welcome.toString());
 	}
 	
-	private static void output2(String msg) {
-		System.out.println(getTimestampString() + " " + msg);
-	}
-
 	private static void output(String msg) {
 		System.out.println(msg);
 	}
 	
 	public static void reportHeader() {
-		output("         | Total  |    New-Order      |     Payment       |   Order-Status    |     Delivery      |    Stock-Level    |");
-		output("         |  TPs/  | TPs/ AvgRt/ MaxRt/| TPs/ AvgRt/ MaxRt/| TPs/ AvgRt/ MaxRt/| TPs/ AvgRt/ MaxRt/| TPs/ AvgRt/ MaxRt/|");
-		output("---------+--------+-------------------+-------------------+-------------------+-------------------+-------------------+");
+		output("         | Total  |           New-Order           |            Payment            |          Order-Status         |            Delivery           |          Stock-Level          |");
+		output("         |  TPs/  | TPs/ AvgRt/  P90/  P99/ MaxRt/| TPs/ AvgRt/  P90/  P99/ MaxRt/| TPs/ AvgRt/  P90/  P99/ MaxRt/| TPs/ AvgRt/  P90/  P99/ MaxRt/| TPs/ AvgRt/  P90/  P99/ MaxRt/|");
+		output("---------+--------+-------------------------------+-------------------------------+-------------------------------+-------------------------------+-------------------------------+");
 	}
 	
-	public static void reportFooter(List<BenchmarkThread> benchmarkThreads, long benchCountingMs) {
+	/**
+	 * @param histograms 累计的响应时间直方图(StatisticsAggregator.getTotalHistograms()), 按TransactionType.getId()索引.
+	 */
+	public static void reportFooter(List<BenchmarkThread> benchmarkThreads, LatencyHistogram[] histograms, long benchCountingMs) {
 		
 		long noTxs  = 0L, pyTxs  = 0L, osTxs  = 0L, dlTxs  = 0L, slTxs  = 0L;
 		long noRt   = 0L, pyRt   = 0L, osRt   = 0L, dlRt   = 0L, slRt   = 0L;
 		long noMxRt = 0L, pyMxRt = 0L, osMxRt = 0L, dlMxRt = 0L, slMxRt = 0L;
 		long noFl   = 0L, pyFl   = 0L, osFl   = 0L, dlFl   = 0L, slFl   = 0L;
 		long noRy   = 0L, pyRy   = 0L, osRy   = 0L, dlRy   = 0L, slRy   = 0L;
+		long noRyT  = 0L, pyRyT  = 0L, osRyT  = 0L, dlRyT  = 0L, slRyT  = 0L;
 		
+		long[] total = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
 		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
-			HashMap<TransactionType, ExecutionStatistics> statsMap = benchmarkThread.getBenchmarkStatistics();
-			///// New-Order
-			if (statsMap.containsKey(TransactionType.NewOrder)) {
-				ExecutionStatistics noStats = statsMap.get(TransactionType.NewOrder);
-				noTxs += noStats.getSucceedCount();
-				noRt += noStats.getRuntime();
-				noMxRt = Math.max(noMxRt, noStats.getMaxRuntime());
-				noFl += noStats.getFailureCount();
-				noRy += noStats.getRetryCount();
-			}
-			///// Payment
-			if (statsMap.containsKey(TransactionType.Payment)) {
-				ExecutionStatistics pyStats = statsMap.get(TransactionType.Payment);
-				pyTxs += pyStats.getSucceedCount();
-				pyRt += pyStats.getRuntime();
-				pyMxRt = Math.max(pyMxRt, pyStats.getMaxRuntime());
-				pyFl += pyStats.getFailureCount();
-				pyRy += pyStats.getRetryCount();
-			}
-			///// Order-Status
-			if (statsMap.containsKey(TransactionType.OrderStatus)) {
-				ExecutionStatistics osStats = statsMap.get(TransactionType.OrderStatus);
-				osTxs += osStats.getSucceedCount();
-				osRt += osStats.getRuntime();
-				osMxRt = Math.max(osMxRt, osStats.getMaxRuntime());
-				osFl += osStats.getFailureCount();
-				osRy += osStats.getRetryCount();
-			}
-			///// Delivery
-			if (statsMap.containsKey(TransactionType.Delivery)) {
-				ExecutionStatistics dlStats = statsMap.get(TransactionType.Delivery);
-				dlTxs += dlStats.getSucceedCount();
-				dlRt += dlStats.getRuntime();
-				dlMxRt = Math.max(dlMxRt, dlStats.getMaxRuntime());
-				dlFl += dlStats.getFailureCount();
-				dlRy += dlStats.getRetryCount();
-			}
-			///// Stock-Level
-			if (statsMap.containsKey(TransactionType.StockLevel)) {
-				ExecutionStatistics slStats = statsMap.get(TransactionType.StockLevel);
-				slTxs += slStats.getSucceedCount();
-				slRt += slStats.getRuntime();
-				slMxRt = Math.max(slMxRt, slStats.getMaxRuntime());
-				slFl += slStats.getFailureCount();
-				slRy += slStats.getRetryCount();
-			}
+			benchmarkThread.getStatistics().snapshot(snapshot);
+			TerminalStatistics.merge(total, snapshot);
 		}
+		///// New-Order
+		noTxs = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.SUCCEED_COUNT)];
+		noRt = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.TOTAL_RUNTIME)];
+		noMxRt = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.MAX_RUNTIME)];
+		noFl = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.FAILURE_COUNT)];
+		noRy = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.RETRY_COUNT)];
+		noRyT = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.RETRY_TIME)];
+		///// Payment
+		pyTxs = total[TerminalStatistics.index(TransactionType.Payment, TerminalStatistics.SUCCEED_COUNT)];
+		pyRt = total[TerminalStatistics.index(TransactionType.Payment, TerminalStatistics.TOTAL_RUNTIME)];
+		pyMxRt = total[TerminalStatistics.index(TransactionType.Payment, TerminalStatistics.MAX_RUNTIME)];
+		pyFl = total[TerminalStatistics.index(TransactionType.Payment, TerminalStatistics.FAILURE_COUNT)];
+		pyRy = total[TerminalStatistics.index(TransactionType.Payment, TerminalStatistics.RETRY_COUNT)];
+		pyRyT = total[TerminalStatistics.index(TransactionType.Payment, TerminalStatistics.RETRY_TIME)];
+		///// Order-Status
+		osTxs = total[TerminalStatistics.index(TransactionType.OrderStatus, TerminalStatistics.SUCCEED_COUNT)];
+		osRt = total[TerminalStatistics.index(TransactionType.OrderStatus, TerminalStatistics.TOTAL_RUNTIME)];
+		osMxRt = total[TerminalStatistics.index(TransactionType.OrderStatus, TerminalStatistics.MAX_RUNTIME)];
+		osFl = total[TerminalStatistics.index(TransactionType.OrderStatus, TerminalStatistics.FAILURE_COUNT)];
+		osRy = total[TerminalStatistics.index(TransactionType.OrderStatus, TerminalStatistics.RETRY_COUNT)];
+		osRyT = total[TerminalStatistics.index(TransactionType.OrderStatus, TerminalStatistics.RETRY_TIME)];
+		///// Delivery
+		dlTxs = total[TerminalStatistics.index(TransactionType.Delivery, TerminalStatistics.SUCCEED_COUNT)];
+		dlRt = total[TerminalStatistics.index(TransactionType.Delivery, TerminalStatistics.TOTAL_RUNTIME)];
+		dlMxRt = total[TerminalStatistics.index(TransactionType.Delivery, TerminalStatistics.MAX_RUNTIME)];
+		dlFl = total[TerminalStatistics.index(TransactionType.Delivery, TerminalStatistics.FAILURE_COUNT)];
+		dlRy = total[TerminalStatistics.index(TransactionType.Delivery, TerminalStatistics.RETRY_COUNT)];
+		dlRyT = total[TerminalStatistics.index(TransactionType.Delivery, TerminalStatistics.RETRY_TIME)];
+		///// Stock-Level
+		slTxs = total[TerminalStatistics.index(TransactionType.StockLevel, TerminalStatistics.SUCCEED_COUNT)];
+		slRt = total[TerminalStatistics.index(TransactionType.StockLevel, TerminalStatistics.TOTAL_RUNTIME)];
+		slMxRt = total[TerminalStatistics.index(TransactionType.StockLevel, TerminalStatistics.MAX_RUNTIME)];
+		slFl = total[TerminalStatistics.index(TransactionType.StockLevel, TerminalStatistics.FAILURE_COUNT)];
+		slRy = total[TerminalStatistics.index(TransactionType.StockLevel, TerminalStatistics.RETRY_COUNT)];
+		slRyT = total[TerminalStatistics.index(TransactionType.StockLevel, TerminalStatistics.RETRY_TIME)];
 
 		double totalTxs = noTxs + pyTxs + osTxs + dlTxs + slTxs;
 		double totalTps = (benchCountingMs > 0) ? (totalTxs * 1000.0D / benchCountingMs) : 0.0D;
-		double totalTpmc = totalTps * 60.0D;
 		//// New-Order
 		double noTps = (benchCountingMs > 0) ? (noTxs * 1000.0D / benchCountingMs) : 0.0D;
 		double noTpmc = noTps * 60.0D;
-		double noAvgRt = (noTxs > 0) ? ((double) noRt / noTxs) : 0.0D;
+		double noAvgRt = (noTxs > 0) ? ((double) noRt / noTxs / 1000.0D) : 0.0D;
 		double noTxPct = (totalTxs > 0) ? ((double) noTxs / totalTxs) * 100.0D : 0.0D;
 
 		//// Payment
 		double pyTps = (benchCountingMs > 0) ? (pyTxs * 1000.0D / benchCountingMs) : 0.0D;
-		double pyTpmc = pyTps * 60.0D;
-		double pyAvgRt = (pyTxs > 0) ? ((double) pyRt / pyTxs) : 0.0D;
+		double pyAvgRt = (pyTxs > 0) ? ((double) pyRt / pyTxs / 1000.0D) : 0.0D;
 		double pyTxPct = (totalTxs > 0) ? ((double) pyTxs / totalTxs) * 100.0D : 0.0D;
 
 		//// Order-Status
 		double osTps = (benchCountingMs > 0) ? (1000.0D * osTxs / benchCountingMs) : 0.0D;
-		double osTpmc = osTps * 60.0D;
-		double osAvgRt = (osTxs > 0) ? ((double) osRt / osTxs) : 0.0D;
+		double osAvgRt = (osTxs > 0) ? ((double) osRt / osTxs / 1000.0D) : 0.0D;
 		double osTxPct = (totalTxs > 0) ? ((double) osTxs / totalTxs) * 100.0D : 0.0D;
 
 		//// Delivery
 		double dlTps = (benchCountingMs > 0) ? (1000.0D * dlTxs / benchCountingMs) : 0.0D;
-		double dlTpmc = dlTps * 60.0D;
-		double dlAvgRt = (dlTxs > 0) ? ((double) dlRt / dlTxs) : 0.0D;
+		double dlAvgRt = (dlTxs > 0) ? ((double) dlRt / dlTxs / 1000.0D) : 0.0D;
 		double dlTxPct = (totalTxs > 0) ? ((double) dlTxs / totalTxs) * 100.0D : 0.0D;
 
 		//// Stock-Level
 		double slTps = (benchCountingMs > 0) ? (1000.0D * slTxs / benchCountingMs) : 0.0D;
-		double slTpmc = slTps * 60.0D;
-		double slAvgRt = (slTxs > 0) ? ((double) slRt / slTxs) : 0.0D;
+		double slAvgRt = (slTxs > 0) ? ((double) slRt / slTxs / 1000.0D) : 0.0D;
 		double slTxPct = (totalTxs > 0) ? ((double) slTxs / totalTxs) * 100.0D : 0.0D;
 		
-		output(String.format("\nTPC-C Benchmark Completed: Runtime %s ms,  %.2f TpmC, %.2f Tps.", benchCountingMs, totalTpmc, totalTps));
-		output(String.format("     New-Order -> TX: %s (Failed: %s, Retries: %s), Tpmc: %.2f, Tps: %.2f, Avg-Rt: %.2f ms, Max-Rt: %s ms, ofTotal: %.2f %%"                , noTxs, noFl, noRy, noTpmc, noTps, noAvgRt, noMxRt, noTxPct));
-		output(String.format("       Payment -> TX: %s (Failed: %s, Retries: %s), Tpmc: %.2f, Tps: %.2f, Avg-Rt: %.2f ms, Max-Rt: %s ms, ofTotal: %.2f %% (>43.0%% is OK)", pyTxs, pyFl, pyRy, pyTpmc, pyTps, pyAvgRt, pyMxRt, pyTxPct));
-		output(String.format("  Order-Status -> TX: %s (Failed: %s, Retries: %s), Tpmc: %.2f, Tps: %.2f, Avg-Rt: %.2f ms, Max-Rt: %s ms, ofTotal: %.2f %% (> 4.0%% is OK)", osTxs, osFl, osRy, osTpmc, osTps, osAvgRt, osMxRt, osTxPct));
-		output(String.format("      Delivery -> TX: %s (Failed: %s, Retries: %s), Tpmc: %.2f, Tps: %.2f, Avg-Rt: %.2f ms, Max-Rt: %s ms, ofTotal: %.2f %% (> 4.0%% is OK)", dlTxs, dlFl, dlRy, dlTpmc, dlTps, dlAvgRt, dlMxRt, dlTxPct));
-		output(String.format("   Stock-Level -> TX: %s (Failed: %s, Retries: %s), Tpmc: %.2f, Tps: %.2f, Avg-Rt: %.2f ms, Max-Rt: %s ms, ofTotal: %.2f %% (> 4.0%% is OK)\n", slTxs, slFl, slRy, slTpmc, slTps, slAvgRt, slMxRt, slTxPct));
+		//// tpmC为每分钟完成的New-Order事务数(Clause 5.4.1), 不是所有事务.
+		output(String.format("\nTPC-C Benchmark Completed: Runtime %s ms,  %.2f tpmC (New-Order/min), %.2f Tps (all).", benchCountingMs, noTpmc, totalTps));
+		output(String.format("     New-Order -> TX: %s (Failed: %s, Retries: %s, Retry-Cost: %.3f ms), tpmC: %.2f, Tps: %.2f, Avg-Rt: %.3f ms, Max-Rt: %.3f ms, ofTotal: %.2f %%", noTxs, noFl, noRy, noRyT / 1000.0D, noTpmc, noTps, noAvgRt, noMxRt / 1000.0D, noTxPct));
+		output(String.format("       Payment -> TX: %s (Failed: %s, Retries: %s, Retry-Cost: %.3f ms), Tps: %.2f, Avg-Rt: %.3f ms, Max-Rt: %.3f ms, ofTotal: %.2f %%", pyTxs, pyFl, pyRy, pyRyT / 1000.0D, pyTps, pyAvgRt, pyMxRt / 1000.0D, pyTxPct));
+		output(String.format("  Order-Status -> TX: %s (Failed: %s, Retries: %s, Retry-Cost: %.3f ms), Tps: %.2f, Avg-Rt: %.3f ms, Max-Rt: %.3f ms, ofTotal: %.2f %%", osTxs, osFl, osRy, osRyT / 1000.0D, osTps, osAvgRt, osMxRt / 1000.0D, osTxPct));
+		output(String.format("      Delivery -> TX: %s (Failed: %s, Retries: %s, Retry-Cost: %.3f ms), Tps: %.2f, Avg-Rt: %.3f ms, Max-Rt: %.3f ms, ofTotal: %.2f %%", dlTxs, dlFl, dlRy, dlRyT / 1000.0D, dlTps, dlAvgRt, dlMxRt / 1000.0D, dlTxPct));
+		output(String.format("   Stock-Level -> TX: %s (Failed: %s, Retries: %s, Retry-Cost: %.3f ms), Tps: %.2f, Avg-Rt: %.3f ms, Max-Rt: %.3f ms, ofTotal: %.2f %%\n", slTxs, slFl, slRy, slRyT / 1000.0D, slTps, slAvgRt, slMxRt / 1000.0D, slTxPct));
+		reportPercentiles(histograms);
+		reportBreakdown(total);
+	}
+	
+	/**
+	 * 每种事务平均响应时间的组成(包括失败的事务): 排队、获取连接(连接池等待)、执行、提交和重试退避.
+	 * Acquire占比高说明连接池(maximumPoolSize)小于terminal数量, 响应时间主要是连接池的等待, 而不是数据库的延迟.
+	 */
+	public static void reportBreakdown(long[] total) {
+		output("Response Time Breakdown (avg ms):");
+		output("                    Queue |  Acquire |  Execute |   Commit |  Backoff | Acquire %");
+		for (TransactionType type : TransactionType.values()) {
+			long count = total[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)]
+					+ total[TerminalStatistics.index(type, TerminalStatistics.FAILURE_COUNT)];
+			long acquire = total[TerminalStatistics.index(type, TerminalStatistics.ACQUIRE_TIME)];
+			long runtime = total[TerminalStatistics.index(type, TerminalStatistics.TOTAL_RUNTIME)];
+			output(String.format("  %12s -> %8.3f | %8.3f | %8.3f | %8.3f | %8.3f | %7.2f %%", TYPE_LABELS[type.getId()],
+					avgMillis(total[TerminalStatistics.index(type, TerminalStatistics.QUEUE_TIME)], count),
+					avgMillis(acquire, count),
+					avgMillis(total[TerminalStatistics.index(type, TerminalStatistics.EXECUTE_TIME)], count),
+					avgMillis(total[TerminalStatistics.index(type, TerminalStatistics.COMMIT_TIME)], count),
+					avgMillis(total[TerminalStatistics.index(type, TerminalStatistics.BACKOFF_TIME)], count),
+					(runtime > 0L) ? (acquire * 100.0D / runtime) : 0.0D));
+		}
+		output("");
+	}
+	
+	private static double avgMillis(long micros, long count) {
+		return (count > 0L) ? (micros / 1000.0D / count) : 0.0D;
+	}
+	
+	/**
+	 * 连接池(HikariCP)自身统计的获取/创建连接.
+	 */
+	public static void reportPool(PoolMetrics poolMetrics, int maximumPoolSize, long maxPending) {
+		long[] pool = new long[PoolMetrics.FIELD_COUNT];
+		poolMetrics.snapshot(pool);
+		long acquired = pool[PoolMetrics.ACQUIRED_COUNT];
+		long created = pool[PoolMetrics.CREATED_COUNT];
+		output(String.format("Connection Pool -> Max-Size: %s, Acquired: %s, Avg-Acquire: %.3f ms, Max-Pending: %s, Created: %s (Avg-Create: %.3f ms), Timeouts: %s\n",
+				maximumPoolSize, acquired, avgMillis(pool[PoolMetrics.ACQUIRE_TIME], acquired), maxPending, created,
+				avgMillis(pool[PoolMetrics.CREATE_TIME], created), pool[PoolMetrics.TIMEOUT_COUNT]));
+	}
+	
+	/**
+	 * 整个测试期间(计数阶段)每种事务响应时间的百分位数, 直方图单位为μs, 按毫秒输出.
+	 */
+	public static void reportPercentiles(LatencyHistogram[] histograms) {
+		output("Response Time Percentiles (ms):");
+		output("                      p50 |      p90 |      p95 |      p99 |    p99.9 |      Max");
+		for (TransactionType type : TransactionType.values()) {
+			LatencyHistogram histogram = histograms[type.getId()];
+			output(String.format("  %12s -> %8.3f | %8.3f | %8.3f | %8.3f | %8.3f | %8.3f", TYPE_LABELS[type.getId()],
+					histogram.getValueAtPercentile(50.0D) / 1000.0D, histogram.getValueAtPercentile(90.0D) / 1000.0D,
+					histogram.getValueAtPercentile(95.0D) / 1000.0D, histogram.getValueAtPercentile(99.0D) / 1000.0D,
+					histogram.getValueAtPercentile(99.9D) / 1000.0D, histogram.getMaxValue() / 1000.0D));
+		}
+		output("");
+	}
+	
+	public static void reportConnection(List<BenchmarkThread> benchmarkThreads, boolean stickyConnection,
+			boolean statementCache) {
+		long acquireCount = 0L, acquireNanos = 0L, reconnectCount = 0L, cacheHitCount = 0L, cacheMissCount = 0L;
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			TerminalConnection terminalConnection = benchmarkThread.getTerminalConnection();
+			acquireCount += terminalConnection.getAcquireCount();
+			acquireNanos += terminalConnection.getAcquireNanos();
+			reconnectCount += terminalConnection.getReconnectCount();
+			cacheHitCount += terminalConnection.getCacheHitCount();
+			cacheMissCount += terminalConnection.getCacheMissCount();
+		}
+		double acquireMs = acquireNanos / 1000000.0D;
+		double avgAcquireMs = (acquireCount > 0) ? (acquireMs / acquireCount) : 0.0D;
+		output(String.format("Connection (%s) -> Acquired: %s, Acquire-Time: %.2f ms, Avg-Acquire: %.3f ms, Reconnects: %s",
+				stickyConnection ? "sticky" : "per transaction", acquireCount, acquireMs, avgAcquireMs, reconnectCount));
+		if (statementCache) {
+			long lookups = cacheHitCount + cacheMissCount;
+			double hitRatio = (lookups > 0) ? (cacheHitCount * 100.0D / lookups) : 0.0D;
+			output(String.format("Statement Cache -> Hits: %s, Misses: %s, Hit-Ratio: %.2f %%",
+					cacheHitCount, cacheMissCount, hitRatio));
+		}
+		output("");
+	}
+	
+	/**
+	 * 每条语句的耗时分解: 执行(execute)和读取结果集(fetch)的平均值/百分位数, 以及占该事务所有语句总耗时的比例.
+	 */
+	public static void reportStatementProfile(List<BenchmarkThread> benchmarkThreads) {
+		List<StatementProfiler> profilers = new ArrayList<>();
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			StatementProfiler profiler = benchmarkThread.getTerminalConnection().getProfiler();
+			if (Objects.nonNull(profiler)) {
+				profilers.add(profiler);
+			}
+		}
+		List<StatementProfiler.Timing> timings = StatementProfiler.merge(profilers);
+		Map<String, Long> transactionMicros = new HashMap<>();
+		for (StatementProfiler.Timing timing : timings) {
+			transactionMicros.merge(timing.getTransaction(), timing.getTotalMicros(), Long::sum);
+		}
+		output("Statement Profile (ms):");
+		output("  Statement          |    Count | Exec-Avg | Exec-p90 | Exec-p99 | Fetch-Avg | Fetch-p99 | Share");
+		for (StatementProfiler.Timing timing : timings) {
+			LatencyHistogram execute = timing.getExecuteHistogram();
+			LatencyHistogram fetch = timing.getFetchHistogram();
+			long count = execute.getTotalCount();
+			long fetchCount = fetch.getTotalCount();
+			double execAvg = (count > 0L) ? (timing.getExecuteMicros() / 1000.0D / count) : 0.0D;
+			double fetchAvg = (fetchCount > 0L) ? (timing.getFetchMicros() / 1000.0D / fetchCount) : 0.0D;
+			long total = transactionMicros.getOrDefault(timing.getTransaction(), 0L);
+			double share = (total > 0L) ? (timing.getTotalMicros() * 100.0D / total) : 0.0D;
+			output(String.format("  %-18s | %8s | %8.3f | %8.3f | %8.3f | %9s | %9s | %5.1f %%", timing.getId(), count,
+					execAvg, execute.getValueAtPercentile(90.0D) / 1000.0D,
+					execute.getValueAtPercentile(99.0D) / 1000.0D,
+					(fetchCount > 0L) ? String.format("%.3f", fetchAvg) : "-",
+					(fetchCount > 0L) ? String.format("%.3f", fetch.getValueAtPercentile(99.0D) / 1000.0D) : "-", share));
+		}
+		output("");
+	}
+	
+	public static void reportRetry(RetryExecutor retryExecutor) {
+		StringBuilder failures = new StringBuilder();
+		for (FailureClass failureClass : FailureClass.values()) {
+			if (failures.length() > 0) {
+				failures.append(", ");
+			}
+			failures.append(failureClass).append(": ").append(retryExecutor.getFailureCount(failureClass));
+		}
+		output(String.format("Failures -> %s", failures));
+		List<FailureAccounting.Entry> top = retryExecutor.getAccounting().getTop(TOP_FAILURES);
+		if (!top.isEmpty()) {
+			output(String.format("Top Failures (%s of %s groups):", top.size(), retryExecutor.getAccounting().getGroupCount()));
+			output("     Count | Transaction  | Statement          | SQLState     | Vendor | Class          | Message");
+			for (FailureAccounting.Entry entry : top) {
+				FailureAccounting.Key key = entry.getKey();
+				output(String.format("  %8s | %-12s | %-18s | %-12s | %6s | %-14s | %s", entry.getCount(),
+						TYPE_LABELS[key.getTransactionType().getId()], key.getStatement(), key.getSqlState(),
+						key.getVendorCode(), key.getFailureClass(), entry.getMessage()));
+			}
+		}
+		output(String.format("Retry Policy -> %s\n", retryExecutor.getPolicy()));
+	}
+	
+	public static void reportSla(ConcurrencyController controller) {
+		ConcurrencyController.Level sustainable = controller.getSustainable();
+		output(String.format("SLA Adaptive Concurrency -> Target New-Order p90: %s ms, Intervals within SLA: %s/%s",
+				controller.getTargetP90(), controller.getWithinSlaCount(), controller.getIntervalCount()));
+		if (Objects.isNull(sustainable)) {
+			output("Max Sustainable TpmC at SLA: n/a (no terminal count ran " + ConcurrencyController.SUSTAIN_INTERVALS
+					+ " intervals within SLA)\n");
+		} else {
+			output(String.format("Max Sustainable TpmC at SLA: %.2f (Terminals: %s, New-Order p90: %.3f ms, Intervals: %s)\n",
+					sustainable.getTpmc(), sustainable.getTerminals(), sustainable.getP90() / 1000.0D, sustainable.getIntervals()));
+		}
+	}
+	
+	public static void reportLadder(LoadLadder ladder) {
+		output(String.format("Load Ladder -> Step-Time: %s s (Settle: %s s), Knee-Threshold: %.2f",
+				ladder.getStepTime(), ladder.getSettleTime(), ladder.getKneeThreshold()));
+		output("  Terminals |       TpmC |      TPs |   NO-p50 |   NO-p90 |   NO-p99 |  All-p90 | Marginal TPs/Terminal");
+		List<LoadLadder.Step> steps = ladder.getResults();
+		for (int k = 0; k < steps.size(); k++) {
+			LoadLadder.Step step = steps.get(k);
+			LatencyHistogram newOrder = step.getHistogram(TransactionType.NewOrder);
+			double marginal = (k == 0) ? (step.getTps() / Math.max(1, step.getTerminals())) : ladder.getMarginal(k);
+			output(String.format("  %9s | %10.2f | %8.2f | %8.3f | %8.3f | %8.3f | %8.3f | %8.3f", step.getTerminals(),
+					step.getTpmc(), step.getTps(), newOrder.getValueAtPercentile(50.0D) / 1000.0D,
+					newOrder.getValueAtPercentile(90.0D) / 1000.0D, newOrder.getValueAtPercentile(99.0D) / 1000.0D,
+					step.getTotalHistogram().getValueAtPercentile(90.0D) / 1000.0D, marginal));
+		}
+		LoadLadder.Step knee = ladder.getKnee();
+		if (Objects.isNull(knee)) {
+			output("Knee: not reached, throughput still scales at the last step.\n");
+		} else {
+			output(String.format("Knee: %s terminals, TpmC: %.2f (marginal throughput of more terminals < %.0f%% of the first step per terminal)\n",
+					knee.getTerminals(), knee.getTpmc(), ladder.getKneeThreshold() * 100.0D));
+		}
+	}
+	
+	public static void reportArrivalScheduler(ArrivalScheduler scheduler) {
+		StringBuilder rates = new StringBuilder();
+		for (TransactionType type : TransactionType.values()) {
+			if (rates.length() > 0) {
+				rates.append(", ");
+			}
+			rates.append(type).append("=").append(scheduler.getArrivalRate(type));
+		}
+		output(String.format("Open-Loop Scheduler -> Target TPs: [%s], Scheduled: %s, Dropped: %s, Max-Backlog: %s\n",
+				rates, scheduler.getScheduledCount(), scheduler.getDroppedCount(), scheduler.getMaxBacklog()));
+	}
+	
+	public static void reportTerminalEmulator(TerminalEmulator emulator) {
+		output(String.format("Terminal Emulation -> Terminals: %s, Think-Time-Scale: %.2f, Max-Backlog: %s\n",
+				emulator.getTerminalCount(), emulator.getThinkTimeScale(), emulator.getMaxBacklog()));
+	}
+	
+	public static void reportCarrier(CarrierMonitor monitor) {
+		output(String.format("Virtual-Thread Engine -> Carriers: %s, Carrier-Util: %.2f %%, Pinned: %s (Total: %s ms, Max: %s ms)",
+				monitor.getCarrierCount(), monitor.getCarrierUtilization(), monitor.getPinnedCount(),
+				monitor.getPinnedMillis(), monitor.getMaxPinnedMillis()));
+		for (Map.Entry<String, Long> site : monitor.getTopPinnedSites()) {
+			output(String.format("    Pinned at %s -> %s times", site.getKey(), site.getValue()));
+		}
+		output("");
 	}
 	
 	public static String getTimestampString() {
-		return LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+		return LocalTime.now().format(TIMESTAMP_FORMATTER);
 	}
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
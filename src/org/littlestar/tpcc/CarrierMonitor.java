@@ -0,0 +1,180 @@
+package org.littlestar.tpcc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Carrier线程监控(虚拟线程引擎):
+ *   1. carrier线程的CPU使用率: 所有carrier线程的CPU时间 / (计数时长 * carrier线程数);
+ *   2. 虚拟线程pinning事件(jdk.VirtualThreadPinned): 虚拟线程在synchronized块或native帧中阻塞时无法卸载, 会独占carrier线程,
+ *      pinning频繁说明JDBC驱动(或本程序)中的synchronized代码在串行化terminal.
+ */
+public class CarrierMonitor {
+	private final static Logger LOGGER = LoggerFactory.getLogger(CarrierMonitor.class);
+	private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static final int TOP_PINNED_SITES = 5;
+
+	private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	private final Map<Long, Long> beginCpuTimes = new HashMap<>();
+	private Recording recording;
+	private long beginNanos = 0L;
+
+	private long elapsedMs = 0L;
+	private int carrierCount = 0;
+	private long carrierCpuNanos = 0L;
+	private long pinnedCount = 0L;
+	private long pinnedNanos = 0L;
+	private long maxPinnedNanos = 0L;
+	private final List<Map.Entry<String, Long>> topPinnedSites = new ArrayList<>();
+
+	public void start() {
+		beginNanos = System.nanoTime();
+		for (Thread carrier : getCarrierThreads()) {
+			beginCpuTimes.put(carrier.getId(), threadCpuTime(carrier));
+		}
+		try {
+			recording = new Recording();
+			recording.setName("tpcc-carrier-monitor");
+			recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(1)).withStackTrace();
+			recording.setToDisk(true);
+			recording.start();
+		} catch (Exception e) {
+			LOGGER.warn("Start JFR recording for " + PINNED_EVENT + " failed, pinning events will not be reported.", e);
+			recording = null;
+		}
+	}
+
+	public void stop() {
+		elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos);
+		List<Thread> carriers = getCarrierThreads();
+		carrierCount = carriers.size();
+		for (Thread carrier : carriers) {
+			long begin = beginCpuTimes.getOrDefault(carrier.getId(), 0L);
+			carrierCpuNanos += Math.max(0L, threadCpuTime(carrier) - begin);
+		}
+		if (Objects.nonNull(recording)) {
+			Path dumpFile = null;
+			try {
+				recording.stop();
+				dumpFile = Files.createTempFile("tpcc-carrier-", ".jfr");
+				recording.dump(dumpFile);
+				collectPinnedEvents(RecordingFile.readAllEvents(dumpFile));
+			} catch (Exception e) {
+				LOGGER.warn("Read JFR recording for " + PINNED_EVENT + " failed.", e);
+			} finally {
+				recording.close();
+				if (Objects.nonNull(dumpFile)) {
+					try {
+						Files.deleteIfExists(dumpFile);
+					} catch (Exception e) {
+						LOGGER.trace("Delete " + dumpFile + " failed.", e);
+					}
+				}
+			}
+		}
+	}
+
+	private void collectPinnedEvents(List<RecordedEvent> events) {
+		Map<String, Long> sites = new HashMap<>();
+		for (RecordedEvent event : events) {
+			if (!PINNED_EVENT.equals(event.getEventType().getName())) {
+				continue;
+			}
+			long nanos = event.getDuration().toNanos();
+			pinnedCount++;
+			pinnedNanos += nanos;
+			maxPinnedNanos = Math.max(maxPinnedNanos, nanos);
+			sites.merge(pinnedSite(event.getStackTrace()), 1L, Long::sum);
+		}
+		sites.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+				.limit(TOP_PINNED_SITES).forEach(topPinnedSites::add);
+	}
+
+	/**
+	 * 取第一个非JDK的栈帧作为pinning位置, 通常就是持有monitor的JDBC驱动(或本程序)代码.
+	 */
+	private static String pinnedSite(RecordedStackTrace stackTrace) {
+		if (Objects.isNull(stackTrace)) {
+			return "n/a";
+		}
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			if (!frame.isJavaFrame()) {
+				continue;
+			}
+			String typeName = frame.getMethod().getType().getName();
+			if (typeName.startsWith("java.") || typeName.startsWith("jdk.") || typeName.startsWith("sun.")) {
+				continue;
+			}
+			return typeName + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+		}
+		return "n/a";
+	}
+
+	private List<Thread> getCarrierThreads() {
+		List<Thread> carriers = new ArrayList<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (CARRIER_THREAD_CLASS.equals(thread.getClass().getName())) {
+				carriers.add(thread);
+			}
+		}
+		return carriers;
+	}
+
+	private long threadCpuTime(Thread thread) {
+		try {
+			long cpuTime = threadBean.getThreadCpuTime(thread.getId());
+			return cpuTime > 0L ? cpuTime : 0L;
+		} catch (Exception e) {
+			return 0L;
+		}
+	}
+
+	public int getCarrierCount() {
+		return carrierCount;
+	}
+
+	/**
+	 * @return carrier线程平均CPU使用率(%).
+	 */
+	public double getCarrierUtilization() {
+		if (carrierCount == 0 || elapsedMs <= 0L) {
+			return 0.0D;
+		}
+		return carrierCpuNanos / (elapsedMs * 1000000.0D * carrierCount) * 100.0D;
+	}
+
+	public long getPinnedCount() {
+		return pinnedCount;
+	}
+
+	public long getPinnedMillis() {
+		return pinnedNanos / 1000000L;
+	}
+
+	public long getMaxPinnedMillis() {
+		return maxPinnedNanos / 1000000L;
+	}
+
+	public List<Map.Entry<String, Long>> getTopPinnedSites() {
+		return topPinnedSites;
+	}
+}
@@ -0,0 +1,283 @@
+package org.littlestar.tpcc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+
+/**
+ * 测试结束后按TPC-C规范检查结果, 输出pass/fail汇总, 内部发布的数字需要说明哪些条款满足、哪些不满足:
+ *   - tpmC: 计数阶段每分钟完成的New-Order事务数(Clause 5.4.1), 包括1%回滚的New-Order;
+ *   - 每种事务响应时间的90百分位数(Clause 5.2.5.4): Stock-Level <= 20s, 其他 <= 5s. Delivery在测试线程中同步执行,
+ *     没有deferred的队列, 所以按交互部分的5s检查;
+ *   - 事务比例的下限(Clause 5.2.3): Payment >= 43%, Order-Status、Delivery、Stock-Level >= 4%;
+ *   - 计数阶段(measurement interval) >= 120分钟(Clause 5.5.1.1), 并且有ramp-up(热身);
+ *   - 稳定状态: 每个报告周期New-Order吞吐量的变异系数(标准差/平均值) <= 10%, 这是内部的阈值, 不是规范的条款;
+ *   - 输入数据的分布: New-Order回滚1%(2.4.1.4)、平均10个order line(2.4.1.3)、远程order line 1%(2.4.1.5),
+ *     远程Payment 15%(2.5.1.2)、按c_last选择客户60%(2.5.1.2, 2.6.1.2). 观察值与期望值的差不超过期望值的10%或者3个标准差
+ *     (样本少时3个标准差更大)时通过; 只有1个仓库时远程仓库的检查不适用(n/a);
+ *   - 终端模拟(Clause 5.2.5): pacing=terminal并且think-time-scale=1.0, closed/open pacing没有keying/think time;
+ *   - 压测端没有饱和(DriverHealthMonitor).
+ *
+ * 作为IntervalListener在报告线程中记录每个周期的New-Order吞吐量. n/a的检查不影响结果.
+ * 这不是审计过的结果, 只是按规范可以在压测端检查的部分.
+ */
+public class ComplianceValidator implements BenchmarkReporter.IntervalListener {
+	public static final double MAX_INTERACTIVE_P90_SECONDS = 5.0D;
+	public static final double MAX_STOCK_LEVEL_P90_SECONDS = 20.0D;
+	public static final double MIN_PAYMENT_PCT = 43.0D;
+	public static final double MIN_OTHER_PCT = 4.0D;
+	public static final long MIN_MEASUREMENT_MINUTES = 120L;
+	public static final double MAX_STEADY_STATE_CV = 0.10D;
+	/** 计算变异系数至少需要的报告周期数. */
+	private static final int MIN_STEADY_STATE_INTERVALS = 3;
+
+	public enum Status {
+		PASS("PASS"), FAIL("FAIL"), NA("n/a");
+
+		private final String label;
+
+		private Status(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	public static class Check {
+		private final String name;
+		private final String clause;
+		private final String value;
+		private final String requirement;
+		private final Status status;
+
+		Check(String name, String clause, String value, String requirement, Status status) {
+			this.name = name;
+			this.clause = clause;
+			this.value = value;
+			this.requirement = requirement;
+			this.status = status;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getClause() {
+			return clause;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public String getRequirement() {
+			return requirement;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+	}
+
+	private final int rampUp;
+	private final Pacing pacing;
+	private final double thinkTimeScale;
+	private final int wareCount;
+	//// 每个周期的New-Order吞吐量(tpm), 只在报告线程中更新.
+	private int intervals = 0;
+	private double tpmSum = 0.0D;
+	private double tpmSquareSum = 0.0D;
+	private double tpmc = 0.0D;
+	private List<Check> checks = Collections.emptyList();
+
+	/**
+	 * @param rampUp 热身时间(秒).
+	 */
+	public ComplianceValidator(int rampUp, Pacing pacing, double thinkTimeScale, int wareCount) {
+		this.rampUp = rampUp;
+		this.pacing = pacing;
+		this.thinkTimeScale = thinkTimeScale;
+		this.wareCount = wareCount;
+	}
+
+	@Override
+	public synchronized void intervalReported(IntervalStatistics statistics) {
+		if (statistics.getIntervalMillis() <= 0L) {
+			return;
+		}
+		double tpm = statistics.getTpmc();
+		intervals++;
+		tpmSum += tpm;
+		tpmSquareSum += tpm * tpm;
+	}
+
+	/**
+	 * 按计数阶段的统计检查结果, 在所有测试线程退出后调用.
+	 * @param histograms 累计的响应时间直方图(StatisticsAggregator.getTotalHistograms()).
+	 * @param healthMonitor 没有开启driver-health时为null.
+	 * @return 所有的检查.
+	 */
+	public synchronized List<Check> validate(List<BenchmarkThread> benchmarkThreads, LatencyHistogram[] histograms,
+			long runtimeMillis, DriverHealthMonitor healthMonitor) {
+		long[] total = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			benchmarkThread.getStatistics().snapshot(snapshot);
+			TerminalStatistics.merge(total, snapshot);
+		}
+		List<Check> result = new ArrayList<>();
+
+		long newOrders = succeed(total, TransactionType.NewOrder);
+		tpmc = (runtimeMillis > 0L) ? (newOrders * 60000.0D / runtimeMillis) : 0.0D;
+
+		//// 响应时间(Clause 5.2.5.4)
+		for (TransactionType type : TransactionType.values()) {
+			double limit = (type == TransactionType.StockLevel) ? MAX_STOCK_LEVEL_P90_SECONDS : MAX_INTERACTIVE_P90_SECONDS;
+			long count = succeed(total, type);
+			long max = total[TerminalStatistics.index(type, TerminalStatistics.MAX_RUNTIME)];
+			double p90 = Math.min(histograms[type.getId()].getValueAtPercentile(90.0D), max) / 1000000.0D;
+			result.add(new Check(type + " p90", "5.2.5.4", (count > 0L) ? String.format("%.3f s", p90) : "-",
+					String.format("<= %.0f s", limit), (count == 0L) ? Status.NA : status(p90 <= limit)));
+		}
+
+		//// 事务比例(Clause 5.2.3)
+		long all = 0L;
+		for (TransactionType type : TransactionType.values()) {
+			all += succeed(total, type);
+		}
+		for (TransactionType type : TransactionType.values()) {
+			if (type == TransactionType.NewOrder) {
+				continue;
+			}
+			double min = (type == TransactionType.Payment) ? MIN_PAYMENT_PCT : MIN_OTHER_PCT;
+			double pct = (all > 0L) ? (succeed(total, type) * 100.0D / all) : 0.0D;
+			result.add(new Check(type + " mix", "5.2.3", String.format("%.2f %%", pct), String.format(">= %.1f %%", min),
+					(all == 0L) ? Status.NA : status(pct >= min)));
+		}
+
+		//// 测试时间(Clause 5.5.1.1)
+		double minutes = runtimeMillis / 60000.0D;
+		result.add(new Check("Measurement interval", "5.5.1.1", String.format("%.1f min", minutes),
+				String.format(">= %s min", MIN_MEASUREMENT_MINUTES), status(minutes >= MIN_MEASUREMENT_MINUTES)));
+		result.add(new Check("Ramp-up", "5.5.1", rampUp + " s", "> 0 s", status(rampUp > 0)));
+		if (intervals < MIN_STEADY_STATE_INTERVALS) {
+			result.add(new Check("Steady state (tpmC CV)", "5.5.1", intervals + " intervals",
+					String.format("<= %.0f %%", MAX_STEADY_STATE_CV * 100.0D), Status.NA));
+		} else {
+			double mean = tpmSum / intervals;
+			double variance = Math.max(0.0D, tpmSquareSum / intervals - mean * mean);
+			double cv = (mean > 0.0D) ? (Math.sqrt(variance) / mean) : 1.0D;
+			result.add(new Check("Steady state (tpmC CV)", "5.5.1", String.format("%.2f %%", cv * 100.0D),
+					String.format("<= %.0f %%", MAX_STEADY_STATE_CV * 100.0D), status(cv <= MAX_STEADY_STATE_CV)));
+		}
+
+		//// 输入数据的分布
+		long payments = succeed(total, TransactionType.Payment);
+		long orderStatus = succeed(total, TransactionType.OrderStatus);
+		long lines = counter(total, TransactionType.NewOrder, TerminalStatistics.LINE_COUNT);
+		result.add(ratio("New-Order rollbacks", "2.4.1.4",
+				counter(total, TransactionType.NewOrder, TerminalStatistics.ROLLBACK_COUNT), newOrders, 0.01D));
+		result.add(average("Items per order", "2.4.1.3", lines, newOrders, 10.0D, 10.0D, 0.5D));
+		if (wareCount > 1) {
+			result.add(ratio("Remote order lines", "2.4.1.5",
+					counter(total, TransactionType.NewOrder, TerminalStatistics.REMOTE_COUNT), lines, 0.01D));
+			result.add(ratio("Remote payments", "2.5.1.2",
+					counter(total, TransactionType.Payment, TerminalStatistics.REMOTE_COUNT), payments, 0.15D));
+		} else {
+			result.add(new Check("Remote order lines", "2.4.1.5", "1 warehouse", "1.00 %", Status.NA));
+			result.add(new Check("Remote payments", "2.5.1.2", "1 warehouse", "15.00 %", Status.NA));
+		}
+		result.add(ratio("Payment by last name", "2.5.1.2",
+				counter(total, TransactionType.Payment, TerminalStatistics.BY_NAME_COUNT), payments, 0.60D));
+		result.add(ratio("Order-Status by last name", "2.6.1.2",
+				counter(total, TransactionType.OrderStatus, TerminalStatistics.BY_NAME_COUNT), orderStatus, 0.60D));
+
+		//// 终端模拟和压测端
+		boolean emulated = (pacing == Pacing.Terminal) && (thinkTimeScale == 1.0D);
+		result.add(new Check("Terminal emulation", "5.2.5",
+				(pacing == Pacing.Terminal) ? String.format("terminal, x%.2f", thinkTimeScale) : pacing.name().toLowerCase(),
+				"terminal, x1.00", status(emulated)));
+		if (Objects.isNull(healthMonitor)) {
+			result.add(new Check("Driver not saturated", "-", "not monitored", "0 intervals", Status.NA));
+		} else {
+			result.add(new Check("Driver not saturated", "-", healthMonitor.getSaturatedIntervals() + " intervals",
+					"0 intervals", status(healthMonitor.isValid())));
+		}
+		checks = Collections.unmodifiableList(result);
+		return checks;
+	}
+
+	/**
+	 * 比例检查: 观察值与期望值p的差不超过max(10% * p, 3个标准差)时通过.
+	 */
+	private static Check ratio(String name, String clause, long count, long samples, double p) {
+		String requirement = String.format("%.2f %%", p * 100.0D);
+		if (samples == 0L) {
+			return new Check(name, clause, "-", requirement, Status.NA);
+		}
+		double observed = (double) count / samples;
+		double tolerance = Math.max(0.1D * p, 3.0D * Math.sqrt(p * (1.0D - p) / samples));
+		return new Check(name, clause, String.format("%.2f %%", observed * 100.0D),
+				String.format("%s +/- %.2f", requirement, tolerance * 100.0D), status(Math.abs(observed - p) <= tolerance));
+	}
+
+	/**
+	 * 平均值检查: 观察值与期望值的差不超过max(minTolerance, 3个标准差)时通过.
+	 */
+	private static Check average(String name, String clause, long sum, long samples, double expected, double variance,
+			double minTolerance) {
+		String requirement = String.format("%.1f", expected);
+		if (samples == 0L) {
+			return new Check(name, clause, "-", requirement, Status.NA);
+		}
+		double observed = (double) sum / samples;
+		double tolerance = Math.max(minTolerance, 3.0D * Math.sqrt(variance / samples));
+		return new Check(name, clause, String.format("%.2f", observed),
+				String.format("%s +/- %.2f", requirement, tolerance), status(Math.abs(observed - expected) <= tolerance));
+	}
+
+	private static Status status(boolean pass) {
+		return pass ? Status.PASS : Status.FAIL;
+	}
+
+	private static long succeed(long[] total, TransactionType type) {
+		return counter(total, type, TerminalStatistics.SUCCEED_COUNT);
+	}
+
+	private static long counter(long[] total, TransactionType type, int field) {
+		return total[TerminalStatistics.index(type, field)];
+	}
+
+	/**
+	 * @return 规范定义的tpmC: 计数阶段每分钟完成的New-Order事务数.
+	 */
+	public synchronized double getTpmc() {
+		return tpmc;
+	}
+
+	public synchronized List<Check> getChecks() {
+		return checks;
+	}
+
+	public synchronized int getFailedCount() {
+		int failed = 0;
+		for (Check check : checks) {
+			if (check.getStatus() == Status.FAIL) {
+				failed++;
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * @return 所有适用的检查都通过.
+	 */
+	public boolean isCompliant() {
+		return getFailedCount() == 0;
+	}
+}
@@ -0,0 +1,154 @@
+package org.littlestar.tpcc;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SLA自适应并发控制: 每个报告周期根据New-Order响应时间的90百分位数调整活动的terminal数量(AIMD):
+ *   - p90 <= 目标: 增加terminal, slow start阶段翻倍, 第一次超过目标后每个周期增加sla-increase个;
+ *   - p90 >  目标: 乘以sla-decrease(如0.8)减少terminal.
+ *
+ * AIMD在SLA边界附近会在相邻的terminal数量之间振荡, 所以按terminal数量汇总所有周期: 运行了至少SUSTAIN_INTERVALS个周期,
+ * 并且汇总的p90满足SLA的terminal数量中, TpmC最高的即为满足SLA的最大可持续TpmC. 单个周期的偶然高值不会被当作容量.
+ */
+public class ConcurrencyController implements BenchmarkReporter.IntervalListener {
+	private final static Logger LOGGER = LoggerFactory.getLogger(ConcurrencyController.class);
+	public static final int SUSTAIN_INTERVALS = 3;
+	/** 一个周期内New-Order少于这个数量时, p90没有统计意义, 不调整. */
+	private static final long MIN_SAMPLES = 10L;
+
+	private final AtomicInteger activeTerminals;
+	private final long targetP90;
+	private final long targetP90Micros;
+	private final int minTerminals;
+	private final int maxTerminals;
+	private final int increase;
+	private final double decrease;
+	private boolean slowStart = true;
+
+	private volatile int intervalCount = 0;
+	private volatile int withinSlaCount = 0;
+	/** 按terminal数量汇总的周期统计. */
+	private final Map<Integer, Level> levels = new TreeMap<>();
+	private volatile Level sustainable = null;
+
+	/**
+	 * 以同一个terminal数量运行的所有周期的汇总.
+	 */
+	public static class Level {
+		private final int terminals;
+		private final LatencyHistogram histogram = new LatencyHistogram();
+		private int intervals = 0;
+		private long millis = 0L;
+
+		Level(int terminals) {
+			this.terminals = terminals;
+		}
+
+		public int getTerminals() {
+			return terminals;
+		}
+
+		public int getIntervals() {
+			return intervals;
+		}
+
+		public double getTpmc() {
+			return (millis > 0L) ? (histogram.getTotalCount() * 60000.0D / millis) : 0.0D;
+		}
+
+		/**
+		 * @return New-Order响应时间的90百分位数(μs).
+		 */
+		public long getP90() {
+			return histogram.getValueAtPercentile(90.0D);
+		}
+	}
+
+	/**
+	 * @param targetP90 New-Order响应时间90百分位数的目标(ms).
+	 * @param increase 每个周期增加的terminal数量(slow start结束后).
+	 * @param decrease 超过目标时terminal数量的乘数, 0 ~ 1.
+	 */
+	public ConcurrencyController(AtomicInteger activeTerminals, long targetP90, int minTerminals, int maxTerminals,
+			int increase, double decrease) {
+		this.activeTerminals = activeTerminals;
+		this.targetP90 = targetP90;
+		this.targetP90Micros = TimeUnit.MILLISECONDS.toMicros(targetP90);
+		this.maxTerminals = Math.max(1, maxTerminals);
+		this.minTerminals = Math.min(Math.max(1, minTerminals), this.maxTerminals);
+		this.increase = Math.max(1, increase);
+		this.decrease = Math.min(Math.max(decrease, 0.1D), 0.99D);
+	}
+
+	public int getMinTerminals() {
+		return minTerminals;
+	}
+
+	@Override
+	public void intervalReported(IntervalStatistics statistics) {
+		LatencyHistogram newOrder = statistics.getHistogram(TransactionType.NewOrder);
+		int current = Math.min(activeTerminals.get(), maxTerminals);
+		if (newOrder.getTotalCount() < MIN_SAMPLES) {
+			LOGGER.trace("SLA controller: not enough New-Order samples in interval, keep " + current + " terminals.");
+			return;
+		}
+		intervalCount++;
+		long p90 = newOrder.getValueAtPercentile(90.0D);
+		aggregate(current, statistics.getIntervalMillis(), newOrder);
+		int next;
+		if (p90 <= targetP90Micros) {
+			withinSlaCount++;
+			next = slowStart ? current * 2 : current + increase;
+		} else {
+			slowStart = false;
+			next = (int) Math.floor(current * decrease);
+		}
+		next = Math.min(Math.max(next, minTerminals), maxTerminals);
+		if (next != current) {
+			LOGGER.info(String.format("SLA controller: New-Order p90 %.3f ms %s target %s ms, terminals %s -> %s",
+					p90 / 1000.0D, (p90 <= targetP90Micros) ? "<=" : ">", targetP90, current, next));
+			activeTerminals.set(next);
+		}
+	}
+
+	private void aggregate(int terminals, long intervalMillis, LatencyHistogram newOrder) {
+		Level level = levels.computeIfAbsent(terminals, Level::new);
+		level.intervals++;
+		level.millis += intervalMillis;
+		level.histogram.add(newOrder);
+		Level best = null;
+		for (Level candidate : levels.values()) {
+			if (candidate.intervals >= SUSTAIN_INTERVALS && candidate.getP90() <= targetP90Micros
+					&& (Objects.isNull(best) || candidate.getTpmc() > best.getTpmc())) {
+				best = candidate;
+			}
+		}
+		sustainable = best;
+	}
+
+	public long getTargetP90() {
+		return targetP90;
+	}
+
+	/**
+	 * @return 满足SLA的最大可持续TpmC所在的terminal数量, 没有满足条件的terminal数量时返回null.
+	 */
+	public Level getSustainable() {
+		return sustainable;
+	}
+
+	public int getIntervalCount() {
+		return intervalCount;
+	}
+
+	public int getWithinSlaCount() {
+		return withinSlaCount;
+	}
+}
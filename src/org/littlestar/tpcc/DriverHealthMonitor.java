@@ -0,0 +1,406 @@
+package org.littlestar.tpcc;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+/**
+ * 压测端(load generator)自身的健康监控: 每个报告周期检查压测端是否已经饱和, 饱和时该周期的结果反映的是压测端而不是数据库的瓶颈.
+ *   - 进程CPU使用率: 进程CPU时间 / (周期时长 * CPU数);
+ *   - GC停顿时间: GarbageCollectorMXBean的收集时间(不包括并发收集);
+ *   - safepoint时间: JFR的jdk.SafepointBegin(到达safepoint)和在safepoint中执行的jdk.ExecuteVMOperation, 需要JDK 14+
+ *     (RecordingStream通过反射创建, 源码仍然按Java 11编译);
+ *   - 可运行线程积压: 本进程/proc/self/task/<tid>/stat状态为R(运行/可运行)的线程数, 只支持Linux. 不用系统的load average,
+ *     避免无关的进程影响结果; 也不用ThreadMXBean, 它把阻塞在socket读上的JDBC线程也算作RUNNABLE;
+ *   - 调度延迟: 探测线程每10ms唤醒一次, 实际唤醒时间比计划晚的时间(terminal等待后开始事务同样会晚这么多);
+ *   - 事务开始延迟: terminal计划开始事务到实际开始执行的平均时间(QUEUE_TIME). 只有closed pacing的计划开始时间就是terminal
+ *     决定开始的时间, 延迟完全来自压测端; open/terminal pacing还包括数据库变慢造成的排队, 只报告不判断.
+ *
+ * 超过阈值的周期标记为饱和(saturated), 在该周期的行后面输出警告; 计数阶段有饱和的周期时, 测试结果标记为无效(INVALID).
+ * sample()只由报告线程调用.
+ */
+public class DriverHealthMonitor {
+	private final static Logger LOGGER = LoggerFactory.getLogger(DriverHealthMonitor.class);
+	//// 一个周期的值, 按下面的字段索引. 时间单位为μs, 比例单位为0.1%.
+	public static final int PROCESS_CPU      = 0;
+	public static final int GC_PAUSE_TIME    = 1;
+	public static final int SAFEPOINT_TIME   = 2;
+	public static final int RUNNABLE_THREADS = 3;
+	public static final int SCHEDULE_LAG     = 4;
+	public static final int MAX_SCHEDULE_LAG = 5;
+	public static final int START_LAG        = 6;
+	public static final int REASONS          = 7;
+	public static final int FIELD_COUNT      = 8;
+	//// 饱和的原因, REASONS字段的位.
+	public static final int CPU_SATURATED       = 1;
+	public static final int PAUSE_SATURATED     = 1 << 1;
+	public static final int RUNNABLE_SATURATED  = 1 << 2;
+	public static final int SCHEDULE_SATURATED  = 1 << 3;
+	public static final int START_LAG_SATURATED = 1 << 4;
+	private static final String[] REASON_LABELS = { "CPU", "Pause", "Runnable", "Schedule-Lag", "Start-Lag" };
+
+	/** 进程CPU使用率(0.1%). */
+	public static final long CPU_THRESHOLD = 900L;
+	/** GC/safepoint停顿占周期时长(0.1%). */
+	public static final long PAUSE_THRESHOLD = 100L;
+	/** 可运行线程数 / CPU数. */
+	public static final double RUNNABLE_THRESHOLD = 2.0D;
+	/** 平均调度延迟和平均事务开始延迟(μs). */
+	public static final long LAG_THRESHOLD = 2000L;
+	private static final long PROBE_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+	//// 每秒读取一次, 线程数多时读取所有线程的stat需要较长时间.
+	private static final int PROBES_PER_RUNNABLE_SAMPLE = 100;
+	private static final Path TASKS = Paths.get("/proc/self/task");
+
+	private final boolean closedPacing;
+	private final int processors = Runtime.getRuntime().availableProcessors();
+	private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+	private final List<GarbageCollectorMXBean> pauseCollectors = new ArrayList<>();
+	private final AtomicLong safepointNanos = new AtomicLong(0L);
+	private AutoCloseable safepointStream = null;
+	private Thread probeThread = null;
+	private volatile boolean running = false;
+	//// 探测线程写, 报告线程每个周期读取后清零.
+	private final AtomicLong lagNanos = new AtomicLong(0L);
+	private final AtomicLong lagCount = new AtomicLong(0L);
+	private final AtomicLong maxLagNanos = new AtomicLong(0L);
+	private final AtomicLong runnableSum = new AtomicLong(0L);
+	private final AtomicLong runnableCount = new AtomicLong(0L);
+
+	private long lastSampleNanos;
+	private long lastCpuNanos;
+	private long lastGcMillis;
+	private long lastSafepointNanos;
+
+	//// 计数阶段的汇总.
+	private long intervals = 0L;
+	private long saturatedIntervals = 0L;
+	private final long[] reasonCounts = new long[REASON_LABELS.length];
+	private long maxCpu = -1L;
+	private long maxPause = 0L;
+	private long maxRunnable = -1L;
+	private long maxScheduleLag = 0L;
+	private long maxStartLag = 0L;
+
+	/**
+	 * @param closedPacing closed pacing时用事务开始延迟判断饱和.
+	 */
+	public DriverHealthMonitor(boolean closedPacing) {
+		this.closedPacing = closedPacing;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			//// ZGC/Shenandoah的"Cycles"和G1的"Concurrent GC"是并发收集的时间, 不是停顿.
+			String name = collector.getName();
+			if (!name.contains("Cycles") && !name.contains("Concurrent")) {
+				pauseCollectors.add(collector);
+			}
+		}
+	}
+
+	public void start() {
+		safepointStream = startSafepointStream();
+		lastSampleNanos = System.nanoTime();
+		lastCpuNanos = processCpuNanos();
+		lastGcMillis = gcMillis();
+		lastSafepointNanos = safepointNanos.get();
+		running = true;
+		probeThread = new Thread(this::probe, "tpcc-health-probe");
+		probeThread.setDaemon(true);
+		probeThread.start();
+	}
+
+	public void stop() {
+		running = false;
+		if (Objects.nonNull(probeThread)) {
+			probeThread.interrupt();
+			probeThread = null;
+		}
+		if (Objects.nonNull(safepointStream)) {
+			try {
+				safepointStream.close();
+			} catch (Exception e) {
+				LOGGER.debug("Close JFR stream failed.", e);
+			}
+			safepointStream = null;
+		}
+	}
+
+	/**
+	 * 用JFR的RecordingStream(JDK 14+)累计safepoint时间. RecordingStream通过反射创建, 在JDK 11~13上不会加载.
+	 * @return 已经开始的RecordingStream, JDK 14以下或者JFR不可用时返回null.
+	 */
+	private AutoCloseable startSafepointStream() {
+		if (Runtime.version().feature() < 14) {
+			LOGGER.debug("JFR RecordingStream requires JDK 14+, safepoint time will not be reported.");
+			return null;
+		}
+		AutoCloseable stream = null;
+		try {
+			Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+			stream = (AutoCloseable) streamClass.getConstructor().newInstance();
+			Method enable = streamClass.getMethod("enable", String.class);
+			Method onEvent = streamClass.getMethod("onEvent", String.class, Consumer.class);
+			enable.invoke(stream, "jdk.SafepointBegin");
+			enable.invoke(stream, "jdk.ExecuteVMOperation");
+			Consumer<RecordedEvent> safepointBegin = event -> safepointNanos.addAndGet(event.getDuration().toNanos());
+			Consumer<RecordedEvent> vmOperation = event -> {
+				if (event.getBoolean("safepoint")) {
+					safepointNanos.addAndGet(event.getDuration().toNanos());
+				}
+			};
+			onEvent.invoke(stream, "jdk.SafepointBegin", safepointBegin);
+			onEvent.invoke(stream, "jdk.ExecuteVMOperation", vmOperation);
+			streamClass.getMethod("startAsync").invoke(stream);
+			return stream;
+		} catch (Throwable e) {
+			LOGGER.debug("Start JFR stream for safepoint events failed, safepoint time will not be reported.", e);
+			if (Objects.nonNull(stream)) {
+				try {
+					stream.close();
+				} catch (Exception ignored) {
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * 探测线程: 每PROBE_PERIOD_NANOS唤醒一次, 记录实际唤醒时间比计划晚的时间, 并定期读取可运行线程数.
+	 */
+	private void probe() {
+		long next = System.nanoTime() + PROBE_PERIOD_NANOS;
+		int probes = 0;
+		while (running) {
+			LockSupport.parkNanos(next - System.nanoTime());
+			long now = System.nanoTime();
+			long lag = Math.max(0L, now - next);
+			lagNanos.addAndGet(lag);
+			lagCount.incrementAndGet();
+			maxLagNanos.accumulateAndGet(lag, Math::max);
+			//// 晚了整个周期以上时从现在重新开始, 不补偿错过的唤醒.
+			next = (lag > PROBE_PERIOD_NANOS) ? (now + PROBE_PERIOD_NANOS) : (next + PROBE_PERIOD_NANOS);
+			if (++probes >= PROBES_PER_RUNNABLE_SAMPLE) {
+				probes = 0;
+				long runnable = runnableThreads();
+				if (runnable >= 0L) {
+					runnableSum.addAndGet(runnable);
+					runnableCount.incrementAndGet();
+				}
+				//// 读取的时间不算作调度延迟.
+				next = System.nanoTime() + PROBE_PERIOD_NANOS;
+			}
+		}
+	}
+
+	/**
+	 * 读取本周期的值, 判断是否饱和, 开始新的周期.
+	 * @param startLagMicros 周期内事务开始延迟的平均值(μs).
+	 * @param counting 是否在计数阶段, 只汇总计数阶段的周期.
+	 * @param target 按本类的字段索引.
+	 * @return 本周期压测端是否饱和.
+	 */
+	public boolean sample(long startLagMicros, boolean counting, long[] target) {
+		long now = System.nanoTime();
+		long elapsedNanos = Math.max(1L, now - lastSampleNanos);
+		long cpuNanos = processCpuNanos();
+		long gc = gcMillis();
+		long safepoint = safepointNanos.get();
+		target[PROCESS_CPU] = (cpuNanos < 0L) ? -1L : ((cpuNanos - lastCpuNanos) * 1000L / (elapsedNanos * processors));
+		target[GC_PAUSE_TIME] = TimeUnit.MILLISECONDS.toMicros(gc - lastGcMillis);
+		target[SAFEPOINT_TIME] = Objects.isNull(safepointStream) ? -1L
+				: TimeUnit.NANOSECONDS.toMicros(safepoint - lastSafepointNanos);
+		long samples = runnableCount.getAndSet(0L);
+		long runnableTotal = runnableSum.getAndSet(0L);
+		target[RUNNABLE_THREADS] = (samples == 0L) ? -1L : Math.round((double) runnableTotal / samples);
+		long probes = lagCount.getAndSet(0L);
+		long lagTotal = lagNanos.getAndSet(0L);
+		target[SCHEDULE_LAG] = (probes == 0L) ? 0L : TimeUnit.NANOSECONDS.toMicros(lagTotal / probes);
+		target[MAX_SCHEDULE_LAG] = TimeUnit.NANOSECONDS.toMicros(maxLagNanos.getAndSet(0L));
+		target[START_LAG] = startLagMicros;
+		lastSampleNanos = now;
+		lastCpuNanos = cpuNanos;
+		lastGcMillis = gc;
+		lastSafepointNanos = safepoint;
+
+		long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+		long pause = Math.max(target[GC_PAUSE_TIME], target[SAFEPOINT_TIME]) * 1000L / Math.max(1L, elapsedMicros);
+		int reasons = 0;
+		if (target[PROCESS_CPU] >= CPU_THRESHOLD) {
+			reasons |= CPU_SATURATED;
+		}
+		if (pause >= PAUSE_THRESHOLD) {
+			reasons |= PAUSE_SATURATED;
+		}
+		if (target[RUNNABLE_THREADS] > RUNNABLE_THRESHOLD * processors) {
+			reasons |= RUNNABLE_SATURATED;
+		}
+		if (target[SCHEDULE_LAG] >= LAG_THRESHOLD) {
+			reasons |= SCHEDULE_SATURATED;
+		}
+		if (closedPacing && startLagMicros >= LAG_THRESHOLD) {
+			reasons |= START_LAG_SATURATED;
+		}
+		target[REASONS] = reasons;
+
+		if (counting) {
+			intervals++;
+			if (reasons != 0) {
+				saturatedIntervals++;
+				for (int i = 0; i < reasonCounts.length; i++) {
+					if ((reasons & (1 << i)) != 0) {
+						reasonCounts[i]++;
+					}
+				}
+			}
+			maxCpu = Math.max(maxCpu, target[PROCESS_CPU]);
+			maxPause = Math.max(maxPause, pause);
+			maxRunnable = Math.max(maxRunnable, target[RUNNABLE_THREADS]);
+			maxScheduleLag = Math.max(maxScheduleLag, target[SCHEDULE_LAG]);
+			maxStartLag = Math.max(maxStartLag, startLagMicros);
+		}
+		return reasons != 0;
+	}
+
+	/**
+	 * @return 按REASON_LABELS的顺序, 如"CPU, Schedule-Lag".
+	 */
+	public static String reasons(long reasons) {
+		StringBuilder labels = new StringBuilder();
+		for (int i = 0; i < REASON_LABELS.length; i++) {
+			if ((reasons & (1 << i)) != 0) {
+				labels.append((labels.length() > 0) ? ", " : "").append(REASON_LABELS[i]);
+			}
+		}
+		return labels.toString();
+	}
+
+	/**
+	 * @return 计数阶段没有饱和的周期.
+	 */
+	public boolean isValid() {
+		return saturatedIntervals == 0L;
+	}
+
+	public long getIntervals() {
+		return intervals;
+	}
+
+	public long getSaturatedIntervals() {
+		return saturatedIntervals;
+	}
+
+	/**
+	 * @param reason 原因的位, 如CPU_SATURATED.
+	 */
+	public long getReasonCount(int reason) {
+		return reasonCounts[Integer.numberOfTrailingZeros(reason)];
+	}
+
+	public int getProcessors() {
+		return processors;
+	}
+
+	/**
+	 * @return 计数阶段周期进程CPU使用率的最大值(0.1%), 不支持时为-1.
+	 */
+	public long getMaxCpu() {
+		return maxCpu;
+	}
+
+	/**
+	 * @return 计数阶段周期GC/safepoint停顿占比的最大值(0.1%).
+	 */
+	public long getMaxPause() {
+		return maxPause;
+	}
+
+	/**
+	 * @return 计数阶段周期平均可运行线程数的最大值, 不支持时为-1.
+	 */
+	public long getMaxRunnable() {
+		return maxRunnable;
+	}
+
+	public long getMaxScheduleLag() {
+		return maxScheduleLag;
+	}
+
+	public long getMaxStartLag() {
+		return maxStartLag;
+	}
+
+	public boolean isSafepointAvailable() {
+		return Objects.nonNull(safepointStream);
+	}
+
+	private long processCpuNanos() {
+		if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+		}
+		return -1L;
+	}
+
+	private long gcMillis() {
+		long total = 0L;
+		for (GarbageCollectorMXBean collector : pauseCollectors) {
+			total += Math.max(0L, collector.getCollectionTime());
+		}
+		return total;
+	}
+
+	/**
+	 * 本进程状态为R的线程数(不包括探测线程自己), 不是Linux时返回-1.
+	 */
+	private long runnableThreads() {
+		if (!Files.isDirectory(TASKS)) {
+			return -1L;
+		}
+		long runnable = 0L;
+		try (DirectoryStream<Path> tasks = Files.newDirectoryStream(TASKS)) {
+			for (Path task : tasks) {
+				if (isRunnable(task)) {
+					runnable++;
+				}
+			}
+		} catch (Exception e) {
+			LOGGER.trace("Read " + TASKS + " failed.", e);
+			return -1L;
+		}
+		return Math.max(0L, runnable - 1L);
+	}
+
+	/**
+	 * stat的格式为"tid (comm) state ...", comm中可能有空格和括号, 状态取最后一个')'之后的字段.
+	 */
+	private static boolean isRunnable(Path task) {
+		byte[] stat;
+		try {
+			stat = Files.readAllBytes(task.resolve("stat"));
+		} catch (Exception e) {
+			//// 线程已经结束.
+			return false;
+		}
+		for (int i = stat.length - 1; i >= 0; i--) {
+			if (stat[i] == ')') {
+				return (i + 2 < stat.length) && (stat[i + 2] == 'R');
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,52 @@
+package org.littlestar.tpcc;
+
+/**
+ * 一个模拟的TPC-C终端(Remote Terminal Emulator), 固定绑定一个(w_id, d_id):
+ *   - w_id是终端的home warehouse, 所有事务都使用它;
+ *   - d_id只用于Stock-Level事务(2.8.1.1: 每个终端使用固定且唯一的(W_ID, D_ID)), 其他事务的d_id随机选择.
+ *
+ * 终端不是线程, 只是一个很小的状态对象, keying/think time由TimerWheel调度.
+ */
+public class EmulatedTerminal extends TimerWheel.Entry {
+	private final int terminalId;
+	private final int w_id;
+	private final int d_id;
+	private final TransactionDeck deck;
+	private TransactionType nextTransaction;
+
+	public EmulatedTerminal(int terminalId, int w_id, int d_id, TransactionDeck deck) {
+		this.terminalId = terminalId;
+		this.w_id = w_id;
+		this.d_id = d_id;
+		this.deck = deck;
+	}
+
+	public int getTerminalId() {
+		return terminalId;
+	}
+
+	public int getWarehouseId() {
+		return w_id;
+	}
+
+	public int getDistrictId() {
+		return d_id;
+	}
+
+	public TransactionDeck getDeck() {
+		return deck;
+	}
+
+	public TransactionType getNextTransaction() {
+		return nextTransaction;
+	}
+
+	public void setNextTransaction(TransactionType nextTransaction) {
+		this.nextTransaction = nextTransaction;
+	}
+
+	@Override
+	public String toString() {
+		return "terminal = " + terminalId + "; w_id = " + w_id + "; d_id = " + d_id;
+	}
+}
@@ -0,0 +1,175 @@
+package org.littlestar.tpcc;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 失败统计: 每次失败的事务尝试按(事务类型, 语句id, SQLState, vendor code, FailureClass)分组计数, 并按FailureClass累计,
+ * BenchmarkReporter据此输出每个报告周期的失败数和测试结束时的Top-N失败表. 只在计数阶段(countingOn)记录.
+ *
+ * 失败相对事务是少数, 使用ConcurrentHashMap + LongAdder, 由所有测试线程并发写入.
+ */
+public class FailureAccounting {
+	private static final int MESSAGE_MAX_LENGTH = 120;
+
+	/**
+	 * 失败分组.
+	 */
+	public static class Key {
+		private final TransactionType type;
+		private final String statement;
+		private final String sqlState;
+		private final int vendorCode;
+		private final FailureClass failureClass;
+
+		Key(TransactionType type, String statement, String sqlState, int vendorCode, FailureClass failureClass) {
+			this.type = type;
+			this.statement = statement;
+			this.sqlState = sqlState;
+			this.vendorCode = vendorCode;
+			this.failureClass = failureClass;
+		}
+
+		public TransactionType getTransactionType() {
+			return type;
+		}
+
+		/**
+		 * @return 失败时正在执行的语句id(如"newOrderStmt7", "newOrderCommit"), 获取连接失败时为"connect".
+		 */
+		public String getStatement() {
+			return statement;
+		}
+
+		/**
+		 * @return 异常链上第一个SQLException的SQLState, 不是SQLException时为异常的类名.
+		 */
+		public String getSqlState() {
+			return sqlState;
+		}
+
+		public int getVendorCode() {
+			return vendorCode;
+		}
+
+		public FailureClass getFailureClass() {
+			return failureClass;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, statement, sqlState, vendorCode, failureClass);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return type == other.type && vendorCode == other.vendorCode && failureClass == other.failureClass
+					&& Objects.equals(statement, other.statement) && Objects.equals(sqlState, other.sqlState);
+		}
+	}
+
+	/**
+	 * 一个分组的失败次数, 以及第一次失败的异常信息.
+	 */
+	public static class Entry {
+		private final Key key;
+		private final LongAdder count = new LongAdder();
+		private final String message;
+
+		Entry(Key key, String message) {
+			this.key = key;
+			this.message = message;
+		}
+
+		public Key getKey() {
+			return key;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	private final AtomicLongArray classCounts = new AtomicLongArray(FailureClass.values().length);
+	private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @param statement 失败时正在执行的语句id.
+	 */
+	public void record(TransactionType type, String statement, FailureClass failureClass, Throwable e) {
+		classCounts.incrementAndGet(failureClass.ordinal());
+		SQLException sqlException = firstSQLException(e);
+		String sqlState;
+		int vendorCode;
+		if (Objects.nonNull(sqlException)) {
+			sqlState = Objects.isNull(sqlException.getSQLState()) ? "-" : sqlException.getSQLState();
+			vendorCode = sqlException.getErrorCode();
+		} else {
+			sqlState = e.getClass().getSimpleName();
+			vendorCode = 0;
+		}
+		Key key = new Key(type, statement, sqlState, vendorCode, failureClass);
+		entries.computeIfAbsent(key, k -> new Entry(k, abbreviate(Objects.nonNull(sqlException) ? sqlException : e)))
+				.count.increment();
+	}
+
+	private static SQLException firstSQLException(Throwable e) {
+		Throwable current = e;
+		int depth = 0;
+		while (Objects.nonNull(current) && depth++ < 8) {
+			if (current instanceof SQLException) {
+				return (SQLException) current;
+			}
+			current = (current.getCause() == current) ? null : current.getCause();
+		}
+		return null;
+	}
+
+	private static String abbreviate(Throwable e) {
+		String message = Objects.isNull(e.getMessage()) ? e.getClass().getName() : e.getMessage();
+		message = message.replaceAll("\\s+", " ").trim();
+		return (message.length() > MESSAGE_MAX_LENGTH) ? message.substring(0, MESSAGE_MAX_LENGTH) + "..." : message;
+	}
+
+	public long getCount(FailureClass failureClass) {
+		return classCounts.get(failureClass.ordinal());
+	}
+
+	/**
+	 * 复制每种FailureClass的累计失败次数到target, 按FailureClass.ordinal()索引.
+	 */
+	public void snapshot(long[] target) {
+		for (int i = 0; i < target.length; i++) {
+			target[i] = classCounts.get(i);
+		}
+	}
+
+	/**
+	 * @return 失败次数最多的n个分组, 按次数降序.
+	 */
+	public List<Entry> getTop(int n) {
+		List<Entry> top = new ArrayList<>(entries.values());
+		top.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+		return (top.size() > n) ? new ArrayList<>(top.subList(0, n)) : top;
+	}
+
+	public int getGroupCount() {
+		return entries.size();
+	}
+}
@@ -0,0 +1,168 @@
+package org.littlestar.tpcc;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Objects;
+
+/**
+ * 事务失败的分类, 根据SQLState和各数据库的vendor code(SQLException.getErrorCode())判断, 决定重试策略(RetryPolicy).
+ *
+ *   Deadlock      : 死锁, 数据库已经回滚了事务(或语句);
+ *   Serialization : 串行化失败/写冲突(SQLState 40001等), 需要重新执行整个事务;
+ *   LockTimeout   : 等待行锁超时;
+ *   ConnectionLost: 连接断开(SQLState 08xxx), 需要重新连接;
+ *   Constraint    : 违反约束(SQLState 23xxx), 参数不变时重试结果不变;
+ *   NoData        : NoDataFoundException, 同上;
+ *   Other         : 其他错误.
+ */
+public enum FailureClass {
+	Deadlock, Serialization, LockTimeout, ConnectionLost, Constraint, NoData, Other;
+
+	/**
+	 * 依次检查异常链(getNextException()/getCause())上的每个SQLException, 返回第一个能识别的分类.
+	 */
+	public static FailureClass classify(Dbms dbms, Throwable e) {
+		Throwable current = e;
+		int depth = 0;
+		while (Objects.nonNull(current) && depth++ < 8) {
+			if (current instanceof NoDataFoundException) {
+				return NoData;
+			}
+			if (current instanceof SQLException) {
+				FailureClass failureClass = classify(dbms, (SQLException) current);
+				if (failureClass != Other) {
+					return failureClass;
+				}
+				SQLException next = ((SQLException) current).getNextException();
+				if (Objects.nonNull(next) && next != current) {
+					current = next;
+					continue;
+				}
+			}
+			current = (current.getCause() == current) ? null : current.getCause();
+		}
+		return Other;
+	}
+
+	private static FailureClass classify(Dbms dbms, SQLException e) {
+		String sqlState = Objects.isNull(e.getSQLState()) ? "" : e.getSQLState().toUpperCase();
+		int errorCode = e.getErrorCode();
+		//// 先按vendor code识别, 同一个SQLState在不同数据库中的含义可能不同(如MySQL的死锁也是40001).
+		switch (dbms) {
+		case MySQL:
+		case OB_MySQL:
+			if (errorCode == 1213) { // ER_LOCK_DEADLOCK
+				return Deadlock;
+			}
+			if (errorCode == 1205 || errorCode == 4012) { // ER_LOCK_WAIT_TIMEOUT, OB timeout
+				return LockTimeout;
+			}
+			if (errorCode == 1062 || errorCode == 1452) { // ER_DUP_ENTRY, ER_NO_REFERENCED_ROW_2
+				return Constraint;
+			}
+			break;
+		case Oracle:
+		case OB_Oracle:
+			if (errorCode == 60) { // ORA-00060
+				return Deadlock;
+			}
+			if (errorCode == 8177) { // ORA-08177
+				return Serialization;
+			}
+			if (errorCode == 54 || errorCode == 30006) { // ORA-00054, ORA-30006
+				return LockTimeout;
+			}
+			if (errorCode == 1 || errorCode == 2291) { // ORA-00001, ORA-02291
+				return Constraint;
+			}
+			if (errorCode == 3113 || errorCode == 3114 || errorCode == 17002 || errorCode == 17008) { // ORA-03113/03114, IO error, closed connection
+				return ConnectionLost;
+			}
+			break;
+		case MSSQL:
+			if (errorCode == 1205) { // chosen as deadlock victim
+				return Deadlock;
+			}
+			if (errorCode == 1222) { // lock request time out period exceeded
+				return LockTimeout;
+			}
+			if (errorCode == 3960) { // snapshot isolation update conflict
+				return Serialization;
+			}
+			if (errorCode == 2627 || errorCode == 2601 || errorCode == 547) {
+				return Constraint;
+			}
+			break;
+		case PostgreSQL:
+		case OpenGauss:
+			if ("40P01".equals(sqlState)) {
+				return Deadlock;
+			}
+			if ("55P03".equals(sqlState)) { // lock_not_available
+				return LockTimeout;
+			}
+			break;
+		case DB2:
+			if (errorCode == -911) {
+				//// reason code 2: deadlock, 68: lock timeout.
+				String message = e.getMessage();
+				return (Objects.nonNull(message) && message.contains("SQLERRMC=68")) ? LockTimeout : Deadlock;
+			}
+			if (errorCode == -913) {
+				return Deadlock;
+			}
+			if (errorCode == -4499) {
+				return ConnectionLost;
+			}
+			break;
+		case Derby:
+			if ("40001".equals(sqlState)) {
+				return Deadlock;
+			}
+			if ("40XL1".equals(sqlState) || "40XL2".equals(sqlState)) {
+				return LockTimeout;
+			}
+			break;
+		case H2:
+			if (errorCode == 40001) { // DEADLOCK_1
+				return Deadlock;
+			}
+			if (errorCode == 50200) { // LOCK_TIMEOUT_1
+				return LockTimeout;
+			}
+			if (errorCode == 90131) { // CONCURRENT_UPDATE_1
+				return Serialization;
+			}
+			break;
+		case SQLite:
+			if (errorCode == 5 || errorCode == 6) { // SQLITE_BUSY, SQLITE_LOCKED
+				return LockTimeout;
+			}
+			break;
+		default:
+			break;
+		}
+		//// 再按标准SQLState/异常类型识别.
+		if (sqlState.startsWith("08") || e instanceof SQLNonTransientConnectionException
+				|| e instanceof SQLRecoverableException) {
+			return ConnectionLost;
+		}
+		if (sqlState.startsWith("23") || e instanceof SQLIntegrityConstraintViolationException) {
+			return Constraint;
+		}
+		if ("40P01".equals(sqlState)) {
+			return Deadlock;
+		}
+		if (sqlState.startsWith("40") || e instanceof SQLTransactionRollbackException) {
+			return Serialization;
+		}
+		if ("HYT00".equals(sqlState) || e instanceof SQLTimeoutException) {
+			return LockTimeout;
+		}
+		return Other;
+	}
+}
@@ -0,0 +1,97 @@
+package org.littlestar.tpcc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 自定义的JFR(Java Flight Recorder)事件, 在JMC中与GC停顿、socket读、锁等待等JVM事件放在同一个时间轴上,
+ * 判断事务响应时间的毛刺来自数据库还是压测端(load generator):
+ *   - org.littlestar.tpcc.Transaction      : 一个事务, 从开始执行到完成(包括重试), 测试线程(TpccDriver)中记录;
+ *   - org.littlestar.tpcc.Statement        : 一次语句执行(execute)、提交或回滚, StatementCache中记录;
+ *   - org.littlestar.tpcc.ConnectionAcquire: 从数据源(连接池)获取连接, TerminalConnection中记录.
+ *
+ * 没有开启JFR记录时事件对象会被JIT消除, 开销可以忽略. Statement事件需要包装PreparedStatement(与statement-profile相同的动态代理),
+ * 只在prepare时事件已经开启的情况下包装; 开启statement-cache时, 开启记录之前已经缓存的语句不会产生Statement事件.
+ *
+ * 开启记录, 如: java -XX:StartFlightRecording=filename=tpcc.jfr,settings=profile ...
+ */
+public final class FlightRecorderEvents {
+	private FlightRecorderEvents() {
+	}
+
+	@Name("org.littlestar.tpcc.Transaction")
+	@Label("Transaction")
+	@Category({ "TPC-C" })
+	@Description("A TPC-C transaction including retries, recorded by the benchmark thread.")
+	@StackTrace(false)
+	public static class TransactionEvent extends Event {
+		@Label("Type")
+		public String transactionType;
+		@Label("Warehouse")
+		public int warehouse;
+		@Label("District")
+		public int district;
+		@Label("Retries")
+		public int retries;
+		@Label("Success")
+		public boolean success;
+		@Label("Response Time")
+		@Description("Response time from the intended start, including queueing delay for open/terminal pacing.")
+		@Timespan(Timespan.MICROSECONDS)
+		public long responseTime;
+		@Label("Queue Delay")
+		@Description("Time between the intended start and the start of execution.")
+		@Timespan(Timespan.MICROSECONDS)
+		public long queueDelay;
+		@Label("Acquire Time")
+		@Description("Time spent acquiring connections from the data source (pool), all attempts.")
+		@Timespan(Timespan.MICROSECONDS)
+		public long acquireTime;
+		@Label("Commit Time")
+		@Description("Time spent in commit/rollback, all attempts.")
+		@Timespan(Timespan.MICROSECONDS)
+		public long commitTime;
+	}
+
+	@Name("org.littlestar.tpcc.Statement")
+	@Label("Statement")
+	@Category({ "TPC-C" })
+	@Description("Execution of a statement, commit or rollback inside a TPC-C transaction.")
+	@StackTrace(false)
+	public static class StatementEvent extends Event {
+		@Label("Statement")
+		@Description("Statement id, e.g. newOrderStmt7, newOrderCommit.")
+		public String statement;
+		@Label("Operation")
+		public String operation;
+		@Label("Success")
+		public boolean success;
+	}
+
+	@Name("org.littlestar.tpcc.ConnectionAcquire")
+	@Label("Connection Acquire")
+	@Category({ "TPC-C" })
+	@Description("Acquisition of a connection from the data source (pool).")
+	@StackTrace(false)
+	public static class ConnectionAcquireEvent extends Event {
+		@Label("Sticky")
+		public boolean sticky;
+		@Label("Success")
+		public boolean success;
+	}
+
+	private static final EventType STATEMENT_EVENT_TYPE = EventType.getEventType(StatementEvent.class);
+
+	/**
+	 * @return Statement事件是否开启(有正在进行的记录并且没有被配置关闭).
+	 */
+	public static boolean isStatementEnabled() {
+		return STATEMENT_EVENT_TYPE.isEnabled();
+	}
+}
@@ -0,0 +1,429 @@
+package org.littlestar.tpcc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+import org.littlestar.tpcc.datasource.TpccDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 测试结束后生成一个独立的HTML报告(html-report), 图表为内嵌的SVG, 没有外部的JS/CSS, 离线可以直接打开:
+ *   - 吞吐量随时间的变化(每种事务的TPs和合计);
+ *   - 每种事务p50/p90/p99响应时间随时间的变化;
+ *   - 响应时间分布(整个计数阶段的百分位数曲线, 横轴为1/(1-p)的对数);
+ *   - 每个周期的重试次数和按FailureClass的失败次数;
+ *   - 汇总表, Top失败, 测试参数/配置/DBMS信息.
+ *
+ * 作为BenchmarkReporter.IntervalListener收集每个周期的数据, 每个周期只保存几十个数值.
+ */
+public class HtmlReport implements BenchmarkReporter.IntervalListener {
+	private final static Logger LOGGER = LoggerFactory.getLogger(HtmlReport.class);
+	private static final String[] COLORS = { "#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b",
+			"#e377c2", "#7f7f7f" };
+	private static final String[] TYPE_LABELS = { "New-Order", "Payment", "Order-Status", "Delivery", "Stock-Level" };
+	private static final int CHART_WIDTH = 960;
+	private static final int CHART_HEIGHT = 280;
+	private static final int TOP_FAILURES = 10;
+	/** 百分位数曲线的最高点: 99.99%. */
+	private static final double SPECTRUM_MAX_NINES = 4.0D;
+
+	/** 一个报告周期的数据, 响应时间单位为μs. */
+	private static class Interval {
+		private final double elapsed;
+		private final double[] tps = new double[TransactionType.values().length];
+		private final long[][] percentiles = new long[TransactionType.values().length][3];
+		private long retries = 0L;
+		private final long[] failures = new long[FailureClass.values().length];
+		/** 压测端饱和的原因(DriverHealthMonitor.REASONS), 0为没有饱和. */
+		private long saturated = 0L;
+
+		Interval(double elapsed) {
+			this.elapsed = elapsed;
+		}
+	}
+
+	/** 图表中的一条曲线. */
+	private static class Series {
+		private final String name;
+		private final double[] x;
+		private final double[] y;
+
+		Series(String name, double[] x, double[] y) {
+			this.name = name;
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	private final Path path;
+	private final List<Interval> intervals = new ArrayList<>();
+	private volatile long beginNanos = System.nanoTime();
+
+	/**
+	 * @param htmlReport HTML文件路径.
+	 */
+	public HtmlReport(String htmlReport) {
+		this.path = Paths.get(htmlReport);
+	}
+
+	/**
+	 * 开始计数, 横轴的时间从这里开始计算.
+	 */
+	public void start() {
+		beginNanos = System.nanoTime();
+	}
+
+	@Override
+	public void intervalReported(IntervalStatistics statistics) {
+		Interval interval = new Interval(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos) / 1000.0D);
+		long millis = statistics.getIntervalMillis();
+		for (TransactionType type : TransactionType.values()) {
+			int id = type.getId();
+			LatencyHistogram histogram = statistics.getHistogram(type);
+			long max = statistics.getMaxRuntime(type);
+			interval.tps[id] = (millis > 0L) ? (statistics.getSucceedCount(type) * 1000.0D / millis) : 0.0D;
+			interval.percentiles[id][0] = Math.min(histogram.getValueAtPercentile(50.0D), max);
+			interval.percentiles[id][1] = Math.min(histogram.getValueAtPercentile(90.0D), max);
+			interval.percentiles[id][2] = Math.min(histogram.getValueAtPercentile(99.0D), max);
+			interval.retries += statistics.getRetryCount(type);
+		}
+		for (FailureClass failureClass : FailureClass.values()) {
+			interval.failures[failureClass.ordinal()] = statistics.getFailureCount(failureClass);
+		}
+		interval.saturated = statistics.getHealth(DriverHealthMonitor.REASONS);
+		synchronized (intervals) {
+			intervals.add(interval);
+		}
+	}
+
+	/**
+	 * 有压测端饱和的周期时输出警告: 结果无效.
+	 */
+	private static void reportSaturation(StringBuilder html, List<Interval> data) {
+		long saturated = 0L;
+		StringBuilder elapsed = new StringBuilder();
+		for (Interval interval : data) {
+			if (interval.saturated != 0L) {
+				saturated++;
+				elapsed.append((elapsed.length() > 0) ? ", " : "")
+				       .append(String.format(Locale.ROOT, "%.0f s (%s)", interval.elapsed, DriverHealthMonitor.reasons(interval.saturated)));
+			}
+		}
+		if (saturated > 0L) {
+			html.append("<p class=\"invalid\"><b>Result invalid:</b> the load generator was saturated in ").append(saturated)
+			    .append(" of ").append(data.size()).append(" intervals, at ").append(escape(elapsed.toString())).append(".</p>\n");
+		}
+	}
+
+	/**
+	 * 测试线程结束后调用, 生成HTML文件.
+	 * @param histograms 累计的响应时间直方图(StatisticsAggregator.getTotalHistograms()).
+	 */
+	public void write(List<BenchmarkThread> benchmarkThreads, LatencyHistogram[] histograms, long runtimeMillis,
+			FailureAccounting failureAccounting, TpccDataSource dataSource, Map<String, Object> settings, Properties profile) throws IOException {
+		List<Interval> data;
+		synchronized (intervals) {
+			data = new ArrayList<>(intervals);
+		}
+		long[] total = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			benchmarkThread.getStatistics().snapshot(snapshot);
+			TerminalStatistics.merge(total, snapshot);
+		}
+		long newOrders = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.SUCCEED_COUNT)];
+		double tpmc = (runtimeMillis > 0L) ? (newOrders * 60000.0D / runtimeMillis) : 0.0D;
+
+		StringBuilder html = new StringBuilder(64 * 1024);
+		html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n")
+		    .append("<title>TPC-C Benchmark Report</title>\n<style>\n")
+		    .append("body{font-family:-apple-system,Segoe UI,Helvetica,Arial,sans-serif;margin:24px;color:#222}\n")
+		    .append("h1{font-size:22px}h2{font-size:17px;margin-top:32px;border-bottom:1px solid #ddd}\n")
+		    .append("table{border-collapse:collapse;font-size:13px;margin:8px 0}\n")
+		    .append("th,td{border:1px solid #ccc;padding:3px 8px;text-align:right}th{background:#f3f3f3}\n")
+		    .append("td.l,th.l{text-align:left}svg{display:block;margin:8px 0}\n")
+		    .append(".axis{font-size:11px;fill:#555}.title{font-size:13px;font-weight:bold}.grid{stroke:#e6e6e6}\n")
+		    .append(".invalid{background:#fde2e1;border:1px solid #d62728;padding:8px 12px}\n")
+		    .append("</style>\n</head>\n<body>\n");
+		html.append("<h1>TPC-C Benchmark Report</h1>\n<p>")
+		    .append(escape(OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString()))
+		    .append(String.format(Locale.ROOT, " &mdash; Runtime %.1f s, <b>%.2f TpmC</b>, %s intervals</p>\n",
+		    		runtimeMillis / 1000.0D, tpmc, data.size()));
+		reportSaturation(html, data);
+
+		//// 汇总表.
+		html.append("<h2>Summary</h2>\n<table>\n<tr><th class=\"l\">Transaction</th><th>Count</th><th>Tps</th>")
+		    .append("<th>Failed</th><th>Retries</th><th>Avg (ms)</th><th>p50</th><th>p90</th><th>p95</th><th>p99</th>")
+		    .append("<th>p99.9</th><th>Max</th></tr>\n");
+		for (TransactionType type : TransactionType.values()) {
+			LatencyHistogram histogram = histograms[type.getId()];
+			long count = total[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)];
+			long max = total[TerminalStatistics.index(type, TerminalStatistics.MAX_RUNTIME)];
+			long avg = (count == 0L) ? 0L : total[TerminalStatistics.index(type, TerminalStatistics.TOTAL_RUNTIME)] / count;
+			html.append("<tr><td class=\"l\">").append(TYPE_LABELS[type.getId()]).append("</td><td>").append(count)
+			    .append(String.format(Locale.ROOT, "</td><td>%.2f</td><td>", (runtimeMillis > 0L) ? (count * 1000.0D / runtimeMillis) : 0.0D))
+			    .append(total[TerminalStatistics.index(type, TerminalStatistics.FAILURE_COUNT)]).append("</td><td>")
+			    .append(total[TerminalStatistics.index(type, TerminalStatistics.RETRY_COUNT)]).append("</td>");
+			for (long micros : new long[] { avg, histogram.getValueAtPercentile(50.0D), histogram.getValueAtPercentile(90.0D),
+					histogram.getValueAtPercentile(95.0D), histogram.getValueAtPercentile(99.0D),
+					histogram.getValueAtPercentile(99.9D), max }) {
+				html.append(String.format(Locale.ROOT, "<td>%.3f</td>", Math.min(micros, max) / 1000.0D));
+			}
+			html.append("</tr>\n");
+		}
+		html.append("</table>\n");
+
+		//// 吞吐量.
+		int types = TransactionType.values().length;
+		double[] x = new double[data.size()];
+		double[][] tps = new double[types + 1][data.size()];
+		for (int i = 0; i < data.size(); i++) {
+			Interval interval = data.get(i);
+			x[i] = interval.elapsed;
+			for (int t = 0; t < types; t++) {
+				tps[t][i] = interval.tps[t];
+				tps[types][i] += interval.tps[t];
+			}
+		}
+		List<Series> throughput = new ArrayList<>();
+		throughput.add(new Series("Total", x, tps[types]));
+		for (TransactionType type : TransactionType.values()) {
+			throughput.add(new Series(TYPE_LABELS[type.getId()], x, tps[type.getId()]));
+		}
+		html.append("<h2>Throughput</h2>\n")
+		    .append(lineChart("Transactions per second", "elapsed (s)", "TPs", throughput, null, null));
+
+		//// 每种事务的百分位数.
+		html.append("<h2>Response Time Percentiles over Time</h2>\n");
+		String[] percentileNames = { "p50", "p90", "p99" };
+		for (TransactionType type : TransactionType.values()) {
+			List<Series> series = new ArrayList<>();
+			for (int p = 0; p < percentileNames.length; p++) {
+				double[] y = new double[data.size()];
+				for (int i = 0; i < data.size(); i++) {
+					y[i] = data.get(i).percentiles[type.getId()][p] / 1000.0D;
+				}
+				series.add(new Series(percentileNames[p], x, y));
+			}
+			html.append(lineChart(TYPE_LABELS[type.getId()], "elapsed (s)", "ms", series, null, null));
+		}
+
+		//// 响应时间分布.
+		List<Series> spectrum = new ArrayList<>();
+		int points = 80;
+		for (TransactionType type : TransactionType.values()) {
+			LatencyHistogram histogram = histograms[type.getId()];
+			if (histogram.getTotalCount() == 0L) {
+				continue;
+			}
+			double[] sx = new double[points + 1];
+			double[] sy = new double[points + 1];
+			for (int i = 0; i <= points; i++) {
+				sx[i] = SPECTRUM_MAX_NINES * i / points;
+				double percentile = 100.0D * (1.0D - Math.pow(10.0D, -sx[i]));
+				sy[i] = histogram.getValueAtPercentile(percentile) / 1000.0D;
+			}
+			spectrum.add(new Series(TYPE_LABELS[type.getId()], sx, sy));
+		}
+		html.append("<h2>Response Time Distribution</h2>\n")
+		    .append(lineChart("Response time by percentile (whole run)", "percentile", "ms", spectrum,
+		    		new double[] { 0.0D, 1.0D, 2.0D, 3.0D, 4.0D }, new String[] { "0%", "90%", "99%", "99.9%", "99.99%" }));
+
+		//// 重试和失败.
+		List<Series> failures = new ArrayList<>();
+		double[] retries = new double[data.size()];
+		for (int i = 0; i < data.size(); i++) {
+			retries[i] = data.get(i).retries;
+		}
+		failures.add(new Series("Retries", x, retries));
+		for (FailureClass failureClass : FailureClass.values()) {
+			double[] y = new double[data.size()];
+			boolean any = false;
+			for (int i = 0; i < data.size(); i++) {
+				y[i] = data.get(i).failures[failureClass.ordinal()];
+				any |= y[i] > 0.0D;
+			}
+			if (any) {
+				failures.add(new Series(failureClass.name(), x, y));
+			}
+		}
+		html.append("<h2>Retries and Failures</h2>\n")
+		    .append(lineChart("Retries and failed attempts per interval", "elapsed (s)", "count", failures, null, null));
+		if (Objects.nonNull(failureAccounting)) {
+			List<FailureAccounting.Entry> top = failureAccounting.getTop(TOP_FAILURES);
+			if (!top.isEmpty()) {
+				html.append("<table>\n<tr><th>Count</th><th class=\"l\">Transaction</th><th class=\"l\">Statement</th>")
+				    .append("<th class=\"l\">SQLState</th><th>Vendor</th><th class=\"l\">Class</th><th class=\"l\">Message</th></tr>\n");
+				for (FailureAccounting.Entry entry : top) {
+					FailureAccounting.Key key = entry.getKey();
+					html.append("<tr><td>").append(entry.getCount()).append("</td><td class=\"l\">")
+					    .append(TYPE_LABELS[key.getTransactionType().getId()]).append("</td><td class=\"l\">")
+					    .append(escape(key.getStatement())).append("</td><td class=\"l\">").append(escape(key.getSqlState()))
+					    .append("</td><td>").append(key.getVendorCode()).append("</td><td class=\"l\">")
+					    .append(key.getFailureClass()).append("</td><td class=\"l\">").append(escape(entry.getMessage()))
+					    .append("</td></tr>\n");
+				}
+				html.append("</table>\n");
+			}
+		}
+
+		//// 配置.
+		html.append("<h2>Configuration</h2>\n");
+		html.append(table("Settings", settings));
+		html.append(table("Benchmark Profile", Objects.isNull(profile) ? null : new TreeMap<>(profile)));
+		html.append(table("DBMS", ResultWriter.dbmsInfo(dataSource)));
+		html.append(table("Version", ResultWriter.versionInfo()));
+		html.append("</body>\n</html>\n");
+
+		Path parent = path.toAbsolutePath().getParent();
+		if (Objects.nonNull(parent)) {
+			Files.createDirectories(parent);
+		}
+		Files.write(path, html.toString().getBytes(StandardCharsets.UTF_8));
+		LOGGER.info("HTML report written to " + path);
+	}
+
+	private static String table(String title, Map<?, ?> values) {
+		if (Objects.isNull(values) || values.isEmpty()) {
+			return "";
+		}
+		StringBuilder table = new StringBuilder();
+		table.append("<table>\n<tr><th class=\"l\" colspan=\"2\">").append(escape(title)).append("</th></tr>\n");
+		for (Map.Entry<?, ?> entry : values.entrySet()) {
+			Object value = entry.getValue();
+			String text = (value instanceof int[]) ? Arrays.toString((int[]) value) : String.valueOf(value);
+			table.append("<tr><td class=\"l\">").append(escape(String.valueOf(entry.getKey())))
+			     .append("</td><td class=\"l\">").append(escape(text)).append("</td></tr>\n");
+		}
+		return table.append("</table>\n").toString();
+	}
+
+	/**
+	 * SVG折线图, 纵轴从0开始.
+	 * @param xTicks 横轴刻度, null时自动计算.
+	 * @param xTickLabels 横轴刻度的标签, null时使用刻度值.
+	 */
+	private static String lineChart(String title, String xLabel, String yLabel, List<Series> series, double[] xTicks,
+			String[] xTickLabels) {
+		int left = 64, right = 150, top = 28, bottom = 40;
+		int plotWidth = CHART_WIDTH - left - right;
+		int plotHeight = CHART_HEIGHT - top - bottom;
+		double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = 0.0D;
+		for (Series s : series) {
+			for (int i = 0; i < s.x.length; i++) {
+				minX = Math.min(minX, s.x[i]);
+				maxX = Math.max(maxX, s.x[i]);
+				maxY = Math.max(maxY, s.y[i]);
+			}
+		}
+		if (minX > maxX) {
+			minX = 0.0D;
+			maxX = 1.0D;
+		}
+		if (Objects.nonNull(xTicks)) {
+			minX = Math.min(minX, xTicks[0]);
+			maxX = Math.max(maxX, xTicks[xTicks.length - 1]);
+		}
+		if (maxX <= minX) {
+			maxX = minX + 1.0D;
+		}
+		double yStep = niceStep(maxY > 0.0D ? maxY : 1.0D);
+		double yMax = Math.ceil((maxY > 0.0D ? maxY : 1.0D) / yStep) * yStep;
+		if (Objects.isNull(xTicks)) {
+			double xStep = niceStep(maxX - minX);
+			int count = (int) Math.floor((maxX - Math.ceil(minX / xStep) * xStep) / xStep) + 1;
+			xTicks = new double[Math.max(count, 0)];
+			for (int i = 0; i < xTicks.length; i++) {
+				xTicks[i] = Math.ceil(minX / xStep) * xStep + i * xStep;
+			}
+		}
+
+		StringBuilder svg = new StringBuilder(16 * 1024);
+		svg.append(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\">\n",
+				CHART_WIDTH, CHART_HEIGHT, CHART_WIDTH, CHART_HEIGHT));
+		svg.append(String.format(Locale.ROOT, "<text class=\"title\" x=\"%d\" y=\"18\">%s</text>\n", left, escape(title)));
+		//// 纵轴刻度和网格.
+		for (double y = 0.0D; y <= yMax + yStep / 2.0D; y += yStep) {
+			double py = top + plotHeight - (y / yMax) * plotHeight;
+			svg.append(String.format(Locale.ROOT, "<line class=\"grid\" x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\"/>", left, py,
+					left + plotWidth, py));
+			svg.append(String.format(Locale.ROOT, "<text class=\"axis\" x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s</text>\n",
+					left - 6, py + 4, formatTick(y)));
+		}
+		for (int i = 0; i < xTicks.length; i++) {
+			double px = left + (xTicks[i] - minX) / (maxX - minX) * plotWidth;
+			String label = Objects.isNull(xTickLabels) ? formatTick(xTicks[i]) : xTickLabels[i];
+			svg.append(String.format(Locale.ROOT, "<line class=\"grid\" x1=\"%.1f\" y1=\"%d\" x2=\"%.1f\" y2=\"%d\"/>", px, top, px,
+					top + plotHeight));
+			svg.append(String.format(Locale.ROOT, "<text class=\"axis\" x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%s</text>\n",
+					px, top + plotHeight + 14, escape(label)));
+		}
+		svg.append(String.format(Locale.ROOT, "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"#999\"/>\n",
+				left, top, plotWidth, plotHeight));
+		svg.append(String.format(Locale.ROOT, "<text class=\"axis\" x=\"%d\" y=\"%d\" text-anchor=\"middle\">%s</text>\n",
+				left + plotWidth / 2, CHART_HEIGHT - 6, escape(xLabel)));
+		svg.append(String.format(Locale.ROOT, "<text class=\"axis\" transform=\"translate(14,%d) rotate(-90)\" text-anchor=\"middle\">%s</text>\n",
+				top + plotHeight / 2, escape(yLabel)));
+		//// 曲线和图例.
+		for (int s = 0; s < series.size(); s++) {
+			Series line = series.get(s);
+			String color = COLORS[s % COLORS.length];
+			if (line.x.length > 0) {
+				svg.append("<polyline fill=\"none\" stroke=\"").append(color).append("\" stroke-width=\"1.5\" points=\"");
+				for (int i = 0; i < line.x.length; i++) {
+					double px = left + (line.x[i] - minX) / (maxX - minX) * plotWidth;
+					double py = top + plotHeight - (line.y[i] / yMax) * plotHeight;
+					svg.append(String.format(Locale.ROOT, "%.1f,%.1f ", px, py));
+				}
+				svg.append("\"/>\n");
+			}
+			int ly = top + 12 + s * 18;
+			svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" stroke-width=\"3\"/>",
+					left + plotWidth + 12, ly - 4, left + plotWidth + 30, ly - 4, color));
+			svg.append(String.format(Locale.ROOT, "<text class=\"axis\" x=\"%d\" y=\"%d\">%s</text>\n", left + plotWidth + 36,
+					ly, escape(line.name)));
+		}
+		return svg.append("</svg>\n").toString();
+	}
+
+	/**
+	 * @return 1, 2, 5乘以10的幂, 约分成5格.
+	 */
+	private static double niceStep(double range) {
+		double raw = range / 5.0D;
+		double magnitude = Math.pow(10.0D, Math.floor(Math.log10(raw)));
+		double fraction = raw / magnitude;
+		double nice = (fraction <= 1.0D) ? 1.0D : (fraction <= 2.0D) ? 2.0D : (fraction <= 5.0D) ? 5.0D : 10.0D;
+		return nice * magnitude;
+	}
+
+	private static String formatTick(double value) {
+		if (Math.abs(value - Math.rint(value)) < 1e-9) {
+			return String.valueOf((long) Math.rint(value));
+		}
+		return String.format(Locale.ROOT, "%.3f", value).replaceAll("0+$", "");
+	}
+
+	private static String escape(String text) {
+		if (Objects.isNull(text)) {
+			return "";
+		}
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+}
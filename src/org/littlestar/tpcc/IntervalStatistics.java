@@ -0,0 +1,133 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+
+/**
+ * BenchmarkReporter在一个报告周期(report-interval)内统计的结果, 传递给BenchmarkReporter.IntervalListener.
+ * 
+ * 数组(计数器、直方图等)由BenchmarkReporter在每个周期重用, 只在intervalReported()中有效; 需要保留的值在回调中复制.
+ */
+public class IntervalStatistics {
+	private final long intervalMillis;
+	private final long[] counters;
+	private final LatencyHistogram[] histograms;
+	private final long[] failureCounts;
+	private final long[] pool;
+	private final long[] health;
+
+	/**
+	 * @param counters 周期内的计数器增量, 按TerminalStatistics.index(type, field)索引, INTERVAL_MAX_RUNTIME为周期内的最大响应时间.
+	 * @param histograms 周期内每种事务成功执行的响应时间(μs), 按TransactionType.getId()索引.
+	 * @param failureCounts 周期内失败的事务尝试次数, 按FailureClass.ordinal()索引.
+	 * @param pool 连接池的统计, 按PoolMetrics的字段索引, 计数为周期内的增量, 状态为周期结束时的值; 没有PoolMetrics时为null.
+	 * @param health 压测端的健康状态, 按DriverHealthMonitor的字段索引; 没有DriverHealthMonitor时为null.
+	 */
+	public IntervalStatistics(long intervalMillis, long[] counters, LatencyHistogram[] histograms,
+			long[] failureCounts, long[] pool, long[] health) {
+		this.intervalMillis = intervalMillis;
+		this.counters = counters;
+		this.histograms = histograms;
+		this.failureCounts = failureCounts;
+		this.pool = pool;
+		this.health = health;
+	}
+
+	public long getIntervalMillis() {
+		return intervalMillis;
+	}
+
+	public long getSucceedCount(TransactionType type) {
+		return counters[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)];
+	}
+
+	/**
+	 * @return 周期内重试后仍然失败的事务数.
+	 */
+	public long getFailedCount(TransactionType type) {
+		return counters[TerminalStatistics.index(type, TerminalStatistics.FAILURE_COUNT)];
+	}
+
+	public long getRetryCount(TransactionType type) {
+		return counters[TerminalStatistics.index(type, TerminalStatistics.RETRY_COUNT)];
+	}
+
+	/**
+	 * @return 周期内成功执行的平均响应时间(μs).
+	 */
+	public long getAvgRuntime(TransactionType type) {
+		long succeed = getSucceedCount(type);
+		return (succeed == 0L) ? 0L : counters[TerminalStatistics.index(type, TerminalStatistics.TOTAL_RUNTIME)] / succeed;
+	}
+
+	/**
+	 * @return 周期内的最大响应时间(μs).
+	 */
+	public long getMaxRuntime(TransactionType type) {
+		return counters[TerminalStatistics.index(type, TerminalStatistics.INTERVAL_MAX_RUNTIME)];
+	}
+
+	/**
+	 * @param field TerminalStatistics.QUEUE_TIME, ACQUIRE_TIME, EXECUTE_TIME, COMMIT_TIME或BACKOFF_TIME.
+	 * @return 周期内(包括失败的)事务响应时间中该部分的合计(μs).
+	 */
+	public long getBreakdownTime(TransactionType type, int field) {
+		return counters[TerminalStatistics.index(type, field)];
+	}
+
+	public boolean hasPool() {
+		return Objects.nonNull(pool);
+	}
+
+	/**
+	 * @param field PoolMetrics的字段.
+	 */
+	public long getPool(int field) {
+		return Objects.isNull(pool) ? 0L : pool[field];
+	}
+
+	public boolean hasHealth() {
+		return Objects.nonNull(health);
+	}
+
+	/**
+	 * @param field DriverHealthMonitor的字段.
+	 */
+	public long getHealth(int field) {
+		return Objects.isNull(health) ? 0L : health[field];
+	}
+
+	/**
+	 * @return 周期内压测端是否饱和, 饱和周期的结果无效.
+	 */
+	public boolean isDriverSaturated() {
+		return getHealth(DriverHealthMonitor.REASONS) != 0L;
+	}
+
+	public double getTps() {
+		long total = 0L;
+		for (TransactionType type : TransactionType.values()) {
+			total += getSucceedCount(type);
+		}
+		return (intervalMillis > 0L) ? (total * 1000.0D / intervalMillis) : 0.0D;
+	}
+
+	public double getTpmc() {
+		return (intervalMillis > 0L) ? (getSucceedCount(TransactionType.NewOrder) * 60000.0D / intervalMillis) : 0.0D;
+	}
+
+	public LatencyHistogram getHistogram(TransactionType type) {
+		return histograms[type.getId()];
+	}
+
+	public long getFailureCount(FailureClass failureClass) {
+		return failureCounts[failureClass.ordinal()];
+	}
+
+	public long getFailureCount() {
+		long total = 0L;
+		for (long count : failureCounts) {
+			total += count;
+		}
+		return total;
+	}
+}
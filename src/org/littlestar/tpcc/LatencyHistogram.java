@@ -0,0 +1,211 @@
+package org.littlestar.tpcc;
+
+import java.util.Arrays;
+
+/**
+ * 响应时间直方图(log-linear bucket, 与HdrHistogram相同的思路):
+ *   - 小于64的值每个值一个bucket, 精确记录;
+ *   - 大于等于64的值, 每个2的幂区间[2^k, 2^(k+1))平均分成32个bucket, 相对误差不超过1/32(约3%).
+ *
+ * bucket数量固定(最大值2^32, 896个bucket), 内存大小与运行时间和记录次数无关. 超过最大值的记录计入最后一个bucket.
+ * 记录非空bucket的范围, 合并、复制和清空只处理这个范围内的bucket(响应时间一般只占几十到几百个bucket).
+ *
+ * 非线程安全, 由调用者保证同步.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+	private static final int MAX_VALUE_BITS = 32;
+	public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1L;
+	private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+	private final long[] counts;
+	private long totalCount = 0L;
+	private long totalValue = 0L;
+	private long maxValue = 0L;
+	//// 非空bucket的范围[lowestIndex, highestIndex], 没有记录时lowestIndex > highestIndex.
+	private int lowestIndex = BUCKET_COUNT;
+	private int highestIndex = -1;
+
+	public LatencyHistogram() {
+		this.counts = new long[BUCKET_COUNT];
+	}
+
+	private LatencyHistogram(long[] counts, long totalCount, long totalValue, long maxValue, int lowestIndex,
+			int highestIndex) {
+		this.counts = counts;
+		this.totalCount = totalCount;
+		this.totalValue = totalValue;
+		this.maxValue = maxValue;
+		this.lowestIndex = lowestIndex;
+		this.highestIndex = highestIndex;
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return (shift * SUB_BUCKET_HALF_COUNT) + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return bucket中最大的值(HdrHistogram的highestEquivalentValue), 百分位数按这个值报告, 不会低估.
+	 */
+	private static long bucketUpperValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index / SUB_BUCKET_HALF_COUNT) - 1;
+		long subBucket = (index % SUB_BUCKET_HALF_COUNT) + SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1L) << shift) - 1L;
+	}
+
+	public void record(long value) {
+		long v = Math.min(Math.max(0L, value), MAX_VALUE);
+		int index = bucketIndex(v);
+		counts[index]++;
+		lowestIndex = Math.min(lowestIndex, index);
+		highestIndex = Math.max(highestIndex, index);
+		totalCount++;
+		totalValue += v;
+		maxValue = Math.max(maxValue, v);
+	}
+
+	public void add(LatencyHistogram other) {
+		int low = other.lowestIndex;
+		int high = other.highestIndex;
+		for (int i = low; i <= high; i++) {
+			counts[i] += other.counts[i];
+		}
+		if (low <= high) {
+			lowestIndex = Math.min(lowestIndex, low);
+			highestIndex = Math.max(highestIndex, high);
+		}
+		totalCount += other.totalCount;
+		totalValue += other.totalValue;
+		maxValue = Math.max(maxValue, other.maxValue);
+	}
+
+	/**
+	 * 用other的内容覆盖当前直方图, 不分配对象.
+	 */
+	public void set(LatencyHistogram other) {
+		clearCounts();
+		int low = other.lowestIndex;
+		int high = other.highestIndex;
+		if (low <= high) {
+			System.arraycopy(other.counts, low, counts, low, high - low + 1);
+		}
+		lowestIndex = low;
+		highestIndex = high;
+		totalCount = other.totalCount;
+		totalValue = other.totalValue;
+		maxValue = other.maxValue;
+	}
+
+	/**
+	 * 清空, 不分配对象.
+	 */
+	public void reset() {
+		clearCounts();
+		totalCount = 0L;
+		totalValue = 0L;
+		maxValue = 0L;
+	}
+
+	private void clearCounts() {
+		if (lowestIndex <= highestIndex) {
+			Arrays.fill(counts, lowestIndex, highestIndex + 1, 0L);
+		}
+		lowestIndex = BUCKET_COUNT;
+		highestIndex = -1;
+	}
+
+	public LatencyHistogram copy() {
+		return new LatencyHistogram(Arrays.copyOf(counts, counts.length), totalCount, totalValue, maxValue,
+				lowestIndex, highestIndex);
+	}
+
+	/**
+	 * 两个累计直方图的差, 即earlier之后记录的值. 最大值按差值中最高的非空bucket计算.
+	 */
+	public LatencyHistogram minus(LatencyHistogram earlier) {
+		LatencyHistogram delta = new LatencyHistogram();
+		delta.setDifference(this, earlier);
+		return delta;
+	}
+
+	/**
+	 * 与minus()相同, 结果写入当前直方图, 不分配对象.
+	 */
+	public void setDifference(LatencyHistogram later, LatencyHistogram earlier) {
+		clearCounts();
+		long deltaCount = 0L;
+		long deltaMax = 0L;
+		//// earlier是later之前的累计直方图, 非空范围不超过later的范围.
+		for (int i = later.lowestIndex; i <= later.highestIndex; i++) {
+			counts[i] = later.counts[i] - earlier.counts[i];
+			deltaCount += counts[i];
+			if (counts[i] > 0L) {
+				deltaMax = Math.min(bucketUpperValue(i), later.maxValue);
+				lowestIndex = Math.min(lowestIndex, i);
+				highestIndex = i;
+			}
+		}
+		totalCount = deltaCount;
+		totalValue = later.totalValue - earlier.totalValue;
+		maxValue = deltaMax;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * @return 所有记录的值之和.
+	 */
+	public long getTotalValue() {
+		return totalValue;
+	}
+
+	/**
+	 * @return 小于或等于value的记录数. value所在bucket的记录全部计入, 与百分位数一样有bucket精度(约3%)的误差.
+	 */
+	public long getCountAtOrBelow(long value) {
+		if (value < 0L) {
+			return 0L;
+		}
+		int last = bucketIndex(Math.min(value, MAX_VALUE));
+		long count = 0L;
+		for (int i = 0; i <= last; i++) {
+			count += counts[i];
+		}
+		return count;
+	}
+
+	public long getMaxValue() {
+		return maxValue;
+	}
+
+	/**
+	 * @param percentile 0 ~ 100, 如: 90.0, 99.9.
+	 * @return 至少percentile%的记录小于或等于的值, 没有记录时返回0.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0L) {
+			return 0L;
+		}
+		double p = Math.min(Math.max(percentile, 0.0D), 100.0D);
+		long rank = Math.max(1L, (long) Math.ceil(p / 100.0D * totalCount));
+		long seen = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(bucketUpperValue(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+}
@@ -0,0 +1,183 @@
+package org.littlestar.tpcc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Step-load ladder: 在一次测试中按配置的序列(如8,16,32,...,512)逐级增加活动的terminal数量, 每一级运行step time秒,
+ * 前settle time秒不统计. 记录每一级的吞吐量和响应时间百分位数, 并找出吞吐量饱和的拐点(knee):
+ *
+ *   marginal(k) = (TPs(k) - TPs(k-1)) / (terminals(k) - terminals(k-1))
+ *
+ * 当增加的每个terminal带来的吞吐量低于第一级单个terminal吞吐量的knee-threshold倍时, 上一级即为拐点.
+ */
+public class LoadLadder implements Runnable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(LoadLadder.class);
+
+	public static class Step {
+		private final int terminals;
+		private final long measuredMillis;
+		private final LatencyHistogram[] histograms;
+		private final LatencyHistogram total;
+
+		Step(int terminals, long measuredMillis, LatencyHistogram[] histograms) {
+			this.terminals = terminals;
+			this.measuredMillis = measuredMillis;
+			this.histograms = histograms;
+			this.total = new LatencyHistogram();
+			for (LatencyHistogram histogram : histograms) {
+				total.add(histogram);
+			}
+		}
+
+		public int getTerminals() {
+			return terminals;
+		}
+
+		public double getTps() {
+			return (measuredMillis > 0L) ? (total.getTotalCount() * 1000.0D / measuredMillis) : 0.0D;
+		}
+
+		public double getTpmc() {
+			long newOrders = histograms[TransactionType.NewOrder.getId()].getTotalCount();
+			return (measuredMillis > 0L) ? (newOrders * 60000.0D / measuredMillis) : 0.0D;
+		}
+
+		public LatencyHistogram getHistogram(TransactionType type) {
+			return histograms[type.getId()];
+		}
+
+		public LatencyHistogram getTotalHistogram() {
+			return total;
+		}
+	}
+
+	private final StatisticsAggregator aggregator;
+	private final AtomicInteger activeTerminals;
+	private final int[] steps;
+	private final int stepTime;
+	private final int settleTime;
+	private final double kneeThreshold;
+	private final List<Step> results = new ArrayList<>();
+
+	/**
+	 * @param aggregator 响应时间直方图的来源(getTotalHistograms()).
+	 * @param steps 每一级活动的terminal数量.
+	 * @param stepTime 每一级的运行时间(秒).
+	 * @param settleTime 每一级开始后不统计的时间(秒).
+	 * @param kneeThreshold 拐点阈值, 增加的terminal的边际吞吐量与第一级单个terminal吞吐量之比.
+	 */
+	public LoadLadder(StatisticsAggregator aggregator, AtomicInteger activeTerminals, int[] steps, int stepTime,
+			int settleTime, double kneeThreshold) {
+		this.aggregator = aggregator;
+		this.activeTerminals = activeTerminals;
+		this.steps = steps;
+		this.stepTime = stepTime;
+		this.settleTime = Math.min(Math.max(0, settleTime), Math.max(0, stepTime - 1));
+		this.kneeThreshold = kneeThreshold;
+	}
+
+	@Override
+	public void run() {
+		long beginNanos = System.nanoTime();
+		try {
+			for (int k = 0; k < steps.length && TpccDriver.transactionOn.get(); k++) {
+				activeTerminals.set(steps[k]);
+				long stepBeginNanos = beginNanos + TimeUnit.SECONDS.toNanos((long) k * stepTime);
+				sleepUntil(stepBeginNanos + TimeUnit.SECONDS.toNanos(settleTime));
+				LatencyHistogram[] before = aggregator.getTotalHistograms();
+				sleepUntil(stepBeginNanos + TimeUnit.SECONDS.toNanos(stepTime));
+				LatencyHistogram[] after = aggregator.getTotalHistograms();
+				LatencyHistogram[] delta = new LatencyHistogram[after.length];
+				for (int i = 0; i < after.length; i++) {
+					delta[i] = after[i].minus(before[i]);
+				}
+				Step step = new Step(steps[k], TimeUnit.SECONDS.toMillis(stepTime - settleTime), delta);
+				results.add(step);
+				LOGGER.info(String.format("Ladder step %s/%s: %s terminals -> TpmC: %.2f, TPs: %.2f, New-Order p90: %.3f ms",
+						k + 1, steps.length, step.getTerminals(), step.getTpmc(), step.getTps(),
+						step.getHistogram(TransactionType.NewOrder).getValueAtPercentile(90.0D) / 1000.0D));
+			}
+		} catch (InterruptedException e) {
+			LOGGER.trace("Load ladder interrupted.");
+		}
+	}
+
+	private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+		long waitNanos;
+		while ((waitNanos = deadlineNanos - System.nanoTime()) > 0L) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+	public List<Step> getResults() {
+		return results;
+	}
+
+	/**
+	 * @return 拐点所在的级(吞吐量仍然线性增长的最后一级), 没有达到拐点时返回null.
+	 */
+	public Step getKnee() {
+		if (results.size() < 2) {
+			return null;
+		}
+		Step first = results.get(0);
+		double baseline = first.getTps() / Math.max(1, first.getTerminals());
+		for (int k = 1; k < results.size(); k++) {
+			double marginal = getMarginal(k);
+			if (marginal < baseline * kneeThreshold) {
+				return results.get(k - 1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return 第k级相对于上一级, 每增加一个terminal增加的TPs.
+	 */
+	public double getMarginal(int k) {
+		if (k <= 0 || k >= results.size()) {
+			return Double.NaN;
+		}
+		Step previous = results.get(k - 1);
+		Step current = results.get(k);
+		int added = current.getTerminals() - previous.getTerminals();
+		return (added != 0) ? (current.getTps() - previous.getTps()) / added : Double.NaN;
+	}
+
+	public int getStepTime() {
+		return stepTime;
+	}
+
+	public int getSettleTime() {
+		return settleTime;
+	}
+
+	public double getKneeThreshold() {
+		return kneeThreshold;
+	}
+
+	/**
+	 * 解析"8,16,32,64"格式的terminal数量序列.
+	 */
+	public static int[] parseSteps(String value) {
+		if (Objects.isNull(value) || value.trim().isEmpty()) {
+			return null;
+		}
+		String[] items = value.split(",");
+		int[] steps = new int[items.length];
+		for (int i = 0; i < items.length; i++) {
+			steps[i] = Integer.parseInt(items[i].trim());
+			if (steps[i] <= 0) {
+				throw new IllegalArgumentException("Illegal ladder step '" + items[i].trim() + "', must be > 0.");
+			}
+		}
+		return steps;
+	}
+}
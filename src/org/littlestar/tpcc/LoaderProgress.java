@@ -0,0 +1,215 @@
+package org.littlestar.tpcc;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LoaderProgressMXBean的实现, 由TpccLoader.doLoad()注册, 加载任务开始/完成时更新.
+ */
+public class LoaderProgress implements LoaderProgressMXBean {
+	private final static Logger LOGGER = LoggerFactory.getLogger(LoaderProgress.class);
+	public static final String OBJECT_NAME = "org.littlestar.tpcc:type=Loader";
+	public static final String ITEM = "item";
+	public static final String WAREHOUSE = "warehouse";
+	public static final String STOCK = "stock";
+	public static final String DISTRICT = "district";
+	public static final String CUSTOMER = "customer,history";
+	public static final String ORDERS = "orders,new_order,order_line";
+	/** 每个仓库的任务数: stock, district, 每个销售区域的customer和orders. */
+	private static final int TASKS_PER_WAREHOUSE = 2 + 2 * TpccConstants.DIST_PER_WARE;
+
+	/**
+	 * 一个任务加载的表.
+	 */
+	private static class Table {
+		private final int totalTasks;
+		private final AtomicInteger completedTasks = new AtomicInteger();
+		private final AtomicLong rows = new AtomicLong();
+
+		Table(int totalTasks) {
+			this.totalTasks = totalTasks;
+		}
+	}
+
+	private final int wareCount;
+	private final Map<String, Table> tables = new LinkedHashMap<>();
+	/** 每个仓库已经开始/完成的任务数, 按w_id - 1索引. */
+	private final AtomicIntegerArray startedTasks;
+	private final AtomicIntegerArray completedTasks;
+	private final AtomicInteger runningTasks = new AtomicInteger();
+	private final long beginNanos = System.nanoTime();
+	private volatile long endNanos = 0L;
+	private ObjectName objectName = null;
+
+	public LoaderProgress(int wareCount) {
+		this.wareCount = wareCount;
+		tables.put(ITEM, new Table(1));
+		tables.put(WAREHOUSE, new Table(1));
+		tables.put(STOCK, new Table(wareCount));
+		tables.put(DISTRICT, new Table(wareCount));
+		tables.put(CUSTOMER, new Table(wareCount * TpccConstants.DIST_PER_WARE));
+		tables.put(ORDERS, new Table(wareCount * TpccConstants.DIST_PER_WARE));
+		startedTasks = new AtomicIntegerArray(wareCount);
+		completedTasks = new AtomicIntegerArray(wareCount);
+	}
+
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+			objectName = name;
+		} catch (Exception e) {
+			LOGGER.warn("Register MBean '" + OBJECT_NAME + "' failed.", e);
+		}
+	}
+
+	public void unregister() {
+		if (Objects.nonNull(objectName)) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (Exception e) {
+				LOGGER.warn("Unregister MBean '" + OBJECT_NAME + "' failed.", e);
+			}
+			objectName = null;
+		}
+	}
+
+	/**
+	 * @param w_id 仓库, 0为不属于某个仓库的任务(item, warehouse).
+	 */
+	public void taskStarted(int w_id) {
+		runningTasks.incrementAndGet();
+		if (w_id > 0) {
+			startedTasks.incrementAndGet(w_id - 1);
+		}
+	}
+
+	public void taskCompleted(String table, int w_id, long rows) {
+		runningTasks.decrementAndGet();
+		Table t = tables.get(table);
+		t.completedTasks.incrementAndGet();
+		t.rows.addAndGet(rows);
+		if (w_id > 0) {
+			completedTasks.incrementAndGet(w_id - 1);
+		}
+	}
+
+	public void completed() {
+		endNanos = System.nanoTime();
+	}
+
+	@Override
+	public String getState() {
+		return (endNanos > 0L) ? "Completed" : "Loading";
+	}
+
+	@Override
+	public long getElapsedSeconds() {
+		long end = (endNanos > 0L) ? endNanos : System.nanoTime();
+		return TimeUnit.NANOSECONDS.toSeconds(end - beginNanos);
+	}
+
+	@Override
+	public int getTotalTasks() {
+		int total = 0;
+		for (Table table : tables.values()) {
+			total += table.totalTasks;
+		}
+		return total;
+	}
+
+	@Override
+	public int getCompletedTasks() {
+		int completed = 0;
+		for (Table table : tables.values()) {
+			completed += table.completedTasks.get();
+		}
+		return completed;
+	}
+
+	@Override
+	public int getRunningTasks() {
+		return runningTasks.get();
+	}
+
+	@Override
+	public long getLoadedRows() {
+		long rows = 0L;
+		for (Table table : tables.values()) {
+			rows += table.rows.get();
+		}
+		return rows;
+	}
+
+	@Override
+	public Map<String, Long> getTableRows() {
+		Map<String, Long> values = new LinkedHashMap<>();
+		for (Map.Entry<String, Table> entry : tables.entrySet()) {
+			values.put(entry.getKey(), entry.getValue().rows.get());
+		}
+		return values;
+	}
+
+	@Override
+	public Map<String, String> getTableProgress() {
+		Map<String, String> values = new LinkedHashMap<>();
+		for (Map.Entry<String, Table> entry : tables.entrySet()) {
+			Table table = entry.getValue();
+			values.put(entry.getKey(), table.completedTasks.get() + "/" + table.totalTasks);
+		}
+		return values;
+	}
+
+	@Override
+	public int getWarehouses() {
+		return wareCount;
+	}
+
+	@Override
+	public int getCompletedWarehouses() {
+		int completed = 0;
+		for (int i = 0; i < wareCount; i++) {
+			if (completedTasks.get(i) == TASKS_PER_WAREHOUSE) {
+				completed++;
+			}
+		}
+		return completed;
+	}
+
+	@Override
+	public Map<Integer, Double> getWarehousesInProgress() {
+		Map<Integer, Double> values = new TreeMap<>();
+		for (int i = 0; i < wareCount; i++) {
+			int completed = completedTasks.get(i);
+			if (startedTasks.get(i) > 0 && completed < TASKS_PER_WAREHOUSE) {
+				values.put(i + 1, completed * 100.0D / TASKS_PER_WAREHOUSE);
+			}
+		}
+		return values;
+	}
+
+	@Override
+	public double getWarehouseProgress(int w_id) {
+		if (w_id < 1 || w_id > wareCount) {
+			throw new IllegalArgumentException("w_id must be between 1 and " + wareCount + ".");
+		}
+		return completedTasks.get(w_id - 1) * 100.0D / TASKS_PER_WAREHOUSE;
+	}
+}
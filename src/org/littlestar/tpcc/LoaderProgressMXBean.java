@@ -0,0 +1,50 @@
+package org.littlestar.tpcc;
+
+import java.util.Map;
+
+/**
+ * 通过JMX查看数据加载(load)的进度, ObjectName: org.littlestar.tpcc:type=Loader.
+ * 
+ * 进度以加载任务为单位(item、warehouse各1个任务, 每个仓库stock、district各1个, customer和orders每个销售区域各1个),
+ * 行数在任务完成时累加.
+ */
+public interface LoaderProgressMXBean {
+	/**
+	 * @return Loading, Completed.
+	 */
+	String getState();
+
+	long getElapsedSeconds();
+
+	int getTotalTasks();
+
+	int getCompletedTasks();
+
+	int getRunningTasks();
+
+	long getLoadedRows();
+
+	/**
+	 * @return 按表(一个任务加载的表)的已加载行数.
+	 */
+	Map<String, Long> getTableRows();
+
+	/**
+	 * @return 按表的任务进度, 如: "3/10".
+	 */
+	Map<String, String> getTableProgress();
+
+	int getWarehouses();
+
+	int getCompletedWarehouses();
+
+	/**
+	 * @return 正在加载的仓库的完成百分比, 按w_id.
+	 */
+	Map<Integer, Double> getWarehousesInProgress();
+
+	/**
+	 * @return 仓库w_id的完成百分比.
+	 */
+	double getWarehouseProgress(int w_id);
+}
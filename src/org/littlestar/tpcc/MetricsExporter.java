@@ -0,0 +1,239 @@
+package org.littlestar.tpcc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+import org.littlestar.tpcc.datasource.HikariCP;
+import org.littlestar.tpcc.datasource.PoolMetrics;
+import org.littlestar.tpcc.datasource.TpccDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * 内置的HTTP endpoint(JDK自带的com.sun.net.httpserver), 以OpenMetrics文本格式输出测试过程中的实时指标, 供Prometheus抓取:
+ *   http://metrics-bind:metrics-port/metrics
+ *
+ * endpoint没有认证, 默认只监听本机(metrics-bind=127.0.0.1), 从其他机器抓取时需要设置metrics-bind.
+ *
+ * 每次抓取时读取测试线程统计的快照(不阻塞测试线程), 包括每种事务的成功/失败次数、响应时间直方图、重试、按FailureClass的失败次数、
+ * 活动terminal数量和连接池(HikariCP)状态. 计数器只在计数阶段(ramp-up之后)增加. 时间单位为秒.
+ */
+public class MetricsExporter {
+	private final static Logger LOGGER = LoggerFactory.getLogger(MetricsExporter.class);
+	public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+	/** 响应时间直方图的bucket上限(μs), 0.5ms ~ 10s. */
+	private static final long[] BUCKETS = { 500L, 1000L, 2000L, 5000L, 10000L, 20000L, 50000L, 100000L, 200000L,
+			500000L, 1000000L, 2000000L, 5000000L, 10000000L };
+	private static final int[] BREAKDOWN_FIELDS = { TerminalStatistics.QUEUE_TIME, TerminalStatistics.ACQUIRE_TIME,
+			TerminalStatistics.EXECUTE_TIME, TerminalStatistics.COMMIT_TIME, TerminalStatistics.BACKOFF_TIME };
+	private static final String[] BREAKDOWN_COMPONENTS = { "queue", "acquire", "execute", "commit", "backoff" };
+
+	private final String bind;
+	private final int port;
+	private final List<BenchmarkThread> benchmarkThreads;
+	private final StatisticsAggregator aggregator;
+	private final RetryExecutor retryExecutor;
+	private final AtomicInteger activeTerminals;
+	private final int threads;
+	private final TpccDataSource dataSource;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/**
+	 * @param bind 监听的地址(IP或者主机名).
+	 * @param aggregator 响应时间直方图的来源(getTotalHistograms()).
+	 */
+	public MetricsExporter(String bind, int port, List<BenchmarkThread> benchmarkThreads, StatisticsAggregator aggregator,
+			RetryExecutor retryExecutor, AtomicInteger activeTerminals, int threads, TpccDataSource dataSource) {
+		this.bind = bind;
+		this.port = port;
+		this.benchmarkThreads = benchmarkThreads;
+		this.aggregator = aggregator;
+		this.retryExecutor = retryExecutor;
+		this.activeTerminals = activeTerminals;
+		this.threads = threads;
+		this.dataSource = dataSource;
+	}
+
+	public void start() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+		executor = Executors.newSingleThreadExecutor(
+				new ThreadFactoryBuilder().setNameFormat("tpcc-metrics-http-%d").setDaemon(true).build());
+		server.setExecutor(executor);
+		server.createContext("/metrics", this::handle);
+		server.start();
+		LOGGER.info("Metrics exporter listening on http://" + bind + ":" + port + "/metrics");
+	}
+
+	public void stop() {
+		if (Objects.nonNull(server)) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} catch (Exception e) {
+			LOGGER.warn("Scrape metrics failed.", e);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * @return OpenMetrics文本.
+	 */
+	public String scrape() {
+		StringBuilder out = new StringBuilder(8192);
+		long[] counters = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long acquireCount = 0L, acquireNanos = 0L;
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			benchmarkThread.getStatistics().snapshot(snapshot);
+			TerminalStatistics.merge(counters, snapshot);
+			acquireCount += benchmarkThread.getTerminalConnection().getAcquireCount();
+			acquireNanos += benchmarkThread.getTerminalConnection().getAcquireNanos();
+		}
+		LatencyHistogram[] histograms = aggregator.getTotalHistograms();
+
+		header(out, "tpcc_transactions", "counter", "Completed transactions by type and result.");
+		for (TransactionType type : TransactionType.values()) {
+			sample(out, "tpcc_transactions_total", labels("type", type, "result", "success"),
+					counters[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)]);
+			sample(out, "tpcc_transactions_total", labels("type", type, "result", "failure"),
+					counters[TerminalStatistics.index(type, TerminalStatistics.FAILURE_COUNT)]);
+		}
+		header(out, "tpcc_retries", "counter", "Retries of failed transaction attempts by type.");
+		for (TransactionType type : TransactionType.values()) {
+			sample(out, "tpcc_retries_total", labels("type", type),
+					counters[TerminalStatistics.index(type, TerminalStatistics.RETRY_COUNT)]);
+		}
+		header(out, "tpcc_retry_seconds", "counter", "Time spent in failed attempts and retry backoff by type.");
+		for (TransactionType type : TransactionType.values()) {
+			sample(out, "tpcc_retry_seconds_total", labels("type", type),
+					seconds(counters[TerminalStatistics.index(type, TerminalStatistics.RETRY_TIME)]));
+		}
+		header(out, "tpcc_response_time_component_seconds", "counter",
+				"Response time of all transactions split into queue, acquire, execute, commit and backoff.");
+		for (TransactionType type : TransactionType.values()) {
+			for (int i = 0; i < BREAKDOWN_FIELDS.length; i++) {
+				sample(out, "tpcc_response_time_component_seconds_total",
+						labels("type", type, "component", BREAKDOWN_COMPONENTS[i]),
+						seconds(counters[TerminalStatistics.index(type, BREAKDOWN_FIELDS[i])]));
+			}
+		}
+		header(out, "tpcc_response_time_seconds", "histogram", "Response time of successful transactions by type.");
+		for (TransactionType type : TransactionType.values()) {
+			LatencyHistogram histogram = histograms[type.getId()];
+			for (long bucket : BUCKETS) {
+				sample(out, "tpcc_response_time_seconds_bucket", labels("type", type, "le", seconds(bucket)),
+						histogram.getCountAtOrBelow(bucket));
+			}
+			sample(out, "tpcc_response_time_seconds_bucket", labels("type", type, "le", "+Inf"),
+					histogram.getTotalCount());
+			sample(out, "tpcc_response_time_seconds_count", labels("type", type), histogram.getTotalCount());
+			sample(out, "tpcc_response_time_seconds_sum", labels("type", type), seconds(histogram.getTotalValue()));
+		}
+		header(out, "tpcc_failures", "counter", "Failed transaction attempts by failure class.");
+		for (FailureClass failureClass : FailureClass.values()) {
+			sample(out, "tpcc_failures_total", labels("class", failureClass),
+					retryExecutor.getFailureCount(failureClass));
+		}
+		header(out, "tpcc_terminals", "gauge", "Benchmark threads (terminals).");
+		sample(out, "tpcc_terminals", "", threads);
+		header(out, "tpcc_active_terminals", "gauge", "Terminals currently submitting transactions.");
+		sample(out, "tpcc_active_terminals", "", Math.min(activeTerminals.get(), threads));
+		header(out, "tpcc_counting", "gauge", "1 while transactions are counted (after ramp-up).");
+		sample(out, "tpcc_counting", "", TpccDriver.countingOn.get() ? 1L : 0L);
+		header(out, "tpcc_connection_acquires", "counter", "Connections acquired from the data source by terminals.");
+		sample(out, "tpcc_connection_acquires_total", "", acquireCount);
+		header(out, "tpcc_connection_acquire_seconds", "counter", "Time spent acquiring connections.");
+		sample(out, "tpcc_connection_acquire_seconds_total", "", seconds(TimeUnit.NANOSECONDS.toMicros(acquireNanos)));
+		if (dataSource instanceof HikariCP) {
+			HikariPoolMXBean pool = ((HikariCP) dataSource).getPoolMXBean();
+			if (Objects.nonNull(pool)) {
+				header(out, "tpcc_pool_connections", "gauge", "Connection pool connections by state.");
+				sample(out, "tpcc_pool_connections", labels("state", "active"), pool.getActiveConnections());
+				sample(out, "tpcc_pool_connections", labels("state", "idle"), pool.getIdleConnections());
+				sample(out, "tpcc_pool_connections", labels("state", "total"), pool.getTotalConnections());
+				header(out, "tpcc_pool_max_connections", "gauge", "Connection pool maximum size.");
+				sample(out, "tpcc_pool_max_connections", "", ((HikariCP) dataSource).getMaximumPoolSize());
+				header(out, "tpcc_pool_threads_awaiting", "gauge", "Threads waiting for a pooled connection.");
+				sample(out, "tpcc_pool_threads_awaiting", "", pool.getThreadsAwaitingConnection());
+			}
+			PoolMetrics poolMetrics = ((HikariCP) dataSource).getPoolMetrics();
+			if (Objects.nonNull(poolMetrics)) {
+				long[] poolCounters = new long[PoolMetrics.FIELD_COUNT];
+				poolMetrics.snapshot(poolCounters);
+				header(out, "tpcc_pool_acquire_seconds", "counter", "Time threads waited for a pooled connection.");
+				sample(out, "tpcc_pool_acquire_seconds_total", "", seconds(poolCounters[PoolMetrics.ACQUIRE_TIME]));
+				header(out, "tpcc_pool_acquires", "counter", "Connections borrowed from the pool.");
+				sample(out, "tpcc_pool_acquires_total", "", poolCounters[PoolMetrics.ACQUIRED_COUNT]);
+				header(out, "tpcc_pool_connection_create_seconds", "counter", "Time spent creating physical connections.");
+				sample(out, "tpcc_pool_connection_create_seconds_total", "", seconds(poolCounters[PoolMetrics.CREATE_TIME]));
+				header(out, "tpcc_pool_connections_created", "counter", "Physical connections created by the pool.");
+				sample(out, "tpcc_pool_connections_created_total", "", poolCounters[PoolMetrics.CREATED_COUNT]);
+				header(out, "tpcc_pool_timeouts", "counter", "Connection requests that timed out waiting for the pool.");
+				sample(out, "tpcc_pool_timeouts_total", "", poolCounters[PoolMetrics.TIMEOUT_COUNT]);
+			}
+		}
+		out.append("# EOF\n");
+		return out.toString();
+	}
+
+	private static void header(StringBuilder out, String family, String type, String help) {
+		out.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+		out.append("# HELP ").append(family).append(' ').append(help).append('\n');
+	}
+
+	private static void sample(StringBuilder out, String name, String labels, Object value) {
+		out.append(name).append(labels).append(' ').append(value).append('\n');
+	}
+
+	private static String labels(Object... pairs) {
+		StringBuilder labels = new StringBuilder("{");
+		for (int i = 0; i + 1 < pairs.length; i += 2) {
+			if (i > 0) {
+				labels.append(',');
+			}
+			labels.append(pairs[i]).append("=\"").append(pairs[i + 1]).append('"');
+		}
+		return labels.append('}').toString();
+	}
+
+	/**
+	 * μs转换为秒, 不使用科学计数法, 如: 500 -> "0.0005", 1000000 -> "1.0".
+	 */
+	private static String seconds(long micros) {
+		String seconds = BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString();
+		return (seconds.indexOf('.') < 0) ? seconds + ".0" : seconds;
+	}
+
+	public int getPort() {
+		return port;
+	}
+}
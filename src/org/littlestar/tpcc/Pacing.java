@@ -0,0 +1,32 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+
+/**
+ * How the terminals issue transactions:
+ * <pre>
+ *   Closed: closed loop, the next transaction starts when the previous one returns (zero think time).
+ *   Open  : open loop, transactions are issued at the configured arrival rates by ArrivalScheduler, 
+ *           response time is measured from the intended start time.
+ *   Terminal: spec-faithful terminal emulation, warehouses * 10 terminals bound to (w_id, d_id) with keying and think 
+ *           times (Clause 5.2.5), response time is measured from the time the terminal submits the transaction.
+ * </pre>
+ */
+public enum Pacing {
+	Closed, Open, Terminal;
+
+	private Pacing() {}
+
+	public static Pacing parse(String name) {
+		if (Objects.isNull(name)) {
+			return Closed;
+		}
+		Pacing[] values = Pacing.values();
+		for (Pacing pacing : values) {
+			if (pacing.name().equalsIgnoreCase(name)) {
+				return pacing;
+			}
+		}
+		return Closed;
+	}
+}
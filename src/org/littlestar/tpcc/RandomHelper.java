@@ -178,32 +178,4 @@ public final class RandomHelper {
 		return name;
 	}
 	
-	// public static final float newOrderRatio = 0.45f;
-	public static final float paymentRation     = 0.43f;
-	public static final float orderStatusRation = 0.04f;
-	public static final float deliveryRation    = 0.04f;
-	public static final float stockLevelRation  = 0.04f;
-	
-	public static TransactionType randomTransaction(float paymentRation, float orderStatusRation, float deliveryRation,
-			float stockLevelRation) {
-		float chance = RandomHelper.randomFloat();
-		if (paymentRation >= chance) {
-			return TransactionType.Payment;
-		} else if (paymentRation < chance && chance <= (paymentRation + orderStatusRation)) { 
-			return TransactionType.OrderStatus;
-		} else if ((paymentRation + orderStatusRation) < chance
-				&& chance <= (paymentRation + orderStatusRation + deliveryRation)) { 
-			return TransactionType.Delivery;
-		} else if ((paymentRation + orderStatusRation + deliveryRation) < chance
-				&& chance <= (paymentRation + orderStatusRation + deliveryRation + stockLevelRation)) { 
-			return TransactionType.StockLevel;
-		} else {
-			return TransactionType.NewOrder;
-		}
-	}
-	
-	public static TransactionType randomTransaction() {
-		return randomTransaction(paymentRation, orderStatusRation, deliveryRation, stockLevelRation);
-	}
-	
 }
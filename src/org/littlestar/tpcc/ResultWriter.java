@@ -0,0 +1,510 @@
+package org.littlestar.tpcc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+import org.littlestar.tpcc.datasource.PoolMetrics;
+import org.littlestar.tpcc.datasource.TpccDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * 以机器可读的格式输出测试结果(result-file), 同时写两个文件:
+ *   - <result-file>.csv  : 每个报告周期每种事务一行(record=interval), 测试结束时每种事务一行汇总(record=summary), 另有type=All的合计行;
+ *   - <result-file>.jsonl: 第一行为header记录(配置, DBMS信息, 版本), 之后每个周期一条interval记录, 最后一条summary记录.
+ * 响应时间单位为毫秒. queue/acquire/execute/commit/backoff_ms为平均响应时间的组成(包括失败的事务), 连接池有统计时interval记录中有pool.
+ *
+ * 报告线程只把格式化好的行放入有界队列, 由单独的writer线程写入文件(BufferedWriter, 队列为空时flush), 磁盘IO不会阻塞报告线程;
+ * 队列满时丢弃记录并在结束时报告丢弃的数量.
+ */
+public class ResultWriter implements BenchmarkReporter.IntervalListener {
+	private final static Logger LOGGER = LoggerFactory.getLogger(ResultWriter.class);
+	private static final int QUEUE_CAPACITY = 4096;
+	private static final String VERSION_RESOURCE = "version.properties";
+	private static final String[] CSV_COLUMNS = { "record", "timestamp", "elapsed_s", "type", "count", "tps", "failed",
+			"retries", "avg_ms", "p50_ms", "p90_ms", "p99_ms", "max_ms", "queue_ms", "acquire_ms", "execute_ms",
+			"commit_ms", "backoff_ms" };
+	/** 响应时间的组成, 与BREAKDOWN_COLUMNS对应. */
+	private static final int[] BREAKDOWN_FIELDS = { TerminalStatistics.QUEUE_TIME, TerminalStatistics.ACQUIRE_TIME,
+			TerminalStatistics.EXECUTE_TIME, TerminalStatistics.COMMIT_TIME, TerminalStatistics.BACKOFF_TIME };
+	private static final String[] BREAKDOWN_COLUMNS = { "queue_ms", "acquire_ms", "execute_ms", "commit_ms",
+			"backoff_ms" };
+	private static final String ALL_TYPES = "All";
+
+	/** 写入一个文件的一行. */
+	private static class Line {
+		private final boolean csv;
+		private final String text;
+
+		Line(boolean csv, String text) {
+			this.csv = csv;
+			this.text = text;
+		}
+	}
+
+	private static final Line END = new Line(false, null);
+
+	private final Path csvPath;
+	private final Path jsonPath;
+	private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+	private final BlockingQueue<Line> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final AtomicLong dropped = new AtomicLong(0L);
+	private Thread writerThread;
+	private volatile long beginNanos = System.nanoTime();
+
+	/**
+	 * @param resultFile 输出文件的路径前缀, 如"results/run1"输出results/run1.csv和results/run1.jsonl.
+	 */
+	public ResultWriter(String resultFile) {
+		String prefix = resultFile.replaceAll("\\.(csv|jsonl)$", "");
+		this.csvPath = Paths.get(prefix + ".csv");
+		this.jsonPath = Paths.get(prefix + ".jsonl");
+	}
+
+	/**
+	 * 创建文件, 启动writer线程, 写入CSV列名和JSON header记录.
+	 */
+	public void open(TpccDataSource dataSource, Map<String, Object> settings, Properties profile) throws IOException {
+		for (Path path : new Path[] { csvPath, jsonPath }) {
+			Path parent = path.toAbsolutePath().getParent();
+			if (Objects.nonNull(parent)) {
+				Files.createDirectories(parent);
+			}
+		}
+		BufferedWriter csvWriter = Files.newBufferedWriter(csvPath, StandardCharsets.UTF_8);
+		BufferedWriter jsonWriter;
+		try {
+			jsonWriter = Files.newBufferedWriter(jsonPath, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			csvWriter.close();
+			throw e;
+		}
+		writerThread = new Thread(() -> drain(csvWriter, jsonWriter), "tpcc-result-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+
+		enqueue(new Line(true, String.join(",", CSV_COLUMNS)));
+		Map<String, Object> header = new LinkedHashMap<>();
+		header.put("record", "header");
+		header.put("timestamp", timestamp());
+		header.put("version", versionInfo());
+		header.put("dbms", dbmsInfo(dataSource));
+		header.put("settings", settings);
+		header.put("config", Objects.isNull(profile) ? null : new TreeMap<>(profile));
+		enqueue(new Line(false, gson.toJson(header)));
+		LOGGER.info("Writing results to " + csvPath + " and " + jsonPath);
+	}
+
+	/**
+	 * 开始计数, elapsed_s从这里开始计算.
+	 */
+	public void start() {
+		beginNanos = System.nanoTime();
+	}
+
+	private void drain(BufferedWriter csvWriter, BufferedWriter jsonWriter) {
+		boolean failed = false;
+		try (BufferedWriter csv = csvWriter; BufferedWriter json = jsonWriter) {
+			for (;;) {
+				Line line = queue.take();
+				if (line == END) {
+					break;
+				}
+				if (failed) {
+					continue;
+				}
+				try {
+					BufferedWriter writer = line.csv ? csv : json;
+					writer.write(line.text);
+					writer.newLine();
+					if (queue.isEmpty()) {
+						csv.flush();
+						json.flush();
+					}
+				} catch (IOException e) {
+					//// 写文件失败后只丢弃记录, 不影响测试.
+					failed = true;
+					LOGGER.error("Write result file failed, results are no longer written.", e);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			LOGGER.error("Close result file failed.", e);
+		}
+	}
+
+	private void enqueue(Line line) {
+		if (!queue.offer(line)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void intervalReported(IntervalStatistics statistics) {
+		String timestamp = timestamp();
+		double elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos) / 1000.0D;
+		long intervalMillis = statistics.getIntervalMillis();
+		LatencyHistogram all = new LatencyHistogram();
+		long allCount = 0L, allFailed = 0L, allRetries = 0L, allMax = 0L;
+		long[] allBreakdown = new long[BREAKDOWN_FIELDS.length];
+		Map<String, Object> types = new LinkedHashMap<>();
+		for (TransactionType type : TransactionType.values()) {
+			long[] breakdown = new long[BREAKDOWN_FIELDS.length];
+			for (int i = 0; i < BREAKDOWN_FIELDS.length; i++) {
+				breakdown[i] = statistics.getBreakdownTime(type, BREAKDOWN_FIELDS[i]);
+				allBreakdown[i] += breakdown[i];
+			}
+			LatencyHistogram histogram = statistics.getHistogram(type);
+			long count = statistics.getSucceedCount(type);
+			long failed = statistics.getFailedCount(type);
+			long retries = statistics.getRetryCount(type);
+			long max = statistics.getMaxRuntime(type);
+			all.add(histogram);
+			allCount += count;
+			allFailed += failed;
+			allRetries += retries;
+			allMax = Math.max(allMax, max);
+			Map<String, Object> values = values(count, tps(count, intervalMillis), failed, retries,
+					statistics.getAvgRuntime(type), histogram, max);
+			putBreakdown(values, breakdown, count + failed);
+			enqueue(new Line(true, csvRow("interval", timestamp, elapsed, type.name(), values)));
+			types.put(type.name(), values);
+		}
+		long allAvg = (allCount == 0L) ? 0L : all.getTotalValue() / allCount;
+		Map<String, Object> allValues = values(allCount, tps(allCount, intervalMillis), allFailed, allRetries, allAvg,
+				all, allMax);
+		putBreakdown(allValues, allBreakdown, allCount + allFailed);
+		enqueue(new Line(true, csvRow("interval", timestamp, elapsed, ALL_TYPES, allValues)));
+
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("record", "interval");
+		record.put("timestamp", timestamp);
+		record.put("elapsed_s", elapsed);
+		record.put("interval_ms", intervalMillis);
+		record.put("tpmc", round(statistics.getTpmc()));
+		record.put("all", allValues);
+		record.put("types", types);
+		Map<String, Object> failures = new LinkedHashMap<>();
+		for (FailureClass failureClass : FailureClass.values()) {
+			failures.put(failureClass.name(), statistics.getFailureCount(failureClass));
+		}
+		record.put("failures", failures);
+		if (statistics.hasPool()) {
+			record.put("pool", pool(statistics));
+		}
+		if (statistics.hasHealth()) {
+			record.put("driver", driver(statistics));
+		}
+		enqueue(new Line(false, gson.toJson(record)));
+	}
+
+	/**
+	 * 周期结束时连接池的状态和周期内获取/创建连接的统计.
+	 */
+	private static Map<String, Object> pool(IntervalStatistics statistics) {
+		long acquired = statistics.getPool(PoolMetrics.ACQUIRED_COUNT);
+		long created = statistics.getPool(PoolMetrics.CREATED_COUNT);
+		Map<String, Object> pool = new LinkedHashMap<>();
+		pool.put("pending", statistics.getPool(PoolMetrics.PENDING_THREADS));
+		pool.put("active", statistics.getPool(PoolMetrics.ACTIVE_CONNECTIONS));
+		pool.put("idle", statistics.getPool(PoolMetrics.IDLE_CONNECTIONS));
+		pool.put("total", statistics.getPool(PoolMetrics.TOTAL_CONNECTIONS));
+		pool.put("acquired", acquired);
+		pool.put("acquire_avg_ms", millis((acquired > 0L) ? statistics.getPool(PoolMetrics.ACQUIRE_TIME) / acquired : 0L));
+		pool.put("acquire_max_ms", millis(statistics.getPool(PoolMetrics.MAX_ACQUIRE_TIME)));
+		pool.put("created", created);
+		pool.put("create_avg_ms", millis((created > 0L) ? statistics.getPool(PoolMetrics.CREATE_TIME) / created : 0L));
+		pool.put("timeouts", statistics.getPool(PoolMetrics.TIMEOUT_COUNT));
+		return pool;
+	}
+
+	/**
+	 * 周期内压测端的状态, saturated为true时该周期的结果无效.
+	 */
+	private static Map<String, Object> driver(IntervalStatistics statistics) {
+		long cpu = statistics.getHealth(DriverHealthMonitor.PROCESS_CPU);
+		long safepoint = statistics.getHealth(DriverHealthMonitor.SAFEPOINT_TIME);
+		long runnable = statistics.getHealth(DriverHealthMonitor.RUNNABLE_THREADS);
+		Map<String, Object> driver = new LinkedHashMap<>();
+		driver.put("saturated", statistics.isDriverSaturated());
+		driver.put("reasons", DriverHealthMonitor.reasons(statistics.getHealth(DriverHealthMonitor.REASONS)));
+		driver.put("cpu_pct", (cpu < 0L) ? null : cpu / 10.0D);
+		driver.put("gc_pause_ms", millis(statistics.getHealth(DriverHealthMonitor.GC_PAUSE_TIME)));
+		driver.put("safepoint_ms", (safepoint < 0L) ? null : millis(safepoint));
+		driver.put("runnable", (runnable < 0L) ? null : runnable);
+		driver.put("schedule_lag_ms", millis(statistics.getHealth(DriverHealthMonitor.SCHEDULE_LAG)));
+		driver.put("schedule_lag_max_ms", millis(statistics.getHealth(DriverHealthMonitor.MAX_SCHEDULE_LAG)));
+		driver.put("start_lag_ms", millis(statistics.getHealth(DriverHealthMonitor.START_LAG)));
+		return driver;
+	}
+
+	/**
+	 * 整个计数阶段的汇总, 测试线程结束后调用.
+	 * @param histograms 累计的响应时间直方图(StatisticsAggregator.getTotalHistograms()).
+	 * @param healthMonitor 不为null时写入压测端的健康状态, 有饱和的周期时valid为false.
+	 * @param complianceValidator 不为null时写入TPC-C规范检查的结果(compliance).
+	 */
+	public void writeSummary(List<BenchmarkThread> benchmarkThreads, LatencyHistogram[] histograms, long runtimeMillis,
+			FailureAccounting failureAccounting, DriverHealthMonitor healthMonitor, ComplianceValidator complianceValidator) {
+		String timestamp = timestamp();
+		double elapsed = runtimeMillis / 1000.0D;
+		long[] total = new long[TerminalStatistics.COUNTERS_LENGTH];
+		long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
+		for (BenchmarkThread benchmarkThread : benchmarkThreads) {
+			benchmarkThread.getStatistics().snapshot(snapshot);
+			TerminalStatistics.merge(total, snapshot);
+		}
+		LatencyHistogram all = new LatencyHistogram();
+		long allCount = 0L, allFailed = 0L, allRetries = 0L, allRetryMicros = 0L, allMax = 0L;
+		long[] allBreakdown = new long[BREAKDOWN_FIELDS.length];
+		Map<String, Object> types = new LinkedHashMap<>();
+		for (TransactionType type : TransactionType.values()) {
+			long[] breakdown = new long[BREAKDOWN_FIELDS.length];
+			for (int i = 0; i < BREAKDOWN_FIELDS.length; i++) {
+				breakdown[i] = total[TerminalStatistics.index(type, BREAKDOWN_FIELDS[i])];
+				allBreakdown[i] += breakdown[i];
+			}
+			LatencyHistogram histogram = histograms[type.getId()];
+			long count = total[TerminalStatistics.index(type, TerminalStatistics.SUCCEED_COUNT)];
+			long failed = total[TerminalStatistics.index(type, TerminalStatistics.FAILURE_COUNT)];
+			long retries = total[TerminalStatistics.index(type, TerminalStatistics.RETRY_COUNT)];
+			long retryMicros = total[TerminalStatistics.index(type, TerminalStatistics.RETRY_TIME)];
+			long max = total[TerminalStatistics.index(type, TerminalStatistics.MAX_RUNTIME)];
+			long avg = (count == 0L) ? 0L : total[TerminalStatistics.index(type, TerminalStatistics.TOTAL_RUNTIME)] / count;
+			all.add(histogram);
+			allCount += count;
+			allFailed += failed;
+			allRetries += retries;
+			allRetryMicros += retryMicros;
+			allMax = Math.max(allMax, max);
+			Map<String, Object> values = values(count, tps(count, runtimeMillis), failed, retries, avg, histogram, max);
+			putBreakdown(values, breakdown, count + failed);
+			enqueue(new Line(true, csvRow("summary", timestamp, elapsed, type.name(), values)));
+			values.put("p95_ms", millis(Math.min(histogram.getValueAtPercentile(95.0D), max)));
+			values.put("p999_ms", millis(Math.min(histogram.getValueAtPercentile(99.9D), max)));
+			values.put("retry_ms", millis(retryMicros));
+			types.put(type.name(), values);
+		}
+		long allAvg = (allCount == 0L) ? 0L : all.getTotalValue() / allCount;
+		Map<String, Object> allValues = values(allCount, tps(allCount, runtimeMillis), allFailed, allRetries, allAvg,
+				all, allMax);
+		putBreakdown(allValues, allBreakdown, allCount + allFailed);
+		enqueue(new Line(true, csvRow("summary", timestamp, elapsed, ALL_TYPES, allValues)));
+		allValues.put("retry_ms", millis(allRetryMicros));
+
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("record", "summary");
+		record.put("timestamp", timestamp);
+		record.put("runtime_ms", runtimeMillis);
+		long newOrders = total[TerminalStatistics.index(TransactionType.NewOrder, TerminalStatistics.SUCCEED_COUNT)];
+		record.put("tpmc", round((runtimeMillis > 0L) ? (newOrders * 60000.0D / runtimeMillis) : 0.0D));
+		record.put("all", allValues);
+		record.put("types", types);
+		if (Objects.nonNull(failureAccounting)) {
+			Map<String, Object> failures = new LinkedHashMap<>();
+			for (FailureClass failureClass : FailureClass.values()) {
+				failures.put(failureClass.name(), failureAccounting.getCount(failureClass));
+			}
+			record.put("failures", failures);
+		}
+		if (Objects.nonNull(healthMonitor)) {
+			record.put("valid", healthMonitor.isValid());
+			Map<String, Object> driver = new LinkedHashMap<>();
+			driver.put("intervals", healthMonitor.getIntervals());
+			driver.put("saturated_intervals", healthMonitor.getSaturatedIntervals());
+			driver.put("processors", healthMonitor.getProcessors());
+			driver.put("max_cpu_pct", (healthMonitor.getMaxCpu() < 0L) ? null : healthMonitor.getMaxCpu() / 10.0D);
+			driver.put("max_pause_pct", healthMonitor.getMaxPause() / 10.0D);
+			driver.put("max_runnable", (healthMonitor.getMaxRunnable() < 0L) ? null : healthMonitor.getMaxRunnable());
+			driver.put("max_schedule_lag_ms", millis(healthMonitor.getMaxScheduleLag()));
+			driver.put("max_start_lag_ms", millis(healthMonitor.getMaxStartLag()));
+			record.put("driver", driver);
+		}
+		if (Objects.nonNull(complianceValidator)) {
+			Map<String, Object> compliance = new LinkedHashMap<>();
+			compliance.put("compliant", complianceValidator.isCompliant());
+			compliance.put("tpmc", round(complianceValidator.getTpmc()));
+			List<Map<String, Object>> checks = new ArrayList<>();
+			for (ComplianceValidator.Check check : complianceValidator.getChecks()) {
+				Map<String, Object> values = new LinkedHashMap<>();
+				values.put("name", check.getName());
+				values.put("clause", check.getClause());
+				values.put("value", check.getValue());
+				values.put("requirement", check.getRequirement());
+				values.put("result", check.getStatus().name());
+				checks.add(values);
+			}
+			compliance.put("checks", checks);
+			record.put("compliance", compliance);
+		}
+		enqueue(new Line(false, gson.toJson(record)));
+	}
+
+	/**
+	 * 等待队列中的记录写完, 关闭文件.
+	 */
+	public void close() {
+		if (Objects.isNull(writerThread)) {
+			return;
+		}
+		try {
+			queue.put(END);
+			writerThread.join(TimeUnit.SECONDS.toMillis(10L));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (dropped.get() > 0L) {
+			LOGGER.warn("Result writer queue full, " + dropped.get() + " records dropped.");
+		}
+		writerThread = null;
+	}
+
+	private static Map<String, Object> values(long count, double tps, long failed, long retries, long avg,
+			LatencyHistogram histogram, long max) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put("count", count);
+		values.put("tps", round(tps));
+		values.put("failed", failed);
+		values.put("retries", retries);
+		values.put("avg_ms", millis(avg));
+		//// 百分位数按bucket上限报告, 不超过最大值.
+		values.put("p50_ms", millis(Math.min(histogram.getValueAtPercentile(50.0D), max)));
+		values.put("p90_ms", millis(Math.min(histogram.getValueAtPercentile(90.0D), max)));
+		values.put("p99_ms", millis(Math.min(histogram.getValueAtPercentile(99.0D), max)));
+		values.put("max_ms", millis(max));
+		return values;
+	}
+
+	/**
+	 * @param breakdown 响应时间各部分的合计(μs), 按BREAKDOWN_FIELDS.
+	 * @param count 成功和失败的事务数.
+	 */
+	private static void putBreakdown(Map<String, Object> values, long[] breakdown, long count) {
+		for (int i = 0; i < BREAKDOWN_COLUMNS.length; i++) {
+			values.put(BREAKDOWN_COLUMNS[i], millis((count == 0L) ? 0L : breakdown[i] / count));
+		}
+	}
+
+	private static String csvRow(String record, String timestamp, double elapsed, String type,
+			Map<String, Object> values) {
+		StringBuilder row = new StringBuilder(128);
+		row.append(record).append(',').append(timestamp).append(',').append(elapsed).append(',').append(type);
+		for (int i = 4; i < CSV_COLUMNS.length; i++) {
+			row.append(',').append(values.get(CSV_COLUMNS[i]));
+		}
+		return row.toString();
+	}
+
+	private static double tps(long count, long millis) {
+		return (millis > 0L) ? (count * 1000.0D / millis) : 0.0D;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0D;
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100.0D) / 100.0D;
+	}
+
+	private static String timestamp() {
+		return OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS).toString();
+	}
+
+	/**
+	 * @return tpcc-jdbc版本, 以及构建时的git版本(build.xml生成version.properties, 没有时为"unknown").
+	 */
+	static Map<String, Object> versionInfo() {
+		Properties version = new Properties();
+		try (InputStream in = ResultWriter.class.getResourceAsStream(VERSION_RESOURCE)) {
+			if (Objects.nonNull(in)) {
+				version.load(in);
+			}
+		} catch (IOException e) {
+			LOGGER.trace("Load " + VERSION_RESOURCE + " failed.", e);
+		}
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("tpcc-jdbc", version.getProperty("version", "unknown"));
+		info.put("git", version.getProperty("git", "unknown"));
+		info.put("java", System.getProperty("java.version"));
+		info.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+		return info;
+	}
+
+	static Map<String, Object> dbmsInfo(TpccDataSource dataSource) {
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("datasource", dataSource.getDataSourceClassName());
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			info.put("product", metaData.getDatabaseProductName());
+			info.put("product_version", metaData.getDatabaseProductVersion());
+			info.put("driver", metaData.getDriverName());
+			info.put("driver_version", metaData.getDriverVersion());
+			info.put("url", redactUrl(metaData.getURL()));
+		} catch (Exception e) {
+			LOGGER.warn("Get DBMS info from connection metadata failed, the dbms block of the result is incomplete.", e);
+		}
+		return info;
+	}
+
+	/**
+	 * 结果文件会附加到工单中, JDBC URL去掉可能包含用户名和密码的部分:
+	 *   - 参数: '?'(MySQL/PostgreSQL)或者';'(SQL Server/DB2)之后, DB2数据库名之后的":key=value";
+	 *   - 用户信息: "//user:password@host"中的"user:password@", Oracle "thin:user/password@host"中的"user/password".
+	 */
+	static String redactUrl(String url) {
+		if (Objects.isNull(url)) {
+			return null;
+		}
+		String redacted = url;
+		for (char separator : new char[] { '?', ';' }) {
+			int index = redacted.indexOf(separator);
+			if (index >= 0) {
+				redacted = redacted.substring(0, index);
+			}
+		}
+		int at = redacted.lastIndexOf('@');
+		if (at >= 0) {
+			int slashes = redacted.indexOf("//");
+			if (slashes >= 0 && slashes < at) {
+				redacted = redacted.substring(0, slashes + 2) + redacted.substring(at + 1);
+			} else {
+				//// Oracle保留'@'("thin:@host"). 密码中可能有':', 从用户名之前(第一个'/'之前)的最后一个':'开始.
+				int slash = redacted.indexOf('/');
+				int from = redacted.lastIndexOf(':', (slash >= 0 && slash < at) ? slash : at) + 1;
+				redacted = redacted.substring(0, from) + redacted.substring(at);
+			}
+		}
+		int path = redacted.lastIndexOf('/');
+		int properties = (path >= 0) ? redacted.indexOf(':', path) : -1;
+		if (properties >= 0 && redacted.indexOf('=', properties) >= 0) {
+			redacted = redacted.substring(0, properties);
+		}
+		return redacted;
+	}
+}
@@ -0,0 +1,120 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.littlestar.tpcc.RetryPolicy.Action;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 执行一个事务, 失败时按FailureClass和RetryPolicy决定是否重试, 以及重试前退避/重新连接.
+ *
+ * 重试代价(retry cost)为失败的尝试和退避等待所花费的时间, 即事务响应时间中由重试造成的部分.
+ *
+ * 同时把响应时间分解为排队、获取连接(连接池等待)、执行、提交和退避, 连接池小于terminal数量时, 连接池的等待不会被误认为数据库的延迟.
+ */
+public class RetryExecutor {
+	private final static Logger LOGGER = LoggerFactory.getLogger(RetryExecutor.class);
+
+	@FunctionalInterface
+	public interface TransactionBody {
+		/**
+		 * @return true: transaction success, otherwise failure.
+		 */
+		boolean execute(StatementCache statements) throws Exception;
+	}
+
+	private final Dbms dbms;
+	private final RetryPolicy policy;
+	private final FailureAccounting accounting = new FailureAccounting();
+
+	public RetryExecutor(Dbms dbms, RetryPolicy policy) {
+		this.dbms = dbms;
+		this.policy = Objects.isNull(policy) ? new RetryPolicy() : policy;
+	}
+
+	/**
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics execute(TransactionType type, TerminalConnection terminalConnection,
+			long intendedStartNanos, TransactionBody body) {
+		boolean success = false;
+		int retry = 0;
+		long retryNanos = 0L;
+		long queueNanos = -1L, acquireNanos = 0L, commitNanos = 0L, backoffNanos = 0L;
+		for (; retry < policy.getMaxRetries(); retry++) {
+			long attemptStartNanos = System.nanoTime();
+			if (queueNanos < 0L) {
+				queueNanos = Math.max(0L, attemptStartNanos - intendedStartNanos);
+			}
+			StatementCache statements = null;
+			FailureClass failure = null;
+			long commitStartNanos = 0L;
+			try {
+				try {
+					statements = terminalConnection.acquire();
+				} finally {
+					acquireNanos += System.nanoTime() - attemptStartNanos;
+				}
+				commitStartNanos = statements.getCommitNanos();
+				statements.resetCurrentStatement();
+				success = body.execute(statements);
+				if (success) {
+					break;
+				}
+			} catch (Exception e) {
+				failure = FailureClass.classify(dbms, e);
+				if (TpccDriver.countingOn.get()) {
+					accounting.record(type, Objects.isNull(statements) ? "connect" : statements.getCurrentStatement(),
+							failure, e);
+				}
+				LOGGER.trace(type + " transaction failed with " + failure + ". Retries (" + retry + ")", e);
+			} finally {
+				if (Objects.nonNull(statements)) {
+					commitNanos += statements.getCommitNanos() - commitStartNanos;
+				}
+				boolean broken = (failure == FailureClass.ConnectionLost)
+						|| (Objects.nonNull(failure) && policy.getAction(failure) == Action.Reconnect);
+				terminalConnection.release(statements, broken);
+			}
+			//// 没有异常但返回false的事务, 与原来一样立即重试.
+			Action action = Objects.isNull(failure) ? Action.Backoff : policy.getAction(failure);
+			boolean interrupted = false;
+			if (action != Action.None && (retry + 1) < policy.getMaxRetries() && Objects.nonNull(failure)) {
+				long backoffStartNanos = System.nanoTime();
+				try {
+					TimeUnit.MILLISECONDS.sleep(policy.backoffMillis(retry));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					interrupted = true;
+				}
+				backoffNanos += System.nanoTime() - backoffStartNanos;
+			}
+			retryNanos += System.nanoTime() - attemptStartNanos;
+			if (action == Action.None || interrupted) {
+				break;
+			}
+		}
+		long runTime = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+		TransactionStatistics transStat = new TransactionStatistics(type, success, runTime, retry,
+				TimeUnit.NANOSECONDS.toMicros(retryNanos));
+		transStat.setBreakdown(TimeUnit.NANOSECONDS.toMicros(Math.max(0L, queueNanos)),
+				TimeUnit.NANOSECONDS.toMicros(acquireNanos), TimeUnit.NANOSECONDS.toMicros(commitNanos),
+				TimeUnit.NANOSECONDS.toMicros(backoffNanos));
+		LOGGER.trace("transaction done: " + transStat.toString());
+		return transStat;
+	}
+
+	public RetryPolicy getPolicy() {
+		return policy;
+	}
+
+	public long getFailureCount(FailureClass failureClass) {
+		return accounting.getCount(failureClass);
+	}
+
+	public FailureAccounting getAccounting() {
+		return accounting;
+	}
+}
@@ -0,0 +1,125 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+
+/**
+ * 事务失败后的重试策略, 每种FailureClass一个动作:
+ *   Backoff  : 指数退避(full jitter)后在同一个连接上重试, 死锁/串行化失败/锁超时;
+ *   Reconnect: 关闭连接, 退避后重新获取连接重试, 连接断开;
+ *   None     : 不重试, 违反约束/NO_DATA_FOUND, 参数不变时重试结果不变.
+ *
+ * 退避时间: random(0, min(backoffMax, backoff * 2^retry)) 毫秒. 立即重试会让死锁的事务再次同时进入冲突,
+ * 加剧锁竞争; 随机化的退避让冲突的事务错开.
+ */
+public class RetryPolicy implements TpccConstants {
+	public enum Action {
+		Backoff, Reconnect, None;
+
+		public static Action parse(String name) {
+			if (Objects.isNull(name)) {
+				return null;
+			}
+			for (Action action : Action.values()) {
+				if (action.name().equalsIgnoreCase(name.trim())) {
+					return action;
+				}
+			}
+			return null;
+		}
+	}
+
+	private final Action[] actions = new Action[FailureClass.values().length];
+	private int maxRetries = MAX_RETRY;
+	private long backoffMillis = 10L;
+	private long backoffMaxMillis = 1000L;
+
+	public RetryPolicy() {
+		actions[FailureClass.Deadlock.ordinal()] = Action.Backoff;
+		actions[FailureClass.Serialization.ordinal()] = Action.Backoff;
+		actions[FailureClass.LockTimeout.ordinal()] = Action.Backoff;
+		actions[FailureClass.ConnectionLost.ordinal()] = Action.Reconnect;
+		actions[FailureClass.Constraint.ordinal()] = Action.None;
+		actions[FailureClass.NoData.ordinal()] = Action.None;
+		actions[FailureClass.Other.ordinal()] = Action.Backoff;
+	}
+
+	/**
+	 * @param maxRetries 事务最多执行的次数(包括第一次).
+	 */
+	public RetryPolicy withMaxRetries(int maxRetries) {
+		this.maxRetries = Math.max(1, maxRetries);
+		return this;
+	}
+
+	/**
+	 * @param backoffMillis 第一次重试的最大退避时间(毫秒), 0为不退避立即重试.
+	 * @param backoffMaxMillis 退避时间上限(毫秒).
+	 */
+	public RetryPolicy withBackoff(long backoffMillis, long backoffMaxMillis) {
+		this.backoffMillis = Math.max(0L, backoffMillis);
+		this.backoffMaxMillis = Math.max(this.backoffMillis, backoffMaxMillis);
+		return this;
+	}
+
+	public RetryPolicy withAction(FailureClass failureClass, Action action) {
+		if (Objects.nonNull(failureClass) && Objects.nonNull(action)) {
+			actions[failureClass.ordinal()] = action;
+		}
+		return this;
+	}
+
+	/**
+	 * 解析"FailureClass=Action,..."格式的配置, 覆盖默认的动作, 如: "Constraint=Backoff,Other=None".
+	 */
+	public RetryPolicy withActions(String value) {
+		if (Objects.isNull(value)) {
+			return this;
+		}
+		for (String item : value.split(",")) {
+			String[] pair = item.split("=");
+			if (pair.length != 2) {
+				continue;
+			}
+			FailureClass failureClass = null;
+			for (FailureClass fc : FailureClass.values()) {
+				if (fc.name().equalsIgnoreCase(pair[0].trim())) {
+					failureClass = fc;
+				}
+			}
+			withAction(failureClass, Action.parse(pair[1]));
+		}
+		return this;
+	}
+
+	public Action getAction(FailureClass failureClass) {
+		return actions[failureClass.ordinal()];
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * @param retry 第几次重试(从0开始).
+	 * @return 本次重试前的退避时间(毫秒).
+	 */
+	public long backoffMillis(int retry) {
+		if (backoffMillis <= 0L) {
+			return 0L;
+		}
+		long ceiling = backoffMillis << Math.min(retry, 20);
+		return RandomHelper.randomLong(0L, Math.min(backoffMaxMillis, ceiling));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (FailureClass failureClass : FailureClass.values()) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(failureClass).append("=").append(getAction(failureClass));
+		}
+		return String.format("max %s, backoff %s~%s ms, [%s]", maxRetries, backoffMillis, backoffMaxMillis, builder);
+	}
+}
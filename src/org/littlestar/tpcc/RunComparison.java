@@ -0,0 +1,346 @@
+package org.littlestar.tpcc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * compare命令: 比较两个或多个测试的结果文件(result-file输出的JSON Lines), 第一个为基线(baseline), 其他依次与基线比较.
+ *
+ * 按事务类型(和All)对齐, 比较整个测试的TPs、p90、p99(来自summary记录), 并用每个报告周期的值作为样本做Welch's t检验,
+ * 判断差异是否显著. 差异超过阈值(threshold, %)并且显著(p-value < alpha)时:
+ *   - TPs下降、p90/p99上升为REGRESSION;
+ *   - 反之为IMPROVED.
+ * 任意一方的报告周期样本少于2个时无法做检验, 退化为只按阈值判断, Verdict标记"(threshold only)", 不会因为样本不足而放过回归.
+ * 有REGRESSION时compare()返回true, Benchmark以非0退出, 可以作为数据库升级流程的门禁.
+ */
+public class RunComparison {
+	public static final double THRESHOLD_DEFAULT = 5.0D;
+	public static final double ALPHA_DEFAULT = 0.05D;
+	private static final String ALL_TYPES = "All";
+	private static final String[] METRICS = { "tps", "p90_ms", "p99_ms" };
+
+	/**
+	 * 一个结果文件.
+	 */
+	public static class Run {
+		private final String file;
+		private JsonObject header = new JsonObject();
+		private final List<JsonObject> intervals = new ArrayList<>();
+		private JsonObject summary = null;
+
+		Run(String file) {
+			this.file = file;
+		}
+
+		public String getFile() {
+			return file;
+		}
+
+		public int getIntervalCount() {
+			return intervals.size();
+		}
+
+		/**
+		 * @return 压测端没有饱和(summary记录的valid), 没有检查压测端健康状态的旧结果文件也返回true.
+		 */
+		public boolean isValid() {
+			return Objects.isNull(summary) || !summary.has("valid") || summary.get("valid").getAsBoolean();
+		}
+
+		/**
+		 * @return summary记录中的值, 没有时为NaN.
+		 */
+		double summaryValue(String type, String metric) {
+			return value(Objects.isNull(summary) ? null : summary, type, metric);
+		}
+
+		/**
+		 * @return 每个周期的值. 响应时间只取周期内有成功事务的周期.
+		 */
+		double[] samples(String type, String metric) {
+			List<Double> samples = new ArrayList<>();
+			for (JsonObject interval : intervals) {
+				double count = value(interval, type, "count");
+				double value = value(interval, type, metric);
+				if (Double.isNaN(value) || (!"tps".equals(metric) && !(count > 0.0D))) {
+					continue;
+				}
+				samples.add(value);
+			}
+			double[] array = new double[samples.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = samples.get(i);
+			}
+			return array;
+		}
+
+		private static double value(JsonObject record, String type, String metric) {
+			if (Objects.isNull(record)) {
+				return Double.NaN;
+			}
+			JsonElement values = ALL_TYPES.equals(type) ? record.get("all")
+					: (record.has("types") ? record.getAsJsonObject("types").get(type) : null);
+			if (Objects.isNull(values) || !values.isJsonObject() || !values.getAsJsonObject().has(metric)) {
+				return Double.NaN;
+			}
+			return values.getAsJsonObject().get(metric).getAsDouble();
+		}
+	}
+
+	private final double threshold;
+	private final double alpha;
+
+	/**
+	 * @param threshold 判断为回归/改善的最小变化(%).
+	 * @param alpha 显著性水平.
+	 */
+	public RunComparison(double threshold, double alpha) {
+		this.threshold = threshold;
+		this.alpha = alpha;
+	}
+
+	/**
+	 * 读取结果文件, file可以是result-file的前缀或者.csv/.jsonl文件.
+	 */
+	public static Run load(String file) throws IOException {
+		String path = file.replaceAll("\\.csv$", "");
+		if (!path.endsWith(".jsonl")) {
+			path = path + ".jsonl";
+		}
+		Run run = new Run(path);
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+				String type = record.has("record") ? record.get("record").getAsString() : "";
+				if ("header".equals(type)) {
+					run.header = record;
+				} else if ("interval".equals(type)) {
+					run.intervals.add(record);
+				} else if ("summary".equals(type)) {
+					run.summary = record;
+				}
+			}
+		}
+		if (Objects.isNull(run.summary)) {
+			throw new IOException("No summary record in " + path + ", the run did not complete.");
+		}
+		return run;
+	}
+
+	/**
+	 * 第一个文件为基线, 其他文件依次与基线比较.
+	 * @return 有回归时返回true.
+	 */
+	public boolean compare(List<String> files) throws IOException {
+		if (files.size() < 2) {
+			throw new IllegalArgumentException("compare needs at least two result files.");
+		}
+		Run baseline = load(files.get(0));
+		boolean regression = false;
+		for (int i = 1; i < files.size(); i++) {
+			regression |= compare(baseline, load(files.get(i)));
+		}
+		output(regression ? "Result: REGRESSION" : "Result: OK");
+		return regression;
+	}
+
+	/**
+	 * @return 有回归时返回true.
+	 */
+	public boolean compare(Run baseline, Run candidate) {
+		output(String.format("Baseline : %s (%s intervals)", baseline.getFile(), baseline.getIntervalCount()));
+		output(String.format("Candidate: %s (%s intervals)", candidate.getFile(), candidate.getIntervalCount()));
+		for (Run run : new Run[] { baseline, candidate }) {
+			if (!run.isValid()) {
+				output("WARNING  : " + run.getFile() + " is marked invalid, the load generator was saturated.");
+			}
+		}
+		output(String.format("Threshold: %.1f %%, alpha: %.3f (Welch's t-test on interval samples)", threshold, alpha));
+		reportSettingsDiff(baseline, candidate);
+		output("  Transaction  | Metric |     Baseline |    Candidate |   Delta % |  p-value | Verdict");
+		List<String> types = new ArrayList<>();
+		for (TransactionType type : TransactionType.values()) {
+			types.add(type.name());
+		}
+		types.add(ALL_TYPES);
+		boolean regression = false;
+		for (String type : types) {
+			for (String metric : METRICS) {
+				double base = baseline.summaryValue(type, metric);
+				double cand = candidate.summaryValue(type, metric);
+				if (Double.isNaN(base) || Double.isNaN(cand)) {
+					continue;
+				}
+				double delta = (base != 0.0D) ? ((cand - base) * 100.0D / base) : 0.0D;
+				double pValue = welchPValue(baseline.samples(type, metric), candidate.samples(type, metric));
+				//// 样本不足时无法检验, 只按阈值判断.
+				boolean tested = !Double.isNaN(pValue);
+				boolean significant = !tested || pValue < alpha;
+				//// TPs越高越好, 响应时间越低越好.
+				double worse = "tps".equals(metric) ? -delta : delta;
+				String verdict = "-";
+				if (significant && worse > threshold) {
+					verdict = "REGRESSION";
+					regression = true;
+				} else if (significant && -worse > threshold) {
+					verdict = "IMPROVED";
+				}
+				if (!tested && !"-".equals(verdict)) {
+					verdict += " (threshold only)";
+				}
+				output(String.format("  %-12s | %-6s | %12.3f | %12.3f | %+9.2f | %8s | %s", type, metric.replace("_ms", ""),
+						base, cand, delta, Double.isNaN(pValue) ? "n/a" : String.format("%.4f", pValue), verdict));
+			}
+		}
+		output("");
+		return regression;
+	}
+
+	/**
+	 * 输出两个测试header中不同的设置.
+	 */
+	private static void reportSettingsDiff(Run baseline, Run candidate) {
+		List<String> diffs = new ArrayList<>();
+		for (String section : new String[] { "settings", "dbms" }) {
+			JsonObject base = baseline.header.has(section) ? baseline.header.getAsJsonObject(section) : new JsonObject();
+			JsonObject cand = candidate.header.has(section) ? candidate.header.getAsJsonObject(section) : new JsonObject();
+			TreeSet<String> keys = new TreeSet<>();
+			for (Map.Entry<String, JsonElement> entry : base.entrySet()) {
+				keys.add(entry.getKey());
+			}
+			for (Map.Entry<String, JsonElement> entry : cand.entrySet()) {
+				keys.add(entry.getKey());
+			}
+			for (String key : keys) {
+				String b = base.has(key) ? String.valueOf(base.get(key)) : "-";
+				String c = cand.has(key) ? String.valueOf(cand.get(key)) : "-";
+				if (!Objects.equals(b, c)) {
+					diffs.add(String.format("    %s.%s: %s -> %s", section, key, b, c));
+				}
+			}
+		}
+		if (!diffs.isEmpty()) {
+			output("Differences:");
+			for (String diff : diffs) {
+				output(diff);
+			}
+		}
+	}
+
+	/**
+	 * Welch's t检验(两个样本方差不一定相等), 双侧p-value. 样本少于2个时返回NaN.
+	 */
+	public static double welchPValue(double[] a, double[] b) {
+		if (a.length < 2 || b.length < 2) {
+			return Double.NaN;
+		}
+		double meanA = mean(a), meanB = mean(b);
+		double varA = variance(a, meanA) / a.length;
+		double varB = variance(b, meanB) / b.length;
+		double se = varA + varB;
+		if (se == 0.0D) {
+			return (meanA == meanB) ? 1.0D : 0.0D;
+		}
+		double t = (meanA - meanB) / Math.sqrt(se);
+		//// Welch-Satterthwaite自由度.
+		double df = (se * se) / ((varA * varA) / (a.length - 1) + (varB * varB) / (b.length - 1));
+		return regularizedIncompleteBeta(df / (df + t * t), df / 2.0D, 0.5D);
+	}
+
+	private static double mean(double[] values) {
+		double sum = 0.0D;
+		for (double value : values) {
+			sum += value;
+		}
+		return sum / values.length;
+	}
+
+	private static double variance(double[] values, double mean) {
+		double sum = 0.0D;
+		for (double value : values) {
+			sum += (value - mean) * (value - mean);
+		}
+		return sum / (values.length - 1);
+	}
+
+	/**
+	 * 正则化不完全Beta函数I_x(a, b), 连分式展开(Numerical Recipes betai/betacf).
+	 */
+	static double regularizedIncompleteBeta(double x, double a, double b) {
+		if (x <= 0.0D) {
+			return 0.0D;
+		}
+		if (x >= 1.0D) {
+			return 1.0D;
+		}
+		double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1.0D - x));
+		if (x < (a + 1.0D) / (a + b + 2.0D)) {
+			return front * betaContinuedFraction(x, a, b) / a;
+		}
+		return 1.0D - front * betaContinuedFraction(1.0D - x, b, a) / b;
+	}
+
+	private static double betaContinuedFraction(double x, double a, double b) {
+		final double tiny = 1e-300;
+		double c = 1.0D;
+		double d = 1.0D - (a + b) * x / (a + 1.0D);
+		d = 1.0D / (Math.abs(d) < tiny ? tiny : d);
+		double h = d;
+		for (int m = 1; m <= 300; m++) {
+			int m2 = 2 * m;
+			double aa = m * (b - m) * x / ((a + m2 - 1.0D) * (a + m2));
+			d = 1.0D + aa * d;
+			d = 1.0D / (Math.abs(d) < tiny ? tiny : d);
+			c = 1.0D + aa / c;
+			c = (Math.abs(c) < tiny) ? tiny : c;
+			h *= d * c;
+			aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1.0D));
+			d = 1.0D + aa * d;
+			d = 1.0D / (Math.abs(d) < tiny ? tiny : d);
+			c = 1.0D + aa / c;
+			c = (Math.abs(c) < tiny) ? tiny : c;
+			double delta = d * c;
+			h *= delta;
+			if (Math.abs(delta - 1.0D) < 1e-12) {
+				break;
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Lanczos近似.
+	 */
+	private static double logGamma(double x) {
+		double[] coefficients = { 76.18009172947146D, -86.50532032941677D, 24.01409824083091D, -1.231739572450155D,
+				0.1208650973866179e-2D, -0.5395239384953e-5D };
+		double y = x;
+		double tmp = x + 5.5D;
+		tmp -= (x + 0.5D) * Math.log(tmp);
+		double series = 1.000000000190015D;
+		for (double coefficient : coefficients) {
+			series += coefficient / ++y;
+		}
+		return -tmp + Math.log(2.5066282746310005D * series / x);
+	}
+
+	private static void output(String msg) {
+		System.out.println(msg);
+	}
+}
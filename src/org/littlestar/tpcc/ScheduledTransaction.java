@@ -0,0 +1,43 @@
+package org.littlestar.tpcc;
+
+/**
+ * Open-loop模式下由ArrivalScheduler按目标速率生成, 或terminal emulation模式下由模拟终端提交的事务请求.
+ * 
+ * intendedStartNanos是该事务"应该"开始的时间(System.nanoTime()), 响应时间从这个时间开始计算, 而不是从terminal实际开始执行的时间, 
+ * 这样当数据库停顿时, 事务在队列中的等待时间也会体现在响应时间中(coordinated-omission correction).
+ */
+public class ScheduledTransaction {
+	private final TransactionType type;
+	private final long intendedStartNanos;
+	private final EmulatedTerminal terminal;
+
+	public ScheduledTransaction(TransactionType type, long intendedStartNanos) {
+		this(type, intendedStartNanos, null);
+	}
+
+	public ScheduledTransaction(TransactionType type, long intendedStartNanos, EmulatedTerminal terminal) {
+		this.type = type;
+		this.intendedStartNanos = intendedStartNanos;
+		this.terminal = terminal;
+	}
+
+	public TransactionType getTransactionType() {
+		return type;
+	}
+
+	public long getIntendedStartNanos() {
+		return intendedStartNanos;
+	}
+
+	/**
+	 * @return 发出该事务的模拟终端, 非terminal emulation模式下为null.
+	 */
+	public EmulatedTerminal getTerminal() {
+		return terminal;
+	}
+
+	@Override
+	public String toString() {
+		return "transaction = " + type.toString() + "; intended-start = " + intendedStartNanos;
+	}
+}
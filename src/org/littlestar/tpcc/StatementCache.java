@@ -0,0 +1,175 @@
+package org.littlestar.tpcc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 绑定到一个连接上的PreparedStatement缓存, 按语句id(TpccStatements的方法名, 如"newOrderStmt1")缓存.
+ *
+ * 对于没有客户端语句缓存的驱动(PostgreSQL, DB2, Derby, SQLite...), 每次prepareStatement都是一次解析/prepare的网络往返,
+ * New-Order每个order line有4条语句. 开启缓存后, 同一个连接上的事务复用已经prepare的语句, 与sticky连接一起使用效果最好.
+ *
+ * 只能被一个线程使用.
+ */
+public class StatementCache implements AutoCloseable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(StatementCache.class);
+	private final Connection connection;
+	private final boolean enabled;
+	private final HashMap<String, PreparedStatement> statements;
+	private final StatementProfiler profiler;
+	private String currentStatement = null;
+	private long hitCount = 0L;
+	private long missCount = 0L;
+	private long commitNanos = 0L;
+
+	/**
+	 * @param enabled 不开启时prepare()每次都创建新的语句, release()关闭语句, 与不使用缓存相同.
+	 */
+	public StatementCache(Connection connection, boolean enabled) {
+		this(connection, enabled, null);
+	}
+
+	/**
+	 * @param profiler 不为null时, 语句的执行/读取和事务提交的时间计入profiler.
+	 */
+	public StatementCache(Connection connection, boolean enabled, StatementProfiler profiler) {
+		this.connection = connection;
+		this.enabled = enabled;
+		this.statements = enabled ? new HashMap<>() : null;
+		this.profiler = profiler;
+	}
+
+	public Connection getConnection() {
+		return connection;
+	}
+
+	public PreparedStatement prepare(String stmtId, String sqlText) throws SQLException {
+		currentStatement = stmtId;
+		if (!enabled) {
+			return wrap(stmtId, connection.prepareStatement(sqlText));
+		}
+		PreparedStatement statement = statements.get(stmtId);
+		if (Objects.nonNull(statement)) {
+			if (TpccDriver.countingOn.get()) {
+				hitCount++;
+			}
+			return statement;
+		}
+		statement = wrap(stmtId, connection.prepareStatement(sqlText));
+		statements.put(stmtId, statement);
+		if (TpccDriver.countingOn.get()) {
+			missCount++;
+		}
+		return statement;
+	}
+
+	/**
+	 * 开启statement-profile或者JFR的Statement事件时包装语句.
+	 */
+	private PreparedStatement wrap(String stmtId, PreparedStatement statement) {
+		if (Objects.nonNull(profiler) || FlightRecorderEvents.isStatementEnabled()) {
+			return StatementProfiler.wrap(profiler, stmtId, statement);
+		}
+		return statement;
+	}
+
+	/**
+	 * 提交事务.
+	 * @param transaction 事务名称(语句id的前缀, 如"newOrder"), 开启statement-profile时提交时间计入"newOrderCommit".
+	 */
+	public void commit(String transaction) throws SQLException {
+		end(transaction + "Commit", true);
+	}
+
+	/**
+	 * 回滚事务(事务逻辑要求的回滚, 如New-Order 1%的无效item), 开启statement-profile时回滚时间计入"newOrderRollback".
+	 */
+	public void rollback(String transaction) throws SQLException {
+		end(transaction + "Rollback", false);
+	}
+
+	private void end(String stmtId, boolean commit) throws SQLException {
+		currentStatement = stmtId;
+		FlightRecorderEvents.StatementEvent event = new FlightRecorderEvents.StatementEvent();
+		event.begin();
+		long startNanos = System.nanoTime();
+		try {
+			if (commit) {
+				connection.commit();
+			} else {
+				connection.rollback();
+			}
+			event.success = true;
+		} finally {
+			commitNanos += System.nanoTime() - startNanos;
+			event.end();
+			if (event.shouldCommit()) {
+				event.statement = stmtId;
+				event.operation = commit ? "commit" : "rollback";
+				event.commit();
+			}
+		}
+		if (Objects.nonNull(profiler)) {
+			profiler.recordExecute(stmtId, System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * @return 最后一次prepare()/commit()/rollback()的语句id, 事务失败时用于定位失败的语句; 事务开始后还没有执行语句时为"begin".
+	 */
+	public String getCurrentStatement() {
+		return Objects.isNull(currentStatement) ? "begin" : currentStatement;
+	}
+
+	/**
+	 * 事务(尝试)开始时调用, 清除上一个事务的语句id.
+	 */
+	public void resetCurrentStatement() {
+		currentStatement = null;
+	}
+
+	/**
+	 * 语句使用完毕: 开启缓存时保留在缓存中, 否则关闭.
+	 */
+	public void release(PreparedStatement statement) throws SQLException {
+		if (!enabled) {
+			statement.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (!enabled) {
+			return;
+		}
+		for (PreparedStatement statement : statements.values()) {
+			try {
+				statement.close();
+			} catch (Exception e) {
+				LOGGER.trace("Close cached statement failed.", e);
+			}
+		}
+		statements.clear();
+	}
+
+	/**
+	 * @return commit()/rollback()累计的时间(ns), 失败的提交也计入.
+	 */
+	public long getCommitNanos() {
+		return commitNanos;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+}
@@ -0,0 +1,267 @@
+package org.littlestar.tpcc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事务内每条语句的耗时分解(statement-profile): 按语句id(如"newOrderStmt7")分别统计执行(execute)和读取结果集(fetch)的时间,
+ * 以及每种事务的提交("newOrderCommit")和New-Order 1%的回滚("newOrderRollback")时间.
+ *
+ * StatementCache.prepare()返回的PreparedStatement被包装为动态代理: executeQuery/executeUpdate/execute计入execute,
+ * 返回的ResultSet上的方法调用(next, getXXX)累计到close()时计入fetch. 代理有反射调用的开销, 只在需要定位瓶颈时开启.
+ * JFR的Statement事件也通过这个代理记录(见FlightRecorderEvents).
+ *
+ * 每个测试线程一个实例, 只能被一个线程写入; 测试结束后由报告线程合并. 时间单位为微秒(μs).
+ */
+public class StatementProfiler {
+	private static final String[] TRANSACTION_ORDER = { "newOrder", "payment", "orderStatus", "delivery", "stockLevel" };
+
+	public static class Timing {
+		private final String id;
+		private final LatencyHistogram execute = new LatencyHistogram();
+		private final LatencyHistogram fetch = new LatencyHistogram();
+		private long executeMicros = 0L;
+		private long fetchMicros = 0L;
+
+		Timing(String id) {
+			this.id = id;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @return 语句id所属的事务, 如"newOrderStmt7" -> "newOrder".
+		 */
+		public String getTransaction() {
+			return transactionOf(id);
+		}
+
+		public LatencyHistogram getExecuteHistogram() {
+			return execute;
+		}
+
+		public LatencyHistogram getFetchHistogram() {
+			return fetch;
+		}
+
+		public long getExecuteMicros() {
+			return executeMicros;
+		}
+
+		public long getFetchMicros() {
+			return fetchMicros;
+		}
+
+		public long getTotalMicros() {
+			return executeMicros + fetchMicros;
+		}
+
+		void add(Timing other) {
+			execute.add(other.execute);
+			fetch.add(other.fetch);
+			executeMicros += other.executeMicros;
+			fetchMicros += other.fetchMicros;
+		}
+	}
+
+	private final HashMap<String, Timing> timings = new HashMap<>();
+
+	private Timing timing(String id) {
+		Timing timing = timings.get(id);
+		if (Objects.isNull(timing)) {
+			timing = new Timing(id);
+			timings.put(id, timing);
+		}
+		return timing;
+	}
+
+	public void recordExecute(String id, long nanos) {
+		if (TpccDriver.countingOn.get()) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			Timing timing = timing(id);
+			timing.execute.record(micros);
+			timing.executeMicros += micros;
+		}
+	}
+
+	public void recordFetch(String id, long nanos) {
+		if (TpccDriver.countingOn.get()) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			Timing timing = timing(id);
+			timing.fetch.record(micros);
+			timing.fetchMicros += micros;
+		}
+	}
+
+	/**
+	 * 包装语句, 计时execute和fetch.
+	 */
+	public PreparedStatement wrap(String stmtId, PreparedStatement statement) {
+		return wrap(this, stmtId, statement);
+	}
+
+	/**
+	 * @param profiler 为null时只记录JFR的Statement事件.
+	 */
+	public static PreparedStatement wrap(StatementProfiler profiler, String stmtId, PreparedStatement statement) {
+		return (PreparedStatement) Proxy.newProxyInstance(StatementProfiler.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new StatementHandler(profiler, stmtId, statement));
+	}
+
+	private static class StatementHandler implements InvocationHandler {
+		private final StatementProfiler profiler;
+		private final String stmtId;
+		private final PreparedStatement target;
+
+		StatementHandler(StatementProfiler profiler, String stmtId, PreparedStatement target) {
+			this.profiler = profiler;
+			this.stmtId = stmtId;
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			boolean execute = name.startsWith("execute") && (Objects.isNull(args) || args.length == 0);
+			if (!execute) {
+				return invokeTarget(target, method, args);
+			}
+			FlightRecorderEvents.StatementEvent event = new FlightRecorderEvents.StatementEvent();
+			event.begin();
+			long startNanos = System.nanoTime();
+			Object result;
+			try {
+				result = invokeTarget(target, method, args);
+				event.success = true;
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					event.statement = stmtId;
+					event.operation = name;
+					event.commit();
+				}
+			}
+			if (Objects.nonNull(profiler)) {
+				profiler.recordExecute(stmtId, System.nanoTime() - startNanos);
+				if (result instanceof ResultSet) {
+					return Proxy.newProxyInstance(StatementProfiler.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+							new ResultSetHandler(profiler, stmtId, (ResultSet) result));
+				}
+			}
+			return result;
+		}
+	}
+
+	private static class ResultSetHandler implements InvocationHandler {
+		private final StatementProfiler profiler;
+		private final String stmtId;
+		private final ResultSet target;
+		private long fetchNanos = 0L;
+		private boolean closed = false;
+
+		ResultSetHandler(StatementProfiler profiler, String stmtId, ResultSet target) {
+			this.profiler = profiler;
+			this.stmtId = stmtId;
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ("close".equals(method.getName())) {
+				if (!closed) {
+					closed = true;
+					profiler.recordFetch(stmtId, fetchNanos);
+				}
+				return invokeTarget(target, method, args);
+			}
+			long startNanos = System.nanoTime();
+			try {
+				return invokeTarget(target, method, args);
+			} finally {
+				fetchNanos += System.nanoTime() - startNanos;
+			}
+		}
+	}
+
+	private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	public Collection<Timing> getTimings() {
+		return timings.values();
+	}
+
+	static String transactionOf(String id) {
+		for (String transaction : TRANSACTION_ORDER) {
+			if (id.startsWith(transaction)) {
+				return transaction;
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * 语句排序: 事务(New-Order, Payment, Order-Status, Delivery, Stock-Level), 语句编号, 最后是提交/回滚.
+	 */
+	private static final Comparator<String> ID_ORDER = (a, b) -> {
+		int c = Integer.compare(transactionRank(a), transactionRank(b));
+		if (c != 0) {
+			return c;
+		}
+		c = Integer.compare(statementNumber(a), statementNumber(b));
+		return (c != 0) ? c : a.compareTo(b);
+	};
+
+	private static int transactionRank(String id) {
+		for (int i = 0; i < TRANSACTION_ORDER.length; i++) {
+			if (id.startsWith(TRANSACTION_ORDER[i])) {
+				return i;
+			}
+		}
+		return TRANSACTION_ORDER.length;
+	}
+
+	private static int statementNumber(String id) {
+		int i = id.lastIndexOf("Stmt");
+		if (i >= 0) {
+			try {
+				return Integer.parseInt(id.substring(i + 4));
+			} catch (NumberFormatException e) {
+				return Integer.MAX_VALUE;
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * 合并所有测试线程的统计, 测试线程结束后调用.
+	 */
+	public static List<Timing> merge(List<StatementProfiler> profilers) {
+		Map<String, Timing> merged = new TreeMap<>(ID_ORDER);
+		for (StatementProfiler profiler : profilers) {
+			for (Timing timing : profiler.getTimings()) {
+				merged.computeIfAbsent(timing.getId(), Timing::new).add(timing);
+			}
+		}
+		return new ArrayList<>(merged.values());
+	}
+}
@@ -0,0 +1,196 @@
+package org.littlestar.tpcc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.littlestar.tpcc.TpccDriver.BenchmarkThread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 汇总所有测试线程(terminal)的统计快照(计数器和本周期的响应时间), 分两层(条带)汇总:
+ *   - 测试线程按STRIPE_SIZE分成条带, 每个条带汇总到自己预分配的缓冲区;
+ *   - 再把所有条带合并为总计.
+ * 所有缓冲区在创建时分配并重复使用, 汇总过程不随terminal数量分配对象, 不产生GC压力.
+ *
+ * 测试线程不保存直方图, 只保存本周期的响应时间(TerminalStatistics的双缓冲), 结束周期后直接记录到条带的直方图, 不经过复制;
+ * 每个terminal每个周期读取的数据量与周期内的事务数有关, 与bucket总数无关. 直方图只属于汇总, 内存与terminal数量无关.
+ * 累计的直方图(getTotalHistograms())为所有结束的周期加上当前周期已经完成的事务.
+ *
+ * 条带多于1个并且CPU足够(每4个CPU一个汇总线程)时, 条带由后台汇总线程并行汇总, 一万以上terminal时报告的耗时也基本不变.
+ * 汇总线程的任务队列和完成信号(Semaphore)重复使用, 每个周期不分配Future.
+ * 读取快照不阻塞测试线程(TerminalStatistics的seqlock).
+ *
+ * aggregate()由一个读者(BenchmarkReporter的报告线程)调用, getTotalHistograms()可以在其他线程中调用(指标导出、负载阶梯、结束时的汇总).
+ */
+public class StatisticsAggregator implements AutoCloseable {
+	public static final int STRIPE_SIZE = 512;
+	private static final int TYPES = TransactionType.values().length;
+
+	/**
+	 * 一个条带: terminals[from, to)的汇总.
+	 */
+	private static class Stripe implements Runnable {
+		private final BenchmarkThread[] terminals;
+		private final int from;
+		private final int to;
+		private final Semaphore completed;
+		private final long[] snapshot = new long[TerminalStatistics.COUNTERS_LENGTH];
+		private final long[] counters = new long[TerminalStatistics.COUNTERS_LENGTH];
+		private final LatencyHistogram[] histograms = newHistograms();
+		private volatile RuntimeException failure = null;
+
+		Stripe(BenchmarkThread[] terminals, int from, int to, Semaphore completed) {
+			this.terminals = terminals;
+			this.from = from;
+			this.to = to;
+			this.completed = completed;
+		}
+
+		void aggregate() {
+			Arrays.fill(counters, 0L);
+			for (LatencyHistogram histogram : histograms) {
+				histogram.reset();
+			}
+			for (int i = from; i < to; i++) {
+				terminals[i].getStatistics().nextInterval(snapshot, histograms);
+				TerminalStatistics.merge(counters, snapshot);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				aggregate();
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				completed.release();
+			}
+		}
+	}
+
+	private final BenchmarkThread[] terminals;
+	private final Stripe[] stripes;
+	private final ExecutorService workers;
+	private final Semaphore completed = new Semaphore(0);
+	private final long[] counters = new long[TerminalStatistics.COUNTERS_LENGTH];
+	private final LatencyHistogram[] histograms = newHistograms();
+	//// 所有结束的周期的合计, 由锁(this)保护.
+	private final LatencyHistogram[] totalHistograms = newHistograms();
+
+	public StatisticsAggregator(List<BenchmarkThread> benchmarkThreads) {
+		this(benchmarkThreads, Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+	}
+
+	/**
+	 * @param parallelism 最多的汇总线程数, 1为在调用线程中依次汇总所有条带.
+	 */
+	public StatisticsAggregator(List<BenchmarkThread> benchmarkThreads, int parallelism) {
+		terminals = benchmarkThreads.toArray(new BenchmarkThread[0]);
+		int stripeCount = Math.max(1, (terminals.length + STRIPE_SIZE - 1) / STRIPE_SIZE);
+		stripes = new Stripe[stripeCount];
+		for (int s = 0; s < stripeCount; s++) {
+			stripes[s] = new Stripe(terminals, s * STRIPE_SIZE, Math.min(terminals.length, (s + 1) * STRIPE_SIZE),
+					completed);
+		}
+		int threads = Math.min(stripeCount, parallelism);
+		if (threads > 1) {
+			//// 有界数组队列, 提交任务不分配链表节点.
+			workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(stripeCount),
+					new ThreadFactoryBuilder().setNameFormat("tpcc-aggregator-%d").setDaemon(true).build());
+		} else {
+			workers = null;
+		}
+	}
+
+	/**
+	 * 结束所有测试线程的当前报告周期(TerminalStatistics.nextInterval()), 汇总到getCounters()/getHistograms().
+	 */
+	public synchronized void aggregate() throws InterruptedException {
+		if (Objects.isNull(workers)) {
+			for (Stripe stripe : stripes) {
+				stripe.aggregate();
+			}
+		} else {
+			for (Stripe stripe : stripes) {
+				stripe.failure = null;
+				workers.execute(stripe);
+			}
+			completed.acquire(stripes.length);
+			for (Stripe stripe : stripes) {
+				if (Objects.nonNull(stripe.failure)) {
+					throw new IllegalStateException("Aggregate terminal statistics failed.", stripe.failure);
+				}
+			}
+		}
+		Arrays.fill(counters, 0L);
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+		for (Stripe stripe : stripes) {
+			TerminalStatistics.merge(counters, stripe.counters);
+			for (int t = 0; t < TYPES; t++) {
+				histograms[t].add(stripe.histograms[t]);
+			}
+		}
+		for (int t = 0; t < TYPES; t++) {
+			totalHistograms[t].add(histograms[t]);
+		}
+	}
+
+	/**
+	 * 累计的响应时间直方图: 所有结束的周期, 加上当前周期已经完成的事务(TerminalStatistics.recordCurrent()).
+	 * @return 新的直方图, 按TransactionType.getId()索引.
+	 */
+	public synchronized LatencyHistogram[] getTotalHistograms() {
+		LatencyHistogram[] total = newHistograms();
+		for (int t = 0; t < TYPES; t++) {
+			total[t].set(totalHistograms[t]);
+		}
+		for (BenchmarkThread terminal : terminals) {
+			terminal.getStatistics().recordCurrent(total);
+		}
+		return total;
+	}
+
+	/**
+	 * @return 最近一次aggregate()的计数器合计, 按TerminalStatistics.index(type, field)索引, 下一次aggregate()时覆盖.
+	 */
+	public long[] getCounters() {
+		return counters;
+	}
+
+	/**
+	 * @return 最近一次aggregate()结束的报告周期的响应时间直方图, 按TransactionType.getId()索引, 下一次aggregate()时覆盖.
+	 */
+	public LatencyHistogram[] getHistograms() {
+		return histograms;
+	}
+
+	public int getStripeCount() {
+		return stripes.length;
+	}
+
+	@Override
+	public void close() {
+		if (Objects.nonNull(workers)) {
+			workers.shutdown();
+		}
+	}
+
+	private static LatencyHistogram[] newHistograms() {
+		LatencyHistogram[] histograms = new LatencyHistogram[TYPES];
+		for (int i = 0; i < TYPES; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+		return histograms;
+	}
+}
@@ -0,0 +1,163 @@
+package org.littlestar.tpcc;
+
+import java.sql.Connection;
+import java.util.Objects;
+
+import org.littlestar.tpcc.datasource.TpccDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 测试线程(terminal)获取数据库连接的方式:
+ *   - 非sticky: 每次事务尝试都从数据源获取连接, 用完关闭(归还连接池);
+ *   - sticky  : 测试线程在整个测试期间持有一个长连接, 只有发生致命错误(连接断开)后才重新连接.
+ *
+ * 获取连接的耗时(连接池借出或者建立新连接)单独统计, 用于评估sticky模式节省的开销.
+ */
+public class TerminalConnection implements AutoCloseable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(TerminalConnection.class);
+	private final TpccDataSource dataSource;
+	private final boolean sticky;
+	private final boolean statementCache;
+	private final StatementProfiler profiler;
+	private StatementCache statements = null;
+
+	private volatile long acquireCount = 0L;
+	private volatile long acquireNanos = 0L;
+	private volatile long reconnectCount = 0L;
+	private volatile long cacheHitCount = 0L;
+	private volatile long cacheMissCount = 0L;
+
+	public TerminalConnection(TpccDataSource dataSource, boolean sticky) {
+		this(dataSource, sticky, false);
+	}
+
+	/**
+	 * @param statementCache 是否在连接上缓存PreparedStatement, 非sticky模式下缓存只在一次事务尝试内有效.
+	 */
+	public TerminalConnection(TpccDataSource dataSource, boolean sticky, boolean statementCache) {
+		this(dataSource, sticky, statementCache, null);
+	}
+
+	/**
+	 * @param profiler 不为null时统计每条语句的耗时(statement-profile).
+	 */
+	public TerminalConnection(TpccDataSource dataSource, boolean sticky, boolean statementCache,
+			StatementProfiler profiler) {
+		this.dataSource = dataSource;
+		this.sticky = sticky;
+		this.statementCache = statementCache;
+		this.profiler = profiler;
+	}
+
+	/**
+	 * 获取连接, 返回绑定在该连接上的StatementCache, 通过StatementCache.getConnection()取得连接.
+	 */
+	public StatementCache acquire() throws Exception {
+		if (sticky && Objects.nonNull(statements)) {
+			return statements;
+		}
+		long startTime = System.nanoTime();
+		FlightRecorderEvents.ConnectionAcquireEvent event = new FlightRecorderEvents.ConnectionAcquireEvent();
+		event.begin();
+		Connection acquired;
+		try {
+			acquired = dataSource.getConnection();
+			event.success = true;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.sticky = sticky;
+				event.commit();
+			}
+		}
+		if (TpccDriver.countingOn.get()) {
+			acquireNanos += System.nanoTime() - startTime;
+			acquireCount++;
+		}
+		StatementCache cache = new StatementCache(acquired, statementCache, profiler);
+		if (sticky) {
+			statements = cache;
+		}
+		return cache;
+	}
+
+	/**
+	 * @param broken 连接是否发生了致命错误, sticky模式下发生致命错误的连接会被关闭, 下次acquire()时重新连接.
+	 */
+	public void release(StatementCache acquired, boolean broken) {
+		if (Objects.isNull(acquired)) {
+			return;
+		}
+		if (sticky && !broken) {
+			return;
+		}
+		if (sticky) {
+			statements = null;
+			if (TpccDriver.countingOn.get()) {
+				reconnectCount++;
+			}
+			LOGGER.trace("Sticky connection broken, reconnect at next transaction.");
+		}
+		closeQuietly(acquired);
+	}
+
+	@Override
+	public void close() {
+		if (Objects.nonNull(statements)) {
+			closeQuietly(statements);
+			statements = null;
+		}
+	}
+
+	private void closeQuietly(StatementCache cache) {
+		cacheHitCount += cache.getHitCount();
+		cacheMissCount += cache.getMissCount();
+		cache.close();
+		try {
+			cache.getConnection().close();
+		} catch (Exception e) {
+			LOGGER.trace("Close connection failed.", e);
+		}
+	}
+
+	public boolean isSticky() {
+		return sticky;
+	}
+
+	public long getAcquireCount() {
+		return acquireCount;
+	}
+
+	public long getAcquireNanos() {
+		return acquireNanos;
+	}
+
+	public long getReconnectCount() {
+		return reconnectCount;
+	}
+
+	/**
+	 * @return 没有开启statement-profile时返回null.
+	 */
+	public StatementProfiler getProfiler() {
+		return profiler;
+	}
+
+	public boolean isStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * 已关闭的StatementCache的命中次数, 加上当前持有(sticky)的StatementCache的命中次数.
+	 */
+	public long getCacheHitCount() {
+		StatementCache current = statements;
+		return cacheHitCount + (Objects.nonNull(current) ? current.getHitCount() : 0L);
+	}
+
+	public long getCacheMissCount() {
+		StatementCache current = statements;
+		return cacheMissCount + (Objects.nonNull(current) ? current.getMissCount() : 0L);
+	}
+}
@@ -0,0 +1,123 @@
+package org.littlestar.tpcc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Terminal emulation模式: 按规范为每个仓库创建10个终端(wareCount * 10), 每个终端绑定(w_id, d_id),
+ * 按5.2.4.2从终端自己的一副牌中选择事务, 按5.2.5的keying time和think time循环提交事务:
+ *
+ *   选择事务 -> keying time -> 提交(放入队列, 由BenchmarkThread执行) -> 响应 -> think time -> 选择下一个事务 ...
+ *
+ * keying/think time由TimerWheel调度, 不占用线程. 响应时间从终端提交事务的时间开始计算, 包括在队列中等待的时间.
+ */
+public class TerminalEmulator implements TimerWheel.Handler<EmulatedTerminal>, TpccConstants {
+	private final static Logger LOGGER = LoggerFactory.getLogger(TerminalEmulator.class);
+	public static final int TERMINALS_PER_WARE = DIST_PER_WARE;
+	/** 5.2.5.7 Keying Time(秒), 按TransactionType.getId()索引. */
+	public static final double[] KEYING_TIMES = { 18.0D, 3.0D, 2.0D, 2.0D, 2.0D };
+	/** 5.2.5.7 Think Time的均值(秒), 按TransactionType.getId()索引. */
+	public static final double[] THINK_TIMES  = { 12.0D, 12.0D, 10.0D, 5.0D, 5.0D };
+	private static final long TICK_MILLIS = 10L;
+	private static final int WHEEL_SIZE = 4096;
+
+	private final List<EmulatedTerminal> terminals;
+	private final double thinkTimeScale;
+	private final TimerWheel timerWheel;
+	private final BlockingQueue<ScheduledTransaction> queue = new LinkedBlockingQueue<>();
+	private volatile int maxBacklog = 0;
+
+	/**
+	 * @param thinkTimeScale keying/think time的缩放系数, 1.0为规范值, 0为不等待.
+	 * @param mix 事务组合, 每个终端一副牌.
+	 */
+	public TerminalEmulator(int wareCount, double thinkTimeScale, TransactionMix mix) {
+		this.thinkTimeScale = Math.max(0.0D, thinkTimeScale);
+		this.terminals = new ArrayList<>(wareCount * TERMINALS_PER_WARE);
+		int terminalId = 0;
+		for (int w_id = 1; w_id <= wareCount; w_id++) {
+			for (int d_id = 1; d_id <= TERMINALS_PER_WARE; d_id++) {
+				terminals.add(new EmulatedTerminal(++terminalId, w_id, d_id, mix.newDeck()));
+			}
+		}
+		this.timerWheel = new TimerWheel(TICK_MILLIS, WHEEL_SIZE, this);
+	}
+
+	public TimerWheel getTimerWheel() {
+		return timerWheel;
+	}
+
+	public BlockingQueue<ScheduledTransaction> getQueue() {
+		return queue;
+	}
+
+	/**
+	 * 所有终端选择第一个事务, 开始keying. 为了避免所有终端同时提交, 第一次的等待时间在[0, keying time + think time]之间随机.
+	 */
+	public void start() {
+		for (EmulatedTerminal terminal : terminals) {
+			TransactionType next = terminal.getDeck().next();
+			terminal.setNextTransaction(next);
+			long cycleMillis = toMillis(KEYING_TIMES[next.getId()] + THINK_TIMES[next.getId()]);
+			timerWheel.schedule(terminal, RandomHelper.randomLong(0L, cycleMillis), TimeUnit.MILLISECONDS);
+		}
+		LOGGER.trace(terminals.size() + " emulated terminals started.");
+	}
+
+	/**
+	 * 时间轮线程: keying time结束, 终端提交事务.
+	 */
+	@Override
+	public void expired(EmulatedTerminal terminal, long deadlineNanos) {
+		//// 时间轮到期晚了, 从计划到期的时间开始计算响应时间.
+		long intendedStartNanos = Math.min(System.nanoTime(), deadlineNanos);
+		queue.add(new ScheduledTransaction(terminal.getNextTransaction(), intendedStartNanos, terminal));
+		maxBacklog = Math.max(maxBacklog, queue.size());
+	}
+
+	/**
+	 * BenchmarkThread线程: 事务完成(响应返回), 终端进入think time, 然后选择下一个事务并keying.
+	 */
+	public void complete(EmulatedTerminal terminal) {
+		TransactionType completed = terminal.getNextTransaction();
+		TransactionType next = terminal.getDeck().next();
+		terminal.setNextTransaction(next);
+		long delayMillis = thinkTime(completed) + keyingTime(next);
+		timerWheel.schedule(terminal, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private long keyingTime(TransactionType type) {
+		return toMillis(KEYING_TIMES[type.getId()]);
+	}
+
+	/**
+	 * 5.2.5.4 Think time服从负指数分布: Tt = -log(r) * μ, 最大不超过10倍均值.
+	 */
+	private long thinkTime(TransactionType type) {
+		double mean = THINK_TIMES[type.getId()];
+		double r = Math.max(RandomHelper.randomDouble(), Double.MIN_VALUE);
+		return toMillis(Math.min(-Math.log(r) * mean, mean * 10.0D));
+	}
+
+	private long toMillis(double seconds) {
+		return Math.round(seconds * thinkTimeScale * 1000.0D);
+	}
+
+	public int getTerminalCount() {
+		return terminals.size();
+	}
+
+	public double getThinkTimeScale() {
+		return thinkTimeScale;
+	}
+
+	public int getMaxBacklog() {
+		return maxBacklog;
+	}
+}
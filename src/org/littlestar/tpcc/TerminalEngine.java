@@ -0,0 +1,29 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+
+/**
+ * How the benchmark terminals (BenchmarkThread) are scheduled:
+ * <pre>
+ *   Platform: one platform thread per terminal in a fixed thread pool.
+ *   Virtual : one virtual thread per terminal (requires Java 21+), carrier threads are shared by all terminals.
+ * </pre>
+ */
+public enum TerminalEngine {
+	Platform, Virtual;
+
+	private TerminalEngine() {}
+
+	public static TerminalEngine parse(String name) {
+		if (Objects.isNull(name)) {
+			return Platform;
+		}
+		TerminalEngine[] engines = TerminalEngine.values();
+		for (TerminalEngine engine : engines) {
+			if (engine.name().equalsIgnoreCase(name)) {
+				return engine;
+			}
+		}
+		return Platform;
+	}
+}
@@ -0,0 +1,220 @@
+package org.littlestar.tpcc;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 测试线程(terminal)的事务统计, 单写者: 只有测试线程自己调用count(), BenchmarkReporter/LoadLadder等读者读取快照.
+ *
+ * 计数器保存在按TransactionType.getId() * FIELD_COUNT + 字段 索引的long数组中, 写者不加锁, 用sequence发布(seqlock),
+ * sequence的最低位为WRITING(正在写), 第二位为CUT(读者结束了一个报告周期), 第三位SET为写者当前的周期响应时间缓冲区, 每个事务加STEP:
+ *   - 写者: getAndAdd(WRITING)(奇数, 正在写), CUT置位时先清零周期最大响应时间并切换SET(清空另一个缓冲区),
+ *     更新计数器, 追加响应时间, 然后setRelease(清除WRITING和CUT, 加STEP);
+ *   - 读者: getAcquire读取sequence, 复制计数器, acquireFence后再次读取sequence, 两次相同并且没有WRITING则快照一致,
+ *     否则重试. 结束周期的读者用CAS(sequence, sequence | CUT)代替再次读取, 快照和周期的结束在同一个时间点,
+ *     之前完成的事务都在快照中, 之后的事务都属于下一个周期.
+ * 读者不阻塞写者, 写者每个事务一次getAndAdd和一次setRelease. 写者正在写时sequence为奇数, 读者的CAS一定失败,
+ * 所以写者的setRelease不会覆盖CUT.
+ *
+ * 不保存直方图: 成功执行的事务的响应时间(连同事务类型)追加到本周期的缓冲区, 由StatisticsAggregator记录到它的直方图中,
+ * 每个terminal的内存与一个周期内的事务数有关, 与直方图的bucket数无关(一万以上terminal时每个周期只有几个事务).
+ * 缓冲区有两个(双缓冲): 写者追加到SET指定的一个, 读者结束周期(CAS成功)后, 写者下一次计数时切换到另一个,
+ * 所以读者可以不经过复制直接读取结束的那一个; 下一次结束周期之前读者已经读完, 写者才会清空并重用这一个.
+ * 同一个周期内缓冲区只追加(扩容时复制到新数组, 旧数组不再修改), 已经发布的部分不会改变.
+ *
+ * 响应时间相关的计数器的单位为微秒(μs).
+ */
+public class TerminalStatistics {
+	public static final int TOTAL_RUNTIME        = 0;
+	public static final int MAX_RUNTIME          = 1;
+	public static final int INTERVAL_MAX_RUNTIME = 2;
+	public static final int SUCCEED_COUNT        = 3;
+	public static final int FAILURE_COUNT        = 4;
+	public static final int RETRY_COUNT          = 5;
+	public static final int RETRY_TIME           = 6;
+	/** 响应时间的组成(所有事务累计), 见TransactionStatistics.setBreakdown(). */
+	public static final int QUEUE_TIME           = 7;
+	public static final int ACQUIRE_TIME         = 8;
+	public static final int EXECUTE_TIME         = 9;
+	public static final int COMMIT_TIME          = 10;
+	public static final int BACKOFF_TIME         = 11;
+	/** 成功执行的事务的输入(New-Order回滚、order line数、远程仓库、按c_last选择客户), 见TransactionStatistics.setInputs(). */
+	public static final int ROLLBACK_COUNT       = 12;
+	public static final int LINE_COUNT           = 13;
+	public static final int REMOTE_COUNT         = 14;
+	public static final int BY_NAME_COUNT        = 15;
+	public static final int FIELD_COUNT          = 16;
+	public static final int COUNTERS_LENGTH      = TransactionType.values().length * FIELD_COUNT;
+
+	private static final long WRITING = 1L;
+	private static final long CUT = 2L;
+	private static final long SET = 4L;
+	private static final long STEP = 8L;
+	//// 缓冲区的元素: 事务类型(TransactionType.getId())在高32位, 响应时间(μs, 不超过LatencyHistogram.MAX_VALUE)在低32位.
+	private static final int TYPE_SHIFT = 32;
+	private static final long VALUE_MASK = (1L << TYPE_SHIFT) - 1L;
+	private static final int INITIAL_CAPACITY = 8;
+	private static final VarHandle SEQUENCE;
+	static {
+		try {
+			SEQUENCE = MethodHandles.lookup().findVarHandle(TerminalStatistics.class, "sequence", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final long[] counters = new long[COUNTERS_LENGTH];
+	/** 当前周期成功执行的事务的响应时间, 两个缓冲区, 按sequence的SET位选择. */
+	private final long[][] values = { new long[INITIAL_CAPACITY], new long[INITIAL_CAPACITY] };
+	private final int[] sizes = new int[2];
+	@SuppressWarnings("unused")
+	private long sequence = 0L;
+
+	public static int index(TransactionType type, int field) {
+		return type.getId() * FIELD_COUNT + field;
+	}
+
+	/**
+	 * 只能由测试线程调用.
+	 */
+	public void count(TransactionStatistics stats) {
+		long runtime = stats.getElapsedTime();
+		int base = stats.getTransactionType().getId() * FIELD_COUNT;
+		long seq = (long) SEQUENCE.getAndAdd(this, WRITING);
+		if ((seq & CUT) != 0L) {
+			for (int i = INTERVAL_MAX_RUNTIME; i < COUNTERS_LENGTH; i += FIELD_COUNT) {
+				counters[i] = 0L;
+			}
+			seq ^= SET;
+			sizes[setIndex(seq)] = 0;
+		}
+		counters[base + TOTAL_RUNTIME] += runtime;
+		counters[base + MAX_RUNTIME] = Math.max(counters[base + MAX_RUNTIME], runtime);
+		counters[base + INTERVAL_MAX_RUNTIME] = Math.max(counters[base + INTERVAL_MAX_RUNTIME], runtime);
+		counters[base + RETRY_COUNT] += stats.getRetryCount();
+		counters[base + RETRY_TIME] += stats.getRetryTime();
+		counters[base + QUEUE_TIME] += stats.getQueueTime();
+		counters[base + ACQUIRE_TIME] += stats.getAcquireTime();
+		counters[base + EXECUTE_TIME] += stats.getExecuteTime();
+		counters[base + COMMIT_TIME] += stats.getCommitTime();
+		counters[base + BACKOFF_TIME] += stats.getBackoffTime();
+		if (stats.isSuccess()) {
+			counters[base + SUCCEED_COUNT]++;
+			counters[base + ROLLBACK_COUNT] += stats.isRollback() ? 1L : 0L;
+			counters[base + LINE_COUNT] += stats.getLineCount();
+			counters[base + REMOTE_COUNT] += stats.getRemoteCount();
+			counters[base + BY_NAME_COUNT] += stats.isByName() ? 1L : 0L;
+			append(setIndex(seq), ((long) stats.getTransactionType().getId() << TYPE_SHIFT)
+					| Math.min(Math.max(0L, runtime), LatencyHistogram.MAX_VALUE));
+		} else {
+			counters[base + FAILURE_COUNT]++;
+		}
+		SEQUENCE.setRelease(this, (seq & ~(WRITING | CUT)) + STEP);
+	}
+
+	private void append(int set, long value) {
+		int size = sizes[set];
+		if (size == values[set].length) {
+			values[set] = Arrays.copyOf(values[set], size * 2);
+		}
+		values[set][size] = value;
+		sizes[set] = size + 1;
+	}
+
+	/**
+	 * 复制计数器的一致快照到target(长度COUNTERS_LENGTH), 不阻塞写者. 上一个周期结束之后没有计数时, 周期最大响应时间为0.
+	 */
+	public void snapshot(long[] target) {
+		read(target, false);
+	}
+
+	/**
+	 * 结束当前报告周期: 复制计数器的快照, 在同一个时间点结束周期(周期最大响应时间重新计算), 并把这个周期的响应时间直接记录到intervalTotal,
+	 * 不复制. 只能由一个读者(StatisticsAggregator)使用.
+	 * @param counters 长度COUNTERS_LENGTH.
+	 * @param intervalTotal 按TransactionType.getId()索引, 记录本周期成功执行的响应时间.
+	 */
+	public void nextInterval(long[] counters, LatencyHistogram[] intervalTotal) {
+		long seq = read(counters, true);
+		if ((seq & CUT) == 0L) {
+			//// CAS之后写者切换到另一个缓冲区, 这一个不再修改.
+			record(values[setIndex(seq)], sizes[setIndex(seq)], intervalTotal);
+		}
+	}
+
+	/**
+	 * 把当前(还没有结束的)周期已经完成的响应时间记录到target, 不结束周期, 不阻塞写者.
+	 * 调用者必须保证读取期间没有nextInterval()(StatisticsAggregator的锁), 否则可能与结束的周期重复或者遗漏.
+	 * @param target 按TransactionType.getId()索引.
+	 */
+	public void recordCurrent(LatencyHistogram[] target) {
+		long[] current;
+		int size;
+		for (;;) {
+			long seq = (long) SEQUENCE.getAcquire(this);
+			if ((seq & WRITING) == 0L) {
+				//// CUT置位时写者还没有切换, 当前周期没有事务.
+				current = values[setIndex(seq)];
+				size = ((seq & CUT) == 0L) ? sizes[setIndex(seq)] : 0;
+				VarHandle.acquireFence();
+				if ((long) SEQUENCE.getOpaque(this) == seq) {
+					break;
+				}
+			}
+			Thread.onSpinWait();
+		}
+		//// 写者之后只在size之后追加或者扩容到新数组, [0, size)不会改变.
+		record(current, Math.min(size, current.length), target);
+	}
+
+	private static void record(long[] values, int size, LatencyHistogram[] target) {
+		for (int i = 0; i < size; i++) {
+			target[(int) (values[i] >>> TYPE_SHIFT)].record(values[i] & VALUE_MASK);
+		}
+	}
+
+	/**
+	 * @return 读取时的sequence.
+	 */
+	private long read(long[] counters, boolean nextInterval) {
+		long seq;
+		for (;;) {
+			seq = (long) SEQUENCE.getAcquire(this);
+			if ((seq & WRITING) == 0L) {
+				System.arraycopy(this.counters, 0, counters, 0, COUNTERS_LENGTH);
+				VarHandle.acquireFence();
+				if (nextInterval ? SEQUENCE.compareAndSet(this, seq, seq | CUT) : ((long) SEQUENCE.getOpaque(this) == seq)) {
+					break;
+				}
+			}
+			Thread.onSpinWait();
+		}
+		//// 上一个周期结束后写者还没有计数, 数组中的周期最大响应时间属于上一个周期.
+		if ((seq & CUT) != 0L) {
+			for (int i = INTERVAL_MAX_RUNTIME; i < COUNTERS_LENGTH; i += FIELD_COUNT) {
+				counters[i] = 0L;
+			}
+		}
+		return seq;
+	}
+
+	private static int setIndex(long seq) {
+		return ((seq & SET) == 0L) ? 0 : 1;
+	}
+
+	/**
+	 * 把一个快照合并到total: 最大响应时间取最大值, 其他累加.
+	 */
+	public static void merge(long[] total, long[] snapshot) {
+		for (int i = 0; i < COUNTERS_LENGTH; i++) {
+			int field = i % FIELD_COUNT;
+			if (field == MAX_RUNTIME || field == INTERVAL_MAX_RUNTIME) {
+				total[i] = Math.max(total[i], snapshot[i]);
+			} else {
+				total[i] += snapshot[i];
+			}
+		}
+	}
+}
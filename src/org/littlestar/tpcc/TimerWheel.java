@@ -0,0 +1,117 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel: 用一个线程按固定tick推进时间轮, 到期的Entry交给Handler处理.
+ *
+ * 定时对象直接继承Entry(侵入式链表), schedule()不分配对象, 10万个terminal的keying/think time只需要一个线程,
+ * 而不是10万个sleep的线程. 精度为一个tick.
+ */
+public class TimerWheel implements Runnable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(TimerWheel.class);
+
+	public interface Handler<T extends Entry> {
+		/**
+		 * 在时间轮线程中调用, 不能阻塞.
+		 * @param deadlineNanos 计划到期时间(System.nanoTime()).
+		 */
+		void expired(T entry, long deadlineNanos);
+	}
+
+	public static abstract class Entry {
+		private long deadlineNanos;
+		private long remainingRounds;
+		private Entry next;
+	}
+
+	private final long tickNanos;
+	private final int mask;
+	private final Entry[] buckets;
+	private final Queue<Entry> pendings = new ConcurrentLinkedQueue<>();
+	private final Handler<Entry> handler;
+	private final long startNanos;
+	private long tick = 0L;
+
+	/**
+	 * @param tickMillis tick时长(毫秒), 即定时精度.
+	 * @param wheelSize 时间轮槽数, 向上取整为2的幂.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Entry> TimerWheel(long tickMillis, int wheelSize, Handler<T> handler) {
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, tickMillis));
+		int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+		this.buckets = new Entry[size];
+		this.mask = size - 1;
+		this.handler = (Handler<Entry>) handler;
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * 线程安全, 可以在任何线程中调用. 一个Entry在到期前不能重复schedule.
+	 */
+	public void schedule(Entry entry, long delay, TimeUnit unit) {
+		entry.deadlineNanos = System.nanoTime() + Math.max(0L, unit.toNanos(delay));
+		pendings.add(entry);
+	}
+
+	@Override
+	public void run() {
+		LOGGER.trace("Timer wheel started.");
+		while (TpccDriver.transactionOn.get()) {
+			long tickDeadline = startNanos + (tick + 1) * tickNanos;
+			long waitNanos = tickDeadline - System.nanoTime();
+			if (waitNanos > 0L) {
+				LockSupport.parkNanos(waitNanos);
+				continue;
+			}
+			transferPendings();
+			expireBucket((int) (tick & mask), tickDeadline);
+			tick++;
+		}
+		LOGGER.trace("Timer wheel stopped.");
+	}
+
+	private void transferPendings() {
+		Entry entry;
+		while (Objects.nonNull(entry = pendings.poll())) {
+			long deadlineTick = Math.max(tick, (entry.deadlineNanos - startNanos) / tickNanos);
+			entry.remainingRounds = (deadlineTick - tick) / buckets.length;
+			int index = (int) (deadlineTick & mask);
+			entry.next = buckets[index];
+			buckets[index] = entry;
+		}
+	}
+
+	private void expireBucket(int index, long tickDeadline) {
+		Entry previous = null;
+		Entry entry = buckets[index];
+		while (Objects.nonNull(entry)) {
+			Entry next = entry.next;
+			if (entry.remainingRounds <= 0L && entry.deadlineNanos <= tickDeadline) {
+				if (Objects.isNull(previous)) {
+					buckets[index] = next;
+				} else {
+					previous.next = next;
+				}
+				entry.next = null;
+				try {
+					handler.expired(entry, entry.deadlineNanos);
+				} catch (Exception e) {
+					LOGGER.error("Timer wheel handler failed.", e);
+				}
+			} else {
+				entry.remainingRounds--;
+				previous = entry;
+			}
+			entry = next;
+		}
+	}
+}
@@ -1,19 +1,23 @@
 package org.littlestar.tpcc;
 
-import java.sql.Connection;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.littlestar.tpcc.datasource.HikariCP;
+import org.littlestar.tpcc.datasource.PoolMetrics;
 import org.littlestar.tpcc.datasource.TpccDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,11 +29,187 @@ public class TpccDriver implements TpccConstants {
 	private final TpccDataSource dataSource;
 	private final Dbms dbms;
 	private int wareCount;
+	private TerminalEngine engine = TerminalEngine.Platform;
+	private Pacing pacing = Pacing.Closed;
+	private double[] arrivalRates = new double[TransactionType.values().length];
+	private double thinkTimeScale = 1.0D;
+	private boolean warehouseAffinity = false;
+	private boolean stickyConnection = false;
+	private boolean statementCache = false;
+	private boolean statementProfile = false;
+	private boolean driverHealth = BenchmarkConfig.DRIVER_HEALTH_DEFAULT;
+	private int metricsPort = 0;
+	private String metricsBind = BenchmarkConfig.METRICS_BIND_DEFAULT;
+	private String resultFile = null;
+	private String htmlReport = null;
+	private Properties profile = null;
+	private RetryExecutor retryExecutor;
+	private TransactionMix transactionMix = TransactionMix.STANDARD;
+	private int[] ladderSteps = null;
+	private int ladderStepTime = 60;
+	private int ladderSettleTime = 10;
+	private double ladderKneeThreshold = 0.2D;
+	private long slaP90 = 0L;
+	private int slaMinTerminals = 1;
+	private int slaIncrease = 1;
+	private double slaDecrease = 0.8D;
+	/** 活动的terminal数量, 序号(从0开始)大于等于这个值的BenchmarkThread暂停执行事务. */
+	private final AtomicInteger activeTerminals = new AtomicInteger(Integer.MAX_VALUE);
+	/** 通过JMX暂停测试. */
+	private final AtomicBoolean paused = new AtomicBoolean(false);
+	private ArrivalScheduler arrivalScheduler = null;
+	private TerminalEmulator terminalEmulator = null;
+	/** Open-loop/terminal emulation模式下, BenchmarkThread从这个队列中获取要执行的事务. */
+	private BlockingQueue<ScheduledTransaction> dispatchQueue = null;
 	
 	public TpccDriver(TpccDataSource ds, Dbms dbms, int wareCount) {
 		this.dataSource = ds;
 		this.dbms = dbms;
 		this.wareCount = wareCount;
+		this.retryExecutor = new RetryExecutor(dbms, new RetryPolicy());
+	}
+	
+	public TpccDriver withEngine(TerminalEngine engine) {
+		if (Objects.nonNull(engine)) {
+			this.engine = engine;
+		}
+		return this;
+	}
+	
+	public TpccDriver withPacing(Pacing pacing) {
+		if (Objects.nonNull(pacing)) {
+			this.pacing = pacing;
+		}
+		return this;
+	}
+	
+	public TpccDriver withArrivalRates(double[] arrivalRates) {
+		if (Objects.nonNull(arrivalRates)) {
+			this.arrivalRates = arrivalRates;
+		}
+		return this;
+	}
+	
+	public TpccDriver withThinkTimeScale(double thinkTimeScale) {
+		this.thinkTimeScale = thinkTimeScale;
+		return this;
+	}
+	
+	public TpccDriver withWarehouseAffinity(boolean warehouseAffinity) {
+		this.warehouseAffinity = warehouseAffinity;
+		return this;
+	}
+	
+	public TpccDriver withStickyConnection(boolean stickyConnection) {
+		this.stickyConnection = stickyConnection;
+		return this;
+	}
+	
+	public TpccDriver withStatementCache(boolean statementCache) {
+		this.statementCache = statementCache;
+		return this;
+	}
+	
+	/**
+	 * @param statementProfile 统计事务内每条语句的耗时, 测试结束时报告耗时分解. 有额外的开销, 只在定位瓶颈时开启.
+	 */
+	public TpccDriver withStatementProfile(boolean statementProfile) {
+		this.statementProfile = statementProfile;
+		return this;
+	}
+	
+	/**
+	 * @param driverHealth 每个报告周期检查压测端(CPU、GC/safepoint停顿、可运行线程、调度延迟)是否饱和, 有饱和的周期时结果标记为无效.
+	 */
+	public TpccDriver withDriverHealth(boolean driverHealth) {
+		this.driverHealth = driverHealth;
+		return this;
+	}
+	
+	/**
+	 * @param metricsPort 在这个端口上以OpenMetrics格式输出实时指标(http://host:port/metrics), 0为不开启.
+	 */
+	public TpccDriver withMetricsPort(int metricsPort) {
+		this.metricsPort = metricsPort;
+		return this;
+	}
+	
+	/**
+	 * @param metricsBind 指标HTTP endpoint监听的地址, 如: 127.0.0.1(默认, 只允许本机访问), 0.0.0.0(所有网卡).
+	 */
+	public TpccDriver withMetricsBind(String metricsBind) {
+		if (Objects.nonNull(metricsBind)) {
+			this.metricsBind = metricsBind;
+		}
+		return this;
+	}
+	
+	/**
+	 * @param resultFile 输出CSV(resultFile.csv)和JSON Lines(resultFile.jsonl)结果文件, null为不输出.
+	 */
+	public TpccDriver withResultFile(String resultFile) {
+		this.resultFile = resultFile;
+		return this;
+	}
+	
+	/**
+	 * @param htmlReport 测试结束后生成的HTML报告文件, null为不生成.
+	 */
+	public TpccDriver withHtmlReport(String htmlReport) {
+		this.htmlReport = htmlReport;
+		return this;
+	}
+	
+	/**
+	 * @param profile benchmark配置, 写入结果文件和HTML报告.
+	 */
+	public TpccDriver withProfile(Properties profile) {
+		this.profile = profile;
+		return this;
+	}
+	
+	public TpccDriver withTransactionMix(TransactionMix transactionMix) {
+		if (Objects.nonNull(transactionMix)) {
+			this.transactionMix = transactionMix;
+		}
+		return this;
+	}
+	
+	/**
+	 * @param steps 每一级活动的terminal数量, null为不使用ladder模式.
+	 * @param stepTime 每一级的运行时间(秒).
+	 * @param settleTime 每一级开始后不统计的时间(秒).
+	 * @param kneeThreshold 拐点阈值.
+	 */
+	public TpccDriver withLadder(int[] steps, int stepTime, int settleTime, double kneeThreshold) {
+		if (Objects.nonNull(steps) && steps.length > 0) {
+			this.ladderSteps = steps;
+			this.ladderStepTime = stepTime;
+			this.ladderSettleTime = settleTime;
+			this.ladderKneeThreshold = kneeThreshold;
+		}
+		return this;
+	}
+	
+	/**
+	 * @param targetP90 New-Order响应时间90百分位数的目标(ms), 大于0时开启SLA自适应并发控制, threads为最大terminal数量.
+	 * @param minTerminals 最少活动的terminal数量, 也是开始时的数量.
+	 * @param increase 满足SLA时每个周期增加的terminal数量(slow start结束后).
+	 * @param decrease 超过SLA时terminal数量的乘数.
+	 */
+	public TpccDriver withSla(long targetP90, int minTerminals, int increase, double decrease) {
+		this.slaP90 = targetP90;
+		this.slaMinTerminals = minTerminals;
+		this.slaIncrease = increase;
+		this.slaDecrease = decrease;
+		return this;
+	}
+	
+	public TpccDriver withRetryPolicy(RetryPolicy retryPolicy) {
+		if (Objects.nonNull(retryPolicy)) {
+			this.retryExecutor = new RetryExecutor(dbms, retryPolicy);
+		}
+		return this;
 	}
 	
 	public static AtomicBoolean transactionOn = new AtomicBoolean(true);
@@ -37,221 +217,400 @@ public class TpccDriver implements TpccConstants {
 	//private LocalDateTime benchCountingEndTime;
 	private long benchCountingEndTime;
 	public void benchmark(int runTime, int rampUp, int reportPeriod, int threads) throws Exception {
-		ThreadFactory benchmarkFactory = new ThreadFactoryBuilder().setNameFormat("tpcc-benchmark-pool-%d").build();
-		ThreadPoolExecutor benchmarkExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
-				new LinkedBlockingQueue<Runnable>(threads), benchmarkFactory, new ThreadPoolExecutor.AbortPolicy());
+		LoadLadder loadLadder = null;
+		if (Objects.nonNull(ladderSteps)) {
+			////// Ladder模式: 按最大的terminal数量创建测试线程, 运行时间为所有级的时间之和.
+			int maxTerminals = 0;
+			for (int terminals : ladderSteps) {
+				maxTerminals = Math.max(maxTerminals, terminals);
+			}
+			threads = maxTerminals;
+			runTime = ladderSteps.length * ladderStepTime;
+			activeTerminals.set(ladderSteps[0]);
+		}
+		ExecutorService benchmarkExecutor = createBenchmarkExecutor(threads);
+		CarrierMonitor carrierMonitor = (engine == TerminalEngine.Virtual) ? new CarrierMonitor() : null;
 
 		ThreadFactory monitorFactory = new ThreadFactoryBuilder().setNameFormat("benchmark-monitor-pool-%d").build();
-		ScheduledExecutorService monitorExecutor = new ScheduledThreadPoolExecutor(2, monitorFactory);
+		ScheduledThreadPoolExecutor monitorExecutor = new ScheduledThreadPoolExecutor(2, monitorFactory);
+		//// 通过JMX提前结束时, 取消到达运行时间的结束任务.
+		monitorExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		
+		////// Open-loop: 由调度线程按目标速率生成事务请求.
+		if (pacing == Pacing.Open) {
+			double totalRate = 0.0D;
+			for (double rate : arrivalRates) {
+				totalRate += rate;
+			}
+			if (totalRate <= 0.0D) {
+				throw new IllegalArgumentException("Open-loop pacing requires '" + BenchmarkConfig.ARRIVAL_RATES_OPTION
+						+ "', e.g. \"NewOrder=45,Payment=43,OrderStatus=4,Delivery=4,StockLevel=4\".");
+			}
+			arrivalScheduler = new ArrivalScheduler(arrivalRates);
+			dispatchQueue = arrivalScheduler.getQueue();
+			ThreadFactory schedulerFactory = new ThreadFactoryBuilder().setNameFormat("tpcc-arrival-scheduler-%d")
+					.setDaemon(true).build();
+			schedulerFactory.newThread(arrivalScheduler).start();
+		}
+		
+		////// Terminal emulation: wareCount * 10个终端, keying/think time由时间轮调度.
+		if (pacing == Pacing.Terminal) {
+			terminalEmulator = new TerminalEmulator(wareCount, thinkTimeScale, transactionMix);
+			dispatchQueue = terminalEmulator.getQueue();
+			ThreadFactory wheelFactory = new ThreadFactoryBuilder().setNameFormat("tpcc-timer-wheel-%d")
+					.setDaemon(true).build();
+			wheelFactory.newThread(terminalEmulator.getTimerWheel()).start();
+			terminalEmulator.start();
+		}
 
 		////// 创建并启动测试线程。
-		LinkedList<BenchmarkThread> benchmarkThreads = new LinkedList<BenchmarkThread>();
+		ArrayList<BenchmarkThread> benchmarkThreads = new ArrayList<BenchmarkThread>(threads);
 		for (int i = 0; i < threads; i++) {
-			BenchmarkThread benchmarkThread = new BenchmarkThread();
+			int[] homeWarehouses = homeWarehouses(i, threads);
+			BenchmarkThread benchmarkThread = new BenchmarkThread(i, homeWarehouses[0], homeWarehouses[1]);
 			benchmarkThreads.add(benchmarkThread);
 			benchmarkExecutor.submit(benchmarkThread);
 		}
+		//// 报告、指标导出、负载阶梯和结束时的汇总共用, 响应时间直方图只保存在汇总中.
+		StatisticsAggregator aggregator = new StatisticsAggregator(benchmarkThreads);
+		ConcurrencyController concurrencyController = null;
+		if (slaP90 > 0L) {
+			if (Objects.nonNull(ladderSteps)) {
+				throw new IllegalArgumentException("Ladder and SLA adaptive concurrency can not be used together.");
+			}
+			concurrencyController = new ConcurrencyController(activeTerminals, slaP90, slaMinTerminals, threads,
+					slaIncrease, slaDecrease);
+			activeTerminals.set(concurrencyController.getMinTerminals());
+		}
+		if (Objects.nonNull(ladderSteps)) {
+			loadLadder = new LoadLadder(aggregator, activeTerminals, ladderSteps, ladderStepTime, ladderSettleTime,
+					ladderKneeThreshold);
+		}
+		
+		MetricsExporter metricsExporter = null;
+		if (metricsPort > 0) {
+			metricsExporter = new MetricsExporter(metricsBind, metricsPort, benchmarkThreads, aggregator, retryExecutor,
+					activeTerminals, threads, dataSource);
+			metricsExporter.start();
+		}
 		
-		BenchmarkReporter.reportWelcome(dataSource, wareCount, threads);
+		////// 到达运行时间或者通过JMX提前结束.
+		AtomicBoolean stopped = new AtomicBoolean(false);
+		Runnable stopTask = () -> {
+			if (!stopped.compareAndSet(false, true)) {
+				return;
+			}
+			transactionOn.set(false);
+			countingOn.set(false);
+			benchmarkExecutor.shutdown();
+			monitorExecutor.shutdown();
+			benchCountingEndTime = System.nanoTime();
+		};
+		BenchmarkControl benchmarkControl = new BenchmarkControl(benchmarkThreads, retryExecutor, activeTerminals,
+				threads, paused, stopped, stopTask);
+		benchmarkControl.register();
+		
+		ResultWriter resultWriter = null;
+		if (Objects.nonNull(resultFile)) {
+			resultWriter = new ResultWriter(resultFile);
+			resultWriter.open(dataSource, resultSettings(runTime, rampUp, reportPeriod, threads), profile);
+		}
+		HtmlReport report = Objects.isNull(htmlReport) ? null : new HtmlReport(htmlReport);
+		
+		BenchmarkReporter.reportWelcome(dataSource, wareCount, threads, engine, pacing, warehouseAffinity,
+				stickyConnection, (pacing == Pacing.Open) ? null : transactionMix);
 		////// 热身, 延迟开启事务计数器标志.
 		if (rampUp > 0) {
 			LOGGER.info("Ramp-up " + rampUp + " sec... ");
 			TimeUnit.SECONDS.sleep(rampUp);
 		}
 		
+		if (Objects.nonNull(carrierMonitor)) {
+			carrierMonitor.start();
+		}
+		//// 在计数开始前启动, 开始JFR stream可能需要1秒以上.
+		DriverHealthMonitor healthMonitor = driverHealth ? new DriverHealthMonitor(pacing == Pacing.Closed) : null;
+		if (Objects.nonNull(healthMonitor)) {
+			healthMonitor.start();
+		}
 		countingOn.set(true); // 开启事务计数器
+		if (Objects.nonNull(resultWriter)) {
+			resultWriter.start();
+		}
+		if (Objects.nonNull(report)) {
+			report.start();
+		}
 		//LocalDateTime benchCountingBeginTime = LocalDateTime.now();
-		long benchCountingBeginTime = System.currentTimeMillis();
+		long benchCountingBeginTime = System.nanoTime();
 		////// 2 scheduled threads: one for interval output, other one for stop benchmark threads when run-time reached.
-		monitorExecutor.schedule(() -> {
-			transactionOn.set(false);
-			countingOn.set(false);
-			benchmarkExecutor.shutdown();
-			monitorExecutor.shutdown();
-			benchCountingEndTime = System.currentTimeMillis();
-		}, runTime, TimeUnit.SECONDS);
-		monitorExecutor.scheduleAtFixedRate(new BenchmarkReporter(benchmarkThreads), reportPeriod, reportPeriod,
-				TimeUnit.SECONDS);
+		monitorExecutor.schedule(stopTask, runTime, TimeUnit.SECONDS);
+		BenchmarkReporter benchmarkReporter = new BenchmarkReporter(aggregator, retryExecutor.getAccounting());
+		benchmarkReporter.addIntervalListener(benchmarkControl);
+		ComplianceValidator complianceValidator = new ComplianceValidator(rampUp, pacing, thinkTimeScale, wareCount);
+		benchmarkReporter.addIntervalListener(complianceValidator);
+		if (Objects.nonNull(healthMonitor)) {
+			benchmarkReporter.withHealthMonitor(healthMonitor);
+		}
+		PoolMetrics poolMetrics = (dataSource instanceof HikariCP) ? ((HikariCP) dataSource).getPoolMetrics() : null;
+		benchmarkReporter.withPoolMetrics(poolMetrics);
+		if (Objects.nonNull(concurrencyController)) {
+			benchmarkReporter.addIntervalListener(concurrencyController);
+		}
+		if (Objects.nonNull(resultWriter)) {
+			benchmarkReporter.addIntervalListener(resultWriter);
+		}
+		if (Objects.nonNull(report)) {
+			benchmarkReporter.addIntervalListener(report);
+		}
+		monitorExecutor.scheduleAtFixedRate(benchmarkReporter, reportPeriod, reportPeriod, TimeUnit.SECONDS);
 		BenchmarkReporter.reportHeader();
+		Thread ladderThread = null;
+		if (Objects.nonNull(loadLadder)) {
+			ThreadFactory ladderFactory = new ThreadFactoryBuilder().setNameFormat("tpcc-load-ladder-%d")
+					.setDaemon(true).build();
+			ladderThread = ladderFactory.newThread(loadLadder);
+			ladderThread.start();
+		}
 		
 		///// 等待benchmark线程池中的线程都退出后, 打印测试汇总。 runTime + 10秒后超时
 		if (!benchmarkExecutor.awaitTermination(runTime + 10, TimeUnit.SECONDS)) {
-			LOGGER.trace("Benchmark threads still active [ count=" + benchmarkExecutor.getActiveCount() + " ] when runtime is arrived, force shutdown benchmark threads pool.");
+			LOGGER.trace("Benchmark threads still active when runtime is arrived, force shutdown benchmark threads pool.");
 			benchmarkExecutor.shutdownNow();
 		}
-		long realRuntime = benchCountingEndTime - benchCountingBeginTime;
-		BenchmarkReporter.reportFooter(benchmarkThreads, realRuntime);
+		long realRuntime = TimeUnit.NANOSECONDS.toMillis(benchCountingEndTime - benchCountingBeginTime);
+		LatencyHistogram[] histograms = aggregator.getTotalHistograms();
+		BenchmarkReporter.reportFooter(benchmarkThreads, histograms, realRuntime);
+		if (Objects.nonNull(healthMonitor)) {
+			healthMonitor.stop();
+			BenchmarkReporter.reportDriverHealth(healthMonitor);
+		}
+		complianceValidator.validate(benchmarkThreads, histograms, realRuntime, healthMonitor);
+		BenchmarkReporter.reportCompliance(complianceValidator);
+		if (Objects.nonNull(resultWriter)) {
+			resultWriter.writeSummary(benchmarkThreads, histograms, realRuntime, retryExecutor.getAccounting(),
+					healthMonitor, complianceValidator);
+		}
+		BenchmarkReporter.reportConnection(benchmarkThreads, stickyConnection, statementCache);
+		if (Objects.nonNull(poolMetrics)) {
+			BenchmarkReporter.reportPool(poolMetrics, ((HikariCP) dataSource).getMaximumPoolSize(),
+					benchmarkReporter.getMaxPoolPending());
+		}
+		if (statementProfile) {
+			BenchmarkReporter.reportStatementProfile(benchmarkThreads);
+		}
+		BenchmarkReporter.reportRetry(retryExecutor);
+		if (Objects.nonNull(arrivalScheduler)) {
+			BenchmarkReporter.reportArrivalScheduler(arrivalScheduler);
+		}
+		if (Objects.nonNull(terminalEmulator)) {
+			BenchmarkReporter.reportTerminalEmulator(terminalEmulator);
+		}
+		if (Objects.nonNull(concurrencyController)) {
+			BenchmarkReporter.reportSla(concurrencyController);
+		}
+		if (Objects.nonNull(loadLadder)) {
+			ladderThread.join(TimeUnit.SECONDS.toMillis(10L));
+			BenchmarkReporter.reportLadder(loadLadder);
+		}
+		if (Objects.nonNull(carrierMonitor)) {
+			carrierMonitor.stop();
+			BenchmarkReporter.reportCarrier(carrierMonitor);
+		}
+		if (Objects.nonNull(metricsExporter)) {
+			metricsExporter.stop();
+		}
+		benchmarkControl.unregister();
+		benchmarkReporter.close();
+		if (Objects.nonNull(resultWriter)) {
+			resultWriter.close();
+		}
+		if (Objects.nonNull(report)) {
+			try {
+				report.write(benchmarkThreads, histograms, realRuntime, retryExecutor.getAccounting(), dataSource,
+						resultSettings(runTime, rampUp, reportPeriod, threads), profile);
+			} catch (Exception e) {
+				LOGGER.error("Write HTML report failed.", e);
+			}
+		}
+	}
+	
+	/**
+	 * 结果文件header记录中的实际测试参数.
+	 */
+	private Map<String, Object> resultSettings(int runTime, int rampUp, int reportPeriod, int threads) {
+		Map<String, Object> settings = new LinkedHashMap<>();
+		settings.put("dbms", dbms);
+		settings.put("warehouses", wareCount);
+		settings.put("threads", threads);
+		settings.put("runtime", runTime);
+		settings.put("ramp-up", rampUp);
+		settings.put("report-interval", reportPeriod);
+		settings.put("engine", engine);
+		settings.put("pacing", pacing);
+		settings.put("transaction-mix", (pacing == Pacing.Open) ? null : transactionMix.toString());
+		settings.put("warehouse-affinity", warehouseAffinity);
+		settings.put("sticky-connection", stickyConnection);
+		settings.put("statement-cache", statementCache);
+		settings.put("statement-profile", statementProfile);
+		settings.put("driver-health", driverHealth);
+		settings.put("retry-policy", retryExecutor.getPolicy().toString());
+		settings.put("ladder", ladderSteps);
+		settings.put("sla-p90", slaP90);
+		return settings;
+	}
+	
+	/**
+	 * 测试线程的home warehouse范围[from, to]:
+	 *   - 未开启warehouse affinity: 所有线程都是[1, wareCount];
+	 *   - threads <= wareCount: 把仓库平均分成threads个连续的区间, 每个线程一个区间;
+	 *   - threads > wareCount: 第i个线程的home warehouse为(i % wareCount) + 1, 多个线程共享一个仓库.
+	 * 远程仓库的访问(New-Order 1%的供货仓库, Payment 15%的客户仓库)仍然按规范在所有仓库中随机选择.
+	 */
+	private int[] homeWarehouses(int threadIndex, int threads) {
+		if (!warehouseAffinity) {
+			return new int[] { 1, wareCount };
+		}
+		if (threads > wareCount) {
+			int w_id = (threadIndex % wareCount) + 1;
+			return new int[] { w_id, w_id };
+		}
+		int from = (int) ((long) threadIndex * wareCount / threads) + 1;
+		int to = (int) ((long) (threadIndex + 1) * wareCount / threads);
+		return new int[] { from, to };
+	}
+	
+	/**
+	 * Platform: 固定大小的线程池, 每个terminal占用一个平台线程;
+	 * Virtual : 每个terminal一个虚拟线程, 阻塞在JDBC调用上时不占用carrier线程, 单个JVM可以模拟数万个terminal.
+	 */
+	private ExecutorService createBenchmarkExecutor(int threads) throws Exception {
+		if (engine == TerminalEngine.Virtual) {
+			if (VirtualThreads.isSupported()) {
+				return VirtualThreads.newThreadPerTaskExecutor("tpcc-benchmark-vthread-");
+			}
+			LOGGER.warn("Virtual threads are not supported by Java " + System.getProperty("java.version")
+					+ " (requires Java 21+), fall back to platform threads.");
+			engine = TerminalEngine.Platform;
+		}
+		ThreadFactory benchmarkFactory = new ThreadFactoryBuilder().setNameFormat("tpcc-benchmark-pool-%d").build();
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(threads), benchmarkFactory, new ThreadPoolExecutor.AbortPolicy());
 	}
 	
 	class BenchmarkThread implements Callable<Void> {
-		private final ReentrantLock counterLock = new ReentrantLock();
-		private volatile long noTotalRuntime = 0L;
-		private volatile long noMaxRuntime   = 0L;
-		private volatile long noMaxRuntime2  = 0L;
-		private volatile long noSucceedCount = 0L;
-		private volatile long noFailureCount = 0L;
-		private volatile long noRetryCount   = 0L;
-		
-		private volatile long pyTotalRuntime = 0L;
-		private volatile long pyMaxRuntime   = 0L;
-		private volatile long pyMaxRuntime2  = 0L;
-		private volatile long pySucceedCount = 0L;
-		private volatile long pyFailureCount = 0L;
-		private volatile long pyRetryCount   = 0L;
+		private final int terminalIndex;
+		private final int homeWareFrom;
+		private final int homeWareTo;
+		private final TerminalConnection terminalConnection;
+		private final TransactionDeck deck;
+		/** 只由本线程写入. */
+		private final TerminalStatistics statistics = new TerminalStatistics();
 		
-		private volatile long osTotalRuntime = 0L;
-		private volatile long osMaxRuntime   = 0L;
-		private volatile long osMaxRuntime2  = 0L;
-		private volatile long osSucceedCount = 0L;
-		private volatile long osFailureCount = 0L;
-		private volatile long osRetryCount   = 0L;
-		
-		private volatile long dlTotalRuntime = 0L;
-		private volatile long dlMaxRuntime   = 0L;
-		private volatile long dlMaxRuntime2  = 0L;
-		private volatile long dlSucceedCount = 0L;
-		private volatile long dlFailureCount = 0L;
-		private volatile long dlRetryCount   = 0L;
-		
-		private volatile long slTotalRuntime = 0L;
-		private volatile long slMaxRuntime   = 0L;
-		private volatile long slMaxRuntime2  = 0L;
-		private volatile long slSucceedCount = 0L;
-		private volatile long slFailureCount = 0L;
-		private volatile long slRetryCount   = 0L;
+		BenchmarkThread(int terminalIndex, int homeWareFrom, int homeWareTo) {
+			this.terminalIndex = terminalIndex;
+			this.homeWareFrom = homeWareFrom;
+			this.homeWareTo = homeWareTo;
+			this.terminalConnection = new TerminalConnection(dataSource, stickyConnection, statementCache,
+					statementProfile ? new StatementProfiler() : null);
+			this.deck = transactionMix.newDeck();
+		}
 		
+		public TerminalConnection getTerminalConnection() {
+			return terminalConnection;
+		}
 		
 		@Override
 		public Void call() throws Exception {
-			LOGGER.trace("TPC-C benchmark thread - " + Thread.currentThread().getName() + " started.");
+			LOGGER.trace("TPC-C benchmark thread - " + Thread.currentThread().getName() + " started, home warehouses ["
+					+ homeWareFrom + ", " + homeWareTo + "].");
 			try {
 				while (transactionOn.get()) {
+					if (paused.get() || terminalIndex >= activeTerminals.get()) {
+						TimeUnit.MILLISECONDS.sleep(50L);
+						continue;
+					}
 					TransactionStatistics stats = null;
-					TransactionType tran = RandomHelper.randomTransaction();
-					switch (tran) {
-					case NewOrder:
-						stats = doNewOrder();
-						break;
-					case Payment:
-						stats = doPayment();
-						break;
-					case OrderStatus:
-						stats = doOrdstat();
-						break;
-					case Delivery:
-						stats = doDelivery();
-						break;
-					case StockLevel:
-						stats = doSlev(wareCount);
-						break;
+					TransactionType tran;
+					long intendedStartNanos;
+					EmulatedTerminal terminal = null;
+					if (Objects.nonNull(dispatchQueue)) {
+						ScheduledTransaction scheduled = dispatchQueue.poll(100L, TimeUnit.MILLISECONDS);
+						if (Objects.isNull(scheduled)) {
+							continue;
+						}
+						tran = scheduled.getTransactionType();
+						intendedStartNanos = scheduled.getIntendedStartNanos();
+						terminal = scheduled.getTerminal();
+					} else {
+						tran = deck.next();
+						intendedStartNanos = System.nanoTime();
+					}
+					int w_id, d_id;
+					if (Objects.nonNull(terminal)) {
+						//// 终端的home warehouse; d_id只有Stock-Level使用终端固定的district, 其他事务随机.
+						w_id = terminal.getWarehouseId();
+						d_id = (tran == TransactionType.StockLevel) ? terminal.getDistrictId()
+								: RandomHelper.randomInt(1, DIST_PER_WARE);
+					} else {
+						w_id = RandomHelper.randomInt(homeWareFrom, homeWareTo);
+						d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
+					}
+					FlightRecorderEvents.TransactionEvent event = new FlightRecorderEvents.TransactionEvent();
+					event.begin();
+					long beginNanos = System.nanoTime();
+					try {
+						switch (tran) {
+						case NewOrder:
+							stats = doNewOrder(terminalConnection, w_id, d_id, intendedStartNanos);
+							break;
+						case Payment:
+							stats = doPayment(terminalConnection, w_id, d_id, intendedStartNanos);
+							break;
+						case OrderStatus:
+							stats = doOrdstat(terminalConnection, w_id, d_id, intendedStartNanos);
+							break;
+						case Delivery:
+							stats = doDelivery(terminalConnection, w_id, intendedStartNanos);
+							break;
+						case StockLevel:
+							stats = doSlev(terminalConnection, w_id, d_id, intendedStartNanos);
+							break;
+						}
+					} finally {
+						if (Objects.nonNull(terminal)) {
+							terminalEmulator.complete(terminal);
+						}
+						event.end();
+						if (event.shouldCommit() && Objects.nonNull(stats)) {
+							event.transactionType = tran.name();
+							event.warehouse = w_id;
+							event.district = d_id;
+							event.retries = stats.getRetryCount();
+							event.success = stats.isSuccess();
+							event.responseTime = stats.getElapsedTime();
+							event.queueDelay = TimeUnit.NANOSECONDS.toMicros(Math.max(0L, beginNanos - intendedStartNanos));
+							event.acquireTime = stats.getAcquireTime();
+							event.commitTime = stats.getCommitTime();
+							event.commit();
+						}
 					}
 					//// Counting
 					if (Objects.nonNull(stats) && countingOn.get()) {
 						//LOGGER.info(Thread.currentThread().getName() + ": " + stats.toString());
-						counterLock.lock();
-						try {
-							count(stats);
-						} finally {
-							counterLock.unlock();
-						}
+						statistics.count(stats);
 					}
 				}
 			} catch (Exception e) {
 				LOGGER.error("TPC-C benchmark thread - " + Thread.currentThread().getName() + " aborted. ", e);
+			} finally {
+				terminalConnection.close();
 			}
 			return null;
 		}
 		
-		public HashMap<TransactionType, ExecutionStatistics> getBenchmarkStatistics() {
-			HashMap<TransactionType, ExecutionStatistics> statistics = new HashMap<>();
-			counterLock.lock();
-			try {
-				statistics.put(TransactionType.NewOrder, new ExecutionStatistics(noTotalRuntime, noMaxRuntime,
-						noMaxRuntime2, noSucceedCount, noFailureCount, noRetryCount));
-				statistics.put(TransactionType.Payment, new ExecutionStatistics(pyTotalRuntime, pyMaxRuntime,
-						pyMaxRuntime2, pySucceedCount, pyFailureCount, pyRetryCount));
-				statistics.put(TransactionType.OrderStatus, new ExecutionStatistics(osTotalRuntime, osMaxRuntime,
-						osMaxRuntime2, osSucceedCount, osFailureCount, osRetryCount));
-				statistics.put(TransactionType.Delivery, new ExecutionStatistics(dlTotalRuntime, dlMaxRuntime,
-						dlMaxRuntime2, dlSucceedCount, dlFailureCount, dlRetryCount));
-				statistics.put(TransactionType.StockLevel, new ExecutionStatistics(slTotalRuntime, slMaxRuntime,
-						slMaxRuntime2, slSucceedCount, slFailureCount, slRetryCount));
-				//// Reset runtime2
-				noMaxRuntime2 = 0L;
-				pyMaxRuntime2 = 0L;
-				osMaxRuntime2 = 0L;
-				dlMaxRuntime2 = 0L;
-				slMaxRuntime2 = 0L;
-			} finally {
-				counterLock.unlock();
-			}
+		public TerminalStatistics getStatistics() {
 			return statistics;
 		}
-		
-		private void count(TransactionStatistics stats) {
-			long runtime = stats.getElapsedTime();
-			long retryCount = stats.getRetryCount();
-			boolean isSuccess = stats.isSuccess();
-			switch (stats.getTransactionType()) {
-			case NewOrder:
-				noTotalRuntime += runtime;
-				noMaxRuntime = Math.max(noMaxRuntime, runtime);
-				noMaxRuntime2 = Math.max(noMaxRuntime2, runtime);
-				noRetryCount += retryCount;
-				if (isSuccess) {
-					noSucceedCount++;
-				} else {
-					noFailureCount++;
-				}
-				break;
-			case Payment:
-				pyTotalRuntime += runtime;
-				pyMaxRuntime = Math.max(pyMaxRuntime, runtime);
-				pyMaxRuntime2 = Math.max(pyMaxRuntime2, runtime);
-				pyRetryCount += retryCount;
-				if (isSuccess) {
-					pySucceedCount++;
-				} else {
-					pyFailureCount++;
-				}
-				break;
-			case OrderStatus:
-				osTotalRuntime += runtime;
-				osMaxRuntime = Math.max(osMaxRuntime, runtime);
-				osMaxRuntime2 = Math.max(osMaxRuntime2, runtime);
-				osRetryCount += retryCount;
-				if (isSuccess) {
-					osSucceedCount++;
-				} else {
-					osFailureCount++;
-				}
-				break;
-			case Delivery:
-				dlTotalRuntime += runtime;
-				dlMaxRuntime = Math.max(dlMaxRuntime, runtime);
-				dlMaxRuntime2 = Math.max(dlMaxRuntime2, runtime);
-				dlRetryCount += retryCount;
-				if (isSuccess) {
-					dlSucceedCount++;
-				} else {
-					dlFailureCount++;
-				}
-				break;
-			case StockLevel:
-				slTotalRuntime += runtime;
-				slMaxRuntime = Math.max(slMaxRuntime, runtime);
-				slMaxRuntime2 = Math.max(slMaxRuntime2, runtime);
-				slRetryCount += retryCount;
-				if (isSuccess) {
-					slSucceedCount++;
-				} else {
-					slFailureCount++;
-				}
-				break;
-			default:
-				break;
-			}
-		}
 	}
 	
 	/*
@@ -264,8 +623,28 @@ public class TpccDriver implements TpccConstants {
 	 * 2.4	The New-Order Transaction -> 2.4.1 Input Data Generation
 	 */
 	public TransactionStatistics doNewOrder() throws Exception {
+		return doNewOrder(System.nanoTime());
+	}
+	
+	/**
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doNewOrder(long intendedStartNanos) throws Exception {
 		int w_id = RandomHelper.randomInt(1, wareCount);
 		int d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
+		try (TerminalConnection terminalConnection = new TerminalConnection(dataSource, false, statementCache)) {
+			return doNewOrder(terminalConnection, w_id, d_id, intendedStartNanos);
+		}
+	}
+	
+	/**
+	 * @param terminalConnection 测试线程获取数据库连接的方式(sticky或者非sticky).
+	 * @param w_id home warehouse id
+	 * @param d_id district id
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doNewOrder(TerminalConnection terminalConnection, int w_id, int d_id, long intendedStartNanos)
+			throws Exception {
 		int c_id = RandomHelper.nuRand(1023, 1, CUST_PER_DIST);
 		int ol_cnt = RandomHelper.randomInt(5, 15);
 		
@@ -275,6 +654,7 @@ public class TpccDriver implements TpccConstants {
 		int[] supware = new int[MAX_NUM_ITEMS];
 		int[] qty = new int[MAX_NUM_ITEMS];
 		int o_all_local = 1;
+		int remote = 0;
 		for (int i = 0; i < ol_cnt; i++) {
 			itemid[i] = RandomHelper.nuRand(8191, 1, MAX_ITEMS);
 			if ((i == (ol_cnt - 1)) && (rbk == 1)) {
@@ -286,40 +666,45 @@ public class TpccDriver implements TpccConstants {
 				supware[i] = TpccTransaction.otherWare(w_id, wareCount);
 				o_all_local = 0;
 			}
+			if (supware[i] != w_id) {
+				remote++;
+			}
 			qty[i] = RandomHelper.randomInt(1, 10);
 		}
 		
-		boolean success = false;
-		long runTime = 0L;
-		int retry = 0;
-		long startTime = System.currentTimeMillis();
-		for (; retry < MAX_RETRY; retry++) {
-			try (Connection connection = dataSource.getConnection()) {
-				success = TpccTransaction.newOrder(connection, dbms, w_id, d_id, c_id, ol_cnt, o_all_local, itemid, supware, qty);
-				if (success) {
-					break;
-				}
-			} catch (NoDataFoundException e) {
-				LOGGER.trace("New-order transaction failed with 'NO_DATA_FOUND'", e);
-				// 不重试, 因为传参不变, 结果肯定还是NO_DATA_FOUND, retry没有意义.
-				break;
-			} catch (Exception e) {
-				LOGGER.trace("New-order transaction failed. Retries (" + retry + ")", e);
-			}
-		}
-		long endTime = System.currentTimeMillis();
-		runTime = endTime - startTime;
-		TransactionStatistics transStat = new TransactionStatistics(TransactionType.NewOrder, success, runTime, retry);
-		LOGGER.trace("transaction done: " + transStat.toString());
-		return transStat;
+		final int all_local = o_all_local;
+		TransactionStatistics stats = retryExecutor.execute(TransactionType.NewOrder, terminalConnection, intendedStartNanos,
+				statements -> TpccTransaction.newOrder(statements, dbms, w_id, d_id, c_id, ol_cnt, all_local, itemid, supware, qty));
+		stats.setInputs(rbk == 1, ol_cnt, remote, false);
+		return stats;
 	}
 	
 	/**
 	 * 2.5 The Payment Transaction -> 2.5.1 Input Data Generation
 	 */
 	public TransactionStatistics doPayment() throws Exception {
+		return doPayment(System.nanoTime());
+	}
+	
+	/**
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doPayment(long intendedStartNanos) throws Exception {
 		int w_id = RandomHelper.randomInt(1, wareCount);
 		int d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
+		try (TerminalConnection terminalConnection = new TerminalConnection(dataSource, false, statementCache)) {
+			return doPayment(terminalConnection, w_id, d_id, intendedStartNanos);
+		}
+	}
+	
+	/**
+	 * @param terminalConnection 测试线程获取数据库连接的方式(sticky或者非sticky).
+	 * @param w_id home warehouse id
+	 * @param d_id district id
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doPayment(TerminalConnection terminalConnection, int w_id, int d_id, long intendedStartNanos)
+			throws Exception {
 		int c_id = RandomHelper.nuRand(1023, 1, CUST_PER_DIST);
 		String c_last = RandomHelper.lastName(RandomHelper.nuRand(255, 0, 999));
 		int h_amount = RandomHelper.randomInt(1, 5000);
@@ -338,28 +723,10 @@ public class TpccDriver implements TpccConstants {
 			c_d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
 		}
 		
-		boolean success = false;
-		long runTime = 0L;
-		int retry = 0;
-		long startTime = System.currentTimeMillis();
-		for (; retry < MAX_RETRY; retry++) {
-			try (Connection connection = dataSource.getConnection()) {
-				success = TpccTransaction.payment(connection, dbms, w_id, d_id, byname, c_w_id, c_d_id, c_id, c_last, h_amount);
-				if (success) {
-					break;
-				}
-			} catch (NoDataFoundException e) {
-				LOGGER.trace("Payment transaction failed with 'NO_DATA_FOUND'", e);
-				break;
-			} catch (Exception e) {
-				LOGGER.trace("Payment transaction failed. Retries (" + retry + ")", e);
-			}
-		}
-		long endTime = System.currentTimeMillis();
-		runTime = endTime - startTime;
-		TransactionStatistics transStat = new TransactionStatistics(TransactionType.Payment, success, runTime, retry);
-		LOGGER.trace("transaction done: " + transStat.toString());
-		return transStat;
+		TransactionStatistics stats = retryExecutor.execute(TransactionType.Payment, terminalConnection, intendedStartNanos,
+				statements -> TpccTransaction.payment(statements, dbms, w_id, d_id, byname, c_w_id, c_d_id, c_id, c_last, h_amount));
+		stats.setInputs(false, 0, (c_w_id != w_id) ? 1 : 0, byname);
+		return stats;
 	}
 
 	
@@ -367,8 +734,28 @@ public class TpccDriver implements TpccConstants {
 	 * 2.6 The Order-Status Transaction -> 2.6.1 Input Data Generation
 	 */
 	public TransactionStatistics doOrdstat() throws Exception {
+		return doOrdstat(System.nanoTime());
+	}
+	
+	/**
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doOrdstat(long intendedStartNanos) throws Exception {
 		int w_id = RandomHelper.randomInt(1, wareCount);
 		int d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
+		try (TerminalConnection terminalConnection = new TerminalConnection(dataSource, false, statementCache)) {
+			return doOrdstat(terminalConnection, w_id, d_id, intendedStartNanos);
+		}
+	}
+	
+	/**
+	 * @param terminalConnection 测试线程获取数据库连接的方式(sticky或者非sticky).
+	 * @param w_id home warehouse id
+	 * @param d_id district id
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doOrdstat(TerminalConnection terminalConnection, int w_id, int d_id, long intendedStartNanos)
+			throws Exception {
 		int c_id = RandomHelper.nuRand(1023, 1, CUST_PER_DIST);
 		String c_last = RandomHelper.lastName(RandomHelper.nuRand(255, 0, 999));
 		boolean byname;
@@ -377,28 +764,10 @@ public class TpccDriver implements TpccConstants {
 		} else {
 			byname = false; /* select by customer id */
 		}
-		boolean success = false;
-		long runTime = 0L;
-		int retry = 0;
-		long startTime = System.currentTimeMillis();
-		for (; retry < MAX_RETRY; retry++) {
-			try (Connection connection = dataSource.getConnection()) {
-				success = TpccTransaction.ordstat(connection, dbms, w_id, d_id, byname, c_id, c_last);
-				if (success) {
-					break;
-				}
-			} catch (NoDataFoundException e) {
-				LOGGER.trace("Order-Status transaction failed with 'NO_DATA_FOUND'", e);
-				break;
-			} catch (Exception e) {
-				LOGGER.trace("Order-Status transaction failed. Retries (" + retry + ")", e);
-			}
-		}
-		long endTime = System.currentTimeMillis();
-		runTime = endTime - startTime;
-		TransactionStatistics transStat = new TransactionStatistics(TransactionType.OrderStatus, success, runTime, retry);
-		LOGGER.trace("transaction done: " + transStat.toString());
-		return transStat;
+		TransactionStatistics stats = retryExecutor.execute(TransactionType.OrderStatus, terminalConnection, intendedStartNanos,
+				statements -> TpccTransaction.ordstat(statements, dbms, w_id, d_id, byname, c_id, c_last));
+		stats.setInputs(false, 0, 0, byname);
+		return stats;
 	}
 
 
@@ -406,61 +775,59 @@ public class TpccDriver implements TpccConstants {
 	 * 2.7 The Delivery Transaction -> 2.7.1 Input Data Generation
 	 */
 	public TransactionStatistics doDelivery() throws Exception {
+		return doDelivery(System.nanoTime());
+	}
+	
+	/**
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doDelivery(long intendedStartNanos) throws Exception {
 		int w_id = RandomHelper.randomInt(1, wareCount);
-		int o_carrier_id = RandomHelper.randomInt(1, 10);
-		boolean success = false;
-		long runTime = 0L;
-		int retry = 0;
-		long startTime = System.currentTimeMillis();
-		for (; retry < MAX_RETRY; retry++) {
-			try (Connection connection = dataSource.getConnection()) {
-				success = TpccTransaction.delivery(connection, dbms, w_id, o_carrier_id);
-				if (success) {
-					break;
-				}
-			} catch (NoDataFoundException e) {
-				LOGGER.trace("Delivery transaction failed with 'NO_DATA_FOUND'", e);
-				break;
-			} catch (Exception e) {
-				LOGGER.trace("Delivery transaction failed. Retries (" + retry + ")", e);
-			}
+		try (TerminalConnection terminalConnection = new TerminalConnection(dataSource, false, statementCache)) {
+			return doDelivery(terminalConnection, w_id, intendedStartNanos);
 		}
-		long endTime = System.currentTimeMillis();
-		runTime = endTime - startTime;
-		TransactionStatistics transStat = new TransactionStatistics(TransactionType.Delivery, success, runTime, retry);
-		LOGGER.trace("transaction done: " + transStat.toString());
-		return transStat;
+	}
+	
+	/**
+	 * @param terminalConnection 测试线程获取数据库连接的方式(sticky或者非sticky).
+	 * @param w_id home warehouse id
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doDelivery(TerminalConnection terminalConnection, int w_id, long intendedStartNanos)
+			throws Exception {
+		int o_carrier_id = RandomHelper.randomInt(1, 10);
+		return retryExecutor.execute(TransactionType.Delivery, terminalConnection, intendedStartNanos,
+				statements -> TpccTransaction.delivery(statements, dbms, w_id, o_carrier_id));
 	}
 	
 	/**
 	 * 2.8 The Stock-Level Transaction -> 2.8.1 Input Data Generation   
 	 */
 	public TransactionStatistics doSlev(int num_ware) throws Exception {
-		int w_id, d_id, level;
-		w_id = RandomHelper.randomInt(1, num_ware);
-		d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
-		level = RandomHelper.randomInt(10, 20);
-		boolean success = false;
-		long runTime = 0L;
-		int retry = 0;
-		long startTime = System.currentTimeMillis();
-		for (; retry < MAX_RETRY; retry++) {
-			try (Connection connection = dataSource.getConnection()) {
-				success = TpccTransaction.slev(connection, dbms, w_id, d_id, level);
-				if (success) {
-					break;
-				}
-			} catch (NoDataFoundException e) {
-				LOGGER.trace("Stock-Level transaction failed with 'NO_DATA_FOUND'", e);
-				break;
-			} catch (Exception e) {
-				LOGGER.trace("Stock-Level transaction failed. Retries (" + retry + ")", e);
-			}
+		return doSlev(num_ware, System.nanoTime());
+	}
+	
+	/**
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doSlev(int num_ware, long intendedStartNanos) throws Exception {
+		int w_id = RandomHelper.randomInt(1, num_ware);
+		int d_id = RandomHelper.randomInt(1, DIST_PER_WARE);
+		try (TerminalConnection terminalConnection = new TerminalConnection(dataSource, false, statementCache)) {
+			return doSlev(terminalConnection, w_id, d_id, intendedStartNanos);
 		}
-		long endTime = System.currentTimeMillis();
-		runTime = endTime - startTime;
-		TransactionStatistics transStat = new TransactionStatistics(TransactionType.StockLevel, success, runTime, retry);
-		LOGGER.trace("transaction done: " + transStat.toString());
-		return transStat;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * @param terminalConnection 测试线程获取数据库连接的方式(sticky或者非sticky).
+	 * @param w_id home warehouse id
+	 * @param d_id district id, 每个终端固定.
+	 * @param intendedStartNanos 事务计划开始时间(System.nanoTime()), 响应时间从这个时间开始计算.
+	 */
+	public TransactionStatistics doSlev(TerminalConnection terminalConnection, int w_id, int d_id, long intendedStartNanos)
+			throws Exception {
+		int level = RandomHelper.randomInt(10, 20);
+		return retryExecutor.execute(TransactionType.StockLevel, terminalConnection, intendedStartNanos,
+				statements -> TpccTransaction.slev(statements, dbms, w_id, d_id, level));
+	}
+}
\ No newline at end of file
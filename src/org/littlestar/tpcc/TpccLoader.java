@@ -29,6 +29,7 @@ public class TpccLoader implements TpccConstants {
 	private final Dbms dbms;
 	private final int threads;
 	private final int wareCount;
+	private LoaderProgress progress;
 	
 	public TpccLoader(TpccDataSource ds, Dbms dbms, int wareCount, int threads) {
 		dataSource = ds;
@@ -79,6 +80,8 @@ public class TpccLoader implements TpccConstants {
 	public void doLoad() {
 		LOGGER.info(">>>> TPC-C Data Loading...");
 		LocalDateTime loadBeginTime = LocalDateTime.now();  
+		progress = new LoaderProgress(wareCount);
+		progress.register();
 		int queueSize = 1 + 1 + wareCount + wareCount + wareCount * 10 + wareCount * 10;
 		ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat("tpcc-loader-pool-%d").build();
 		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
@@ -148,6 +151,8 @@ public class TpccLoader implements TpccConstants {
 		long loadRunTime = duration.getSeconds();
 		Double rps = (loadRunTime > 0) ? (rows/ loadRunTime) : 0l;
 		LOGGER.info(">>>> TPC-C Data Load completed, elapsed " + loadRunTime + " secs. ( " + rps.longValue()+ " rows/sec ).");
+		progress.completed();
+		progress.unregister();
 		
 	}
 
@@ -363,6 +368,7 @@ public class TpccLoader implements TpccConstants {
 			long rows = 0L;
 			LocalDateTime beginTime = LocalDateTime.now();
 			LOGGER.info("Loading Warehouse data...");
+			progress.taskStarted(0);
 			try (Connection connection = dataSource.getConnection()){
 				rows = TpccLoad.loadWarehouse(connection, dbms, wareCount);
 			} catch (Exception e) {
@@ -374,6 +380,7 @@ public class TpccLoader implements TpccConstants {
 			long runTime = duration.toMillis();
 			long rps = (runTime > 0) ? (rows * 1000l) / runTime : 0l;
 			LOGGER.info("Warehouse done, " + rows + " rows, elapsed " + runTime + " ms. (" + rps + " rows/sec)");
+			progress.taskCompleted(LoaderProgress.WAREHOUSE, 0, rows);
 			return rows;
 		}
 	}
@@ -384,6 +391,7 @@ public class TpccLoader implements TpccConstants {
 			long rows = 0l;
 			LocalDateTime beginTime = LocalDateTime.now();
 			LOGGER.info("Loading Item data... ");
+			progress.taskStarted(0);
 			try(Connection connection = dataSource.getConnection()) {
 				rows = TpccLoad.loadItem(connection, dbms);
 			} catch (Exception e) {
@@ -395,6 +403,7 @@ public class TpccLoader implements TpccConstants {
 			long runTime = duration.toMillis();
 			long rps = (runTime > 0) ? (rows * 1000l) / runTime : 0l;
 			LOGGER.info("Item done, " + rows + " rows, elapsed " + runTime + " ms. (" + rps + " rows/sec)");
+			progress.taskCompleted(LoaderProgress.ITEM, 0, rows);
 			return rows;
 		}
 	};
@@ -411,6 +420,7 @@ public class TpccLoader implements TpccConstants {
 			long rows = 0L;
 			LocalDateTime beginTime = LocalDateTime.now();
 			LOGGER.info("Loading Stock (w_id=" + w_id + " of " + wareCount + ") ...");
+			progress.taskStarted(w_id);
 			try(Connection connection = dataSource.getConnection()) {
 				rows = TpccLoad.loadStock(connection, dbms, w_id);
 			} catch (Exception e) {
@@ -422,6 +432,7 @@ public class TpccLoader implements TpccConstants {
 			long runTime = duration.toMillis();
 			long rps = (runTime > 0) ? (rows * 1000L) / runTime : 0L;
 			LOGGER.info("Stock (" + w_id + " of " + wareCount + ") done, " + rows + " rows, elapsed " + runTime + " ms. (" + rps + " rows/sec)");
+			progress.taskCompleted(LoaderProgress.STOCK, w_id, rows);
 			return rows;
 		}
 	}
@@ -438,6 +449,7 @@ public class TpccLoader implements TpccConstants {
 			long rows = 0l;
 			LocalDateTime beginTime = LocalDateTime.now();
 			LOGGER.info("Loading District Wid=" + w_id + " ... ");
+			progress.taskStarted(w_id);
 			try(Connection connection = dataSource.getConnection()) {
 				rows = TpccLoad.loadDistrict(connection, dbms, w_id);
 			} catch (Exception e) {
@@ -449,6 +461,7 @@ public class TpccLoader implements TpccConstants {
 			long runTime = duration.toMillis();
 			long rps = (runTime > 0) ? (rows * 1000l) / runTime : 0l;
 			LOGGER.info("District Wid=" + w_id + " done, " + rows + " rows, elapsed " + runTime + " ms. (" + rps + " rows/sec)");
+			progress.taskCompleted(LoaderProgress.DISTRICT, w_id, rows);
 			return rows;
 		}
 	}
@@ -467,6 +480,7 @@ public class TpccLoader implements TpccConstants {
 			long rows = 0L;
 			LocalDateTime beginTime = LocalDateTime.now();
 			LOGGER.info("Loading Customer, History for Did=" + d_id + ", Wid=" + w_id + " ... ");
+			progress.taskStarted(w_id);
 			try (Connection connection = dataSource.getConnection()) {
 				rows = TpccLoad.loadCustomer(connection, dbms, d_id, w_id);
 			} catch (Exception e) {
@@ -479,6 +493,7 @@ public class TpccLoader implements TpccConstants {
 			long rps = (runTime > 0) ? (rows * 1000l) / runTime : 0l;
 			LOGGER.info("Customer, History for Did=" + d_id + ", Wid=" + w_id + " done, " + rows + " rows, elapsed "
 					+ runTime + " ms. (" + rps + " rows/sec)");
+			progress.taskCompleted(LoaderProgress.CUSTOMER, w_id, rows);
 			return rows;
 		}
 	}
@@ -498,6 +513,7 @@ public class TpccLoader implements TpccConstants {
 			long rows = 0l;
 			LocalDateTime beginTime = LocalDateTime.now();
 			LOGGER.info("Loading Orders, New-Order, Order-Line for Did=" + d_id + ", Wid=" + w_id + " ... ");
+			progress.taskStarted(w_id);
 			try (Connection connection = dataSource.getConnection()) {
 				rows = TpccLoad.loadOrders(connection, dbms, d_id, w_id);
 			} catch (Exception e) {
@@ -510,6 +526,7 @@ public class TpccLoader implements TpccConstants {
 			long rps = (runTime > 0) ? (rows * 1000l) / runTime : 0l;
 			LOGGER.info("Orders, New-Order, Order-Line for Did=" + d_id + ", Wid=" + w_id + " done, " + rows
 					+ " rows, elapsed " + runTime + " ms. (" + rps + " rows/sec)");
+			progress.taskCompleted(LoaderProgress.ORDERS, w_id, rows);
 			return rows;
 		}
 	}
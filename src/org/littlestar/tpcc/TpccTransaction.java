@@ -3,6 +3,7 @@ package org.littlestar.tpcc;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Date;
 import java.util.Objects;
@@ -35,18 +36,19 @@ public final class TpccTransaction implements TpccConstants {
 	 */
 	
 	@SuppressWarnings("unused")
-	public static boolean newOrder(Connection connection, Dbms dbms, int w_id, int d_id, int c_id, int o_ol_cnt,
+	public static boolean newOrder(StatementCache statements, Dbms dbms, int w_id, int d_id, int c_id, int o_ol_cnt,
 			int o_all_local, int[] itemid, int[] supware, int[] qty) throws Exception {
+		Connection connection = statements.getConnection();
 		try {
 			// Start transaction.
-			connection.setAutoCommit(false); 
+			beginTransaction(connection);
 			///// proceed = 1;
 			double c_discount ;
 			String c_last;
 			String c_credit;
 			double w_tax;
 			String sqlText1 = TpccStatements.newOrderStmt1(dbms);
-			PreparedStatement stmt1 = connection.prepareStatement(sqlText1);
+			PreparedStatement stmt1 = statements.prepare("newOrderStmt1", sqlText1);
 			stmt1.setInt(1, w_id);
 			stmt1.setInt(2, d_id);
 			stmt1.setInt(3, c_id);
@@ -58,18 +60,18 @@ public final class TpccTransaction implements TpccConstants {
 				w_tax = rs1.getDouble("w_tax");
 			} else {
 				rs1.close();
-				stmt1.close();
+				statements.release(stmt1);
 				throw new NoDataFoundException(
 						"NEW-ORDER-1: " + sqlText1 + "; " + w_id + ", " + d_id + ", " + c_id);
 			}
 			rs1.close();
-			stmt1.close();
+			statements.release(stmt1);
 			
 			///// proceed = 2;
 			int d_next_o_id = 0;
 			double d_tax;
 			String sqlText2 = TpccStatements.newOrderStmt2(dbms);
-			PreparedStatement stmt2 = connection.prepareStatement(sqlText2);
+			PreparedStatement stmt2 = statements.prepare("newOrderStmt2", sqlText2);
 			stmt2.setInt(1, d_id);
 			stmt2.setInt(2, w_id);
 			ResultSet rs2 = stmt2.executeQuery();
@@ -78,15 +80,15 @@ public final class TpccTransaction implements TpccConstants {
 				d_tax = rs2.getDouble("d_tax");
 			} else {
 				rs2.close();
-				stmt2.close();
+				statements.release(stmt2);
 				throw new NoDataFoundException("NEW-ORDER-2: "+ sqlText2 +"; "+ d_id+ ", "+ w_id);
 			}
 			rs2.close();
-			stmt2.close();
+			statements.release(stmt2);
 			
 			///// proceed = 3;
 			String sqlText3 = TpccStatements.newOrderStmt3(dbms);
-			PreparedStatement stmt3 = connection.prepareStatement(sqlText3);
+			PreparedStatement stmt3 = statements.prepare("newOrderStmt3", sqlText3);
 			stmt3.setInt(1, d_next_o_id);
 			stmt3.setInt(2, d_id);
 			stmt3.setInt(3, w_id);
@@ -94,13 +96,13 @@ public final class TpccTransaction implements TpccConstants {
 			if (updates != 1) {
 				throw new NoDataFoundException("NEW-ORDER-3: " + sqlText3 + "; " + d_next_o_id + ", " + d_id + ", " + w_id);
 			}
-			stmt3.close();
+			statements.release(stmt3);
 			
 			///// proceed = 4;
 			int o_id = d_next_o_id;
 			Timestamp o_entry_d = getNow();
 			String sqlText4 = TpccStatements.newOrderStmt4(dbms);
-			PreparedStatement stmt4 = connection.prepareStatement(sqlText4);
+			PreparedStatement stmt4 = statements.prepare("newOrderStmt4", sqlText4);
 			stmt4.setInt(1, o_id);
 			stmt4.setInt(2, d_id);
 			stmt4.setInt(3, w_id);
@@ -109,16 +111,16 @@ public final class TpccTransaction implements TpccConstants {
 			stmt4.setInt(6, o_ol_cnt);
 			stmt4.setInt(7, o_all_local);
 			updates = stmt4.executeUpdate();
-			stmt4.close();
+			statements.release(stmt4);
 			
 			///// proceed = 5;
 			String sqlText5 = TpccStatements.newOrderStmt5(dbms);
-			PreparedStatement stmt5 = connection.prepareStatement(sqlText5);
+			PreparedStatement stmt5 = statements.prepare("newOrderStmt5", sqlText5);
 			stmt5.setInt(1, o_id);
 			stmt5.setInt(2, d_id);
 			stmt5.setInt(3, w_id);
 			stmt5.executeUpdate();
-			stmt5.close();
+			statements.release(stmt5);
 			
 			for (int ol_number = 1; ol_number <= o_ol_cnt; ol_number++) {
 				int ol_supply_w_id = supware[ol_number - 1];
@@ -130,7 +132,7 @@ public final class TpccTransaction implements TpccConstants {
 				String i_name;
 				String i_data;
 				String sqlText6 = TpccStatements.newOrderStmt6(dbms);
-				PreparedStatement stmt6 = connection.prepareStatement(sqlText6);
+				PreparedStatement stmt6 = statements.prepare("newOrderStmt6", sqlText6);
 				stmt6.setInt(1, ol_i_id);
 				ResultSet rs6 = stmt6.executeQuery();
 				if (rs6.next()) {
@@ -139,12 +141,12 @@ public final class TpccTransaction implements TpccConstants {
 					i_data = rs6.getString("i_data");
 				} else {
 					rs6.close();
-					stmt6.close();
-					connection.rollback();
+					statements.release(stmt6);
+					statements.rollback("newOrder");
 					return true; // return(0); 随机1%的Rollback.
 				}
 				rs6.close();
-				stmt6.close();
+				statements.release(stmt6);
 				
 				//// proceed = 7;
 				int s_quantity;
@@ -161,7 +163,7 @@ public final class TpccTransaction implements TpccConstants {
 				String s_dist_10;
 
 				String sqlText7 = TpccStatements.newOrderStmt7(dbms);
-				PreparedStatement stmt7 = connection.prepareStatement(sqlText7);
+				PreparedStatement stmt7 = statements.prepare("newOrderStmt7", sqlText7);
 				stmt7.setInt(1, ol_i_id);
 				stmt7.setInt(2, ol_supply_w_id);
 				ResultSet rs7 = stmt7.executeQuery();
@@ -180,11 +182,11 @@ public final class TpccTransaction implements TpccConstants {
 					s_dist_10 = rs7.getString("s_dist_10");
 				} else {
 					rs7.close();
-					stmt7.close();
+					statements.release(stmt7);
 					throw new NoDataFoundException("NEW-ORDER-7: "+ sqlText7 + "; " + ol_i_id + ", " + ol_supply_w_id);
 				}
 				rs7.close();
-				stmt7.close();
+				statements.release(stmt7);
 
 				//// proceed = 8;
 				if (s_quantity > ol_quantity) {
@@ -194,12 +196,12 @@ public final class TpccTransaction implements TpccConstants {
 				}
 
 				String sqlText8 = TpccStatements.newOrderStmt8(dbms);
-				PreparedStatement stmt8 = connection.prepareStatement(sqlText8);
+				PreparedStatement stmt8 = statements.prepare("newOrderStmt8", sqlText8);
 				stmt8.setInt(1, s_quantity);
 				stmt8.setInt(2, ol_i_id);
 				stmt8.setInt(3, ol_supply_w_id);
 				updates = stmt8.executeUpdate();
-				stmt8.close();
+				statements.release(stmt8);
 				
 				//// proceed = 9;
 				double ol_amount = ol_quantity * i_price * (1 + w_tax + d_tax) * (1 - c_discount);
@@ -221,7 +223,7 @@ public final class TpccTransaction implements TpccConstants {
 				}
 				
 				String sqlText9 = TpccStatements.newOrderStmt9(dbms);
-				PreparedStatement stmt9 = connection.prepareStatement(sqlText9);
+				PreparedStatement stmt9 = statements.prepare("newOrderStmt9", sqlText9);
 				stmt9.setInt(1, o_id);
 				stmt9.setInt(2, d_id);
 				stmt9.setInt(3, w_id);
@@ -232,9 +234,9 @@ public final class TpccTransaction implements TpccConstants {
 				stmt9.setDouble(8, ol_amount);
 				stmt9.setString(9, ol_dist_info);
 				stmt9.executeUpdate();
-				stmt9.close();
+				statements.release(stmt9);
 			}
-			connection.commit();  // end transaction.
+			statements.commit("newOrder");  // end transaction.
 		} catch (Exception e) {
 			try {
 				connection.rollback();
@@ -242,13 +244,6 @@ public final class TpccTransaction implements TpccConstants {
 				LOGGER.warn("Connection rollback failed.", e);
 			}
 			throw e;
-		} finally {
-			try {
-				connection.commit(); 
-				connection.setAutoCommit(true);
-			} catch (Exception e) {
-				LOGGER.warn("Connection set auto-commit falied.", e);
-			}
 		}
 		return true;
 	}
@@ -270,22 +265,23 @@ public final class TpccTransaction implements TpccConstants {
 	 * @throws Exception
 	 */
 	@SuppressWarnings("unused")
-	public static boolean payment(Connection connection, Dbms dbms, int w_id, int d_id, boolean byname, int c_w_id,
+	public static boolean payment(StatementCache statements, Dbms dbms, int w_id, int d_id, boolean byname, int c_w_id,
 			int c_d_id, int c_id, String c_last, int h_amount) throws Exception {
+		Connection connection = statements.getConnection();
 		try {
 			// Start transaction.
-			connection.setAutoCommit(false);
+			beginTransaction(connection);
 			// proceed = 1;
 			String sqlText1 = TpccStatements.paymentStmt1(dbms);
-			PreparedStatement stmt1 = connection.prepareStatement(sqlText1);
+			PreparedStatement stmt1 = statements.prepare("paymentStmt1", sqlText1);
 			stmt1.setInt(1, h_amount);
 			stmt1.setInt(2, w_id);
 			int updates = stmt1.executeUpdate();
-			stmt1.close();
+			statements.release(stmt1);
 
 			// proceed = 2;
 			String sqlText2 = TpccStatements.paymentStmt2(dbms);
-			PreparedStatement stmt2 = connection.prepareStatement(sqlText2);
+			PreparedStatement stmt2 = statements.prepare("paymentStmt2", sqlText2);
 			stmt2.setInt(1, w_id);
 			ResultSet rs2 = stmt2.executeQuery();
 			String w_street_1, w_street_2, w_city, w_state, w_zip, w_name;
@@ -298,24 +294,24 @@ public final class TpccTransaction implements TpccConstants {
 				w_name = rs2.getString("w_name");
 			} else {
 				rs2.close();
-				stmt2.close();
+				statements.release(stmt2);
 				throw new NoDataFoundException("PAYMENT-2: " + sqlText2 + "; " + w_id);
 			}
 			rs2.close();
-			stmt2.close();
+			statements.release(stmt2);
 
 			//proceed = 3;
 			String sqlText3 = TpccStatements.paymentStmt3(dbms);
-			PreparedStatement stmt3 = connection.prepareStatement(sqlText3);
+			PreparedStatement stmt3 = statements.prepare("paymentStmt3", sqlText3);
 			stmt3.setInt(1, h_amount);
 			stmt3.setInt(2, w_id);
 			stmt3.setInt(3, d_id);
 			updates = stmt3.executeUpdate();
-			stmt3.close();
+			statements.release(stmt3);
 			
 			// proceed = 4;
 			String sqlText4 = TpccStatements.paymentStmt4(dbms);
-			PreparedStatement stmt4 = connection.prepareStatement(sqlText4);
+			PreparedStatement stmt4 = statements.prepare("paymentStmt4", sqlText4);
 			stmt4.setInt(1, w_id);
 			stmt4.setInt(2, d_id);
 			ResultSet rs4 = stmt4.executeQuery();
@@ -329,11 +325,11 @@ public final class TpccTransaction implements TpccConstants {
 				d_name = rs4.getString("d_name");
 			} else {
 				rs4.close();
-				stmt4.close();
+				statements.release(stmt4);
 				throw new NoDataFoundException("PAYMENT-4: "+ sqlText4 + "; " + w_id + ", " + d_id);
 			}
 			rs4.close();
-			stmt4.close();
+			statements.release(stmt4);
 			
 			int c_id_6, c_credit_lim;
 			double c_discount, c_balance = 0.0;
@@ -343,7 +339,7 @@ public final class TpccTransaction implements TpccConstants {
 				// proceed = 5;
 				int namecnt = 0;
 				String sqlText5 = TpccStatements.paymentStmt5(dbms);
-				PreparedStatement stmt5 = connection.prepareStatement(sqlText5);
+				PreparedStatement stmt5 = statements.prepare("paymentStmt5", sqlText5);
 				stmt5.setString(1, c_last);
 				stmt5.setInt(2, c_d_id);
 				stmt5.setInt(3, c_w_id);
@@ -352,11 +348,11 @@ public final class TpccTransaction implements TpccConstants {
 					namecnt = rs5.getInt(1);
 				} else {
 					rs5.close();
-					stmt5.close();
+					statements.release(stmt5);
 					throw new NoDataFoundException("PAYMENT-5: " + sqlText5 + "; " + c_last + "," + c_d_id + ", " + c_w_id);
 				}
 				rs5.close();
-				stmt5.close();
+				statements.release(stmt5);
 				
 				// proceed = 6;
 				if (namecnt % 2 == 1)
@@ -364,7 +360,7 @@ public final class TpccTransaction implements TpccConstants {
 				int fetchcnt = namecnt / 2 - 1;
 				int n = 1;
 				String sqlText6 = TpccStatements.paymentStmt6(dbms);
-				PreparedStatement stmt6 = connection.prepareStatement(sqlText6);
+				PreparedStatement stmt6 = statements.prepare("paymentStmt6", sqlText6);
 				stmt6.setInt(1, c_w_id);
 				stmt6.setInt(2, c_d_id);
 				stmt6.setString(3, c_last);
@@ -389,11 +385,11 @@ public final class TpccTransaction implements TpccConstants {
 					n++;
 				}
 				rs6.close();
-				stmt6.close();
+				statements.release(stmt6);
 			} else {
 				// proceed = 7;
 				String sqlText7 = TpccStatements.paymentStmt7(dbms);
-				PreparedStatement stmt7 = connection.prepareStatement(sqlText7);
+				PreparedStatement stmt7 = statements.prepare("paymentStmt7", sqlText7);
 				stmt7.setInt(1, c_w_id);
 				stmt7.setInt(2, c_d_id);
 				stmt7.setInt(3, c_id);
@@ -414,7 +410,7 @@ public final class TpccTransaction implements TpccConstants {
 					c_since = rs7.getTimestamp("c_since");
 				}
 				rs7.close();
-				stmt7.close();
+				statements.release(stmt7);
 			}
 			
 			c_balance += h_amount;
@@ -422,7 +418,7 @@ public final class TpccTransaction implements TpccConstants {
 				if (c_credit.contains("BC")) {
 					// proceed = 8;
 					String sqlText8 = TpccStatements.paymentStmt8(dbms);
-					PreparedStatement stmt8 = connection.prepareStatement(sqlText8);
+					PreparedStatement stmt8 = statements.prepare("paymentStmt8", sqlText8);
 					stmt8.setInt(1, c_w_id);
 					stmt8.setInt(2, c_d_id);
 					stmt8.setInt(3, c_id);
@@ -432,42 +428,42 @@ public final class TpccTransaction implements TpccConstants {
 						c_data = rs8.getString("c_data");
 					} else {
 						rs8.close();
-						stmt8.close();
+						statements.release(stmt8);
 						throw new NoDataFoundException("PAYMENT-8: " + sqlText8 + "; " + c_w_id + ", " + c_d_id + ", " + c_id);
 					}
 					rs8.close();
-					stmt8.close();
+					statements.release(stmt8);
 					
 					String c_new_data = String.format("| %d %d %d %d %d $%d %s %s", c_id, c_d_id, c_w_id, d_id, w_id, h_amount, new Date().toString(), c_data);
 					c_new_data = substring(c_new_data, 500);
 					
 					//proceed = 9;
 					String sqlText9 = TpccStatements.paymentStmt9(dbms);
-					PreparedStatement stmt9 = connection.prepareStatement(sqlText9);
+					PreparedStatement stmt9 = statements.prepare("paymentStmt9", sqlText9);
 					stmt9.setDouble(1, c_balance);
 					stmt9.setString(2, c_new_data);
 					stmt9.setInt(3, c_w_id);
 					stmt9.setInt(4, c_d_id);
 					stmt9.setInt(5, c_id);
 					updates = stmt9.executeUpdate();
-					stmt9.close();
+					statements.release(stmt9);
 				} else {
 					// proceed = 10;
 					String sqlText10 = TpccStatements.paymentStmt10(dbms);
-					PreparedStatement stmt10 = connection.prepareStatement(sqlText10);
+					PreparedStatement stmt10 = statements.prepare("paymentStmt10", sqlText10);
 					stmt10.setDouble(1, c_balance);
 					stmt10.setInt(2, c_w_id);
 					stmt10.setInt(3, c_d_id);
 					stmt10.setInt(4, c_id);
 					updates = stmt10.executeUpdate();
-					stmt10.close();
+					statements.release(stmt10);
 				}
 				
 				String h_data = substring(w_name, 10);
 				h_data = h_data + substring(d_name, 10) + ' ' + ' ' + ' ' + ' ';
 				Timestamp h_date = getNow();
 				String sqlText11 = TpccStatements.paymentStmt11(dbms);
-				PreparedStatement stmt11 = connection.prepareStatement(sqlText11);
+				PreparedStatement stmt11 = statements.prepare("paymentStmt11", sqlText11);
 				stmt11.setInt(1, c_d_id);
 				stmt11.setInt(2, c_w_id);
 				stmt11.setInt(3, c_id);
@@ -477,9 +473,9 @@ public final class TpccTransaction implements TpccConstants {
 				stmt11.setDouble(7, h_amount);
 				stmt11.setString(8, h_data);
 				updates = stmt11.executeUpdate();
-				stmt11.close();
+				statements.release(stmt11);
 			}
-			
+			statements.commit("payment"); // end transaction.
 		} catch (Exception e) {
 			try {
 				connection.rollback();
@@ -487,13 +483,6 @@ public final class TpccTransaction implements TpccConstants {
 				LOGGER.warn("Transaction rollback failed.", e);
 			}
 			throw e;
-		} finally {
-			try {
-				connection.commit(); 
-				connection.setAutoCommit(true);
-			} catch (Exception e) {
-				LOGGER.warn("Connection set auto-commit falied.", e);
-			}
 		}
 		return true;
 	}
@@ -510,18 +499,19 @@ public final class TpccTransaction implements TpccConstants {
 	 * @throws Throwable 
 	 */
 	@SuppressWarnings("unused")
-	public static boolean ordstat(Connection connection, Dbms dbms, int w_id, int d_id, boolean byname, int c_id,
+	public static boolean ordstat(StatementCache statements, Dbms dbms, int w_id, int d_id, boolean byname, int c_id,
 			String c_last) throws Exception {
+		Connection connection = statements.getConnection();
 		final int c_d_id = d_id;
 		final int c_w_id = w_id;
 		
 		try {
 			// Start transaction.
-			connection.setAutoCommit(false);
+			beginTransaction(connection);
 			if (byname) {
 				// proceed = 1
 				String sqlText1 = TpccStatements.orderStatusStmt1(dbms);
-				PreparedStatement stmt1 = connection.prepareStatement(sqlText1);
+				PreparedStatement stmt1 = statements.prepare("orderStatusStmt1", sqlText1);
 				stmt1.setString(1, c_last);
 				stmt1.setInt(2, d_id);
 				stmt1.setInt(3, w_id);
@@ -531,11 +521,11 @@ public final class TpccTransaction implements TpccConstants {
 					namecnt = rs1.getInt(1);
 				} else {
 					rs1.close();
-					stmt1.close();
+					statements.release(stmt1);
 					throw new NoDataFoundException("ORDER-STATUS-1: " + sqlText1 + "; " + c_last + ", " + d_id + "," + w_id);
 				}
 				rs1.close();
-				stmt1.close();
+				statements.release(stmt1);
 				
 				// proceed = 2
 				if (namecnt % 2 == 1)
@@ -543,7 +533,7 @@ public final class TpccTransaction implements TpccConstants {
 				int fetchcnt = namecnt / 2 - 1;
 				int n = 1;
 				String sqlText2 = TpccStatements.orderStatusStmt2(dbms);
-				PreparedStatement stmt2 = connection.prepareStatement(sqlText2);
+				PreparedStatement stmt2 = statements.prepare("orderStatusStmt2", sqlText2);
 				stmt2.setString(1, c_last);
 				stmt2.setInt(2, d_id);
 				stmt2.setInt(3, w_id);
@@ -561,11 +551,11 @@ public final class TpccTransaction implements TpccConstants {
 					n++;
 				}
 				rs2.close();
-				stmt2.close();
+				statements.release(stmt2);
 			} else {
 				// proceed = 3
 				String sqlText3 = TpccStatements.orderStatusStmt3(dbms);
-				PreparedStatement stmt3 = connection.prepareStatement(sqlText3);
+				PreparedStatement stmt3 = statements.prepare("orderStatusStmt3", sqlText3);
 				stmt3.setInt(1, c_id);
 				stmt3.setInt(2, d_id);
 				stmt3.setInt(3, w_id);
@@ -577,11 +567,11 @@ public final class TpccTransaction implements TpccConstants {
 					String c_last_3 =rs3.getString("c_last") ;
 				} else {
 					rs3.close();
-					stmt3.close();
+					statements.release(stmt3);
 					throw new NoDataFoundException("ORDER-STATUS-3: " + sqlText3 + "; " + c_last + ", " + d_id + "," + w_id);
 				}
 				rs3.close();
-				stmt3.close();
+				statements.release(stmt3);
 			}
 			
 			/* proceed = 4 -> Find the most recent order for this customer.
@@ -591,7 +581,7 @@ public final class TpccTransaction implements TpccConstants {
 			 * O_ID, O_ENTRY_D, and O_CARRIER_ID are retrieved.
 			 */
 			String sqlText4 = TpccStatements.orderStatusStmt4(dbms);
-			PreparedStatement stmt4 = connection.prepareStatement(sqlText4);
+			PreparedStatement stmt4 = statements.prepare("orderStatusStmt4", sqlText4);
 			stmt4.setInt(1, c_w_id);
 			stmt4.setInt(2, c_d_id);
 			stmt4.setInt(3, c_id);
@@ -608,11 +598,11 @@ public final class TpccTransaction implements TpccConstants {
 				o_carrier_id = rs4.getInt("o_carrier_id");
 			} else {
 				rs4.close();
-				stmt4.close();
+				statements.release(stmt4);
 				throw new NoDataFoundException("ORDER-STATUS-4: " + sqlText4 + "; " + c_w_id + ", " + c_d_id + "," + c_id + "," + c_w_id + "," + c_d_id + "," + c_id);
 			}
 			rs4.close();
-			stmt4.close();
+			statements.release(stmt4);
 			
 			/* proceed = 5
 			 * 
@@ -620,7 +610,7 @@ public final class TpccTransaction implements TpccConstants {
 			 * are selected and the corresponding sets of OL_I_ID, OL_SUPPLY_W_ID, OL_QUANTITY, OL_AMOUNT, and OL_DELIVERY_D are retrieved.
 			 */
 			String sqlText5 = TpccStatements.orderStatusStmt5(dbms);
-			PreparedStatement stmt5 = connection.prepareStatement(sqlText5);
+			PreparedStatement stmt5 = statements.prepare("orderStatusStmt5", sqlText5);
 			stmt5.setInt(1, o_id);
 			stmt5.setInt(2, d_id);
 			stmt5.setInt(3, w_id);
@@ -633,8 +623,8 @@ public final class TpccTransaction implements TpccConstants {
 				Timestamp ol_delivery_d = rs5.getTimestamp("ol_delivery_d");
 			}
 			rs5.close();
-			stmt5.close();
-			connection.commit(); // end transaction.
+			statements.release(stmt5);
+			statements.commit("orderStatus"); // end transaction.
 		} catch (Exception e) {
 			try {
 				connection.rollback();
@@ -642,13 +632,6 @@ public final class TpccTransaction implements TpccConstants {
 				LOGGER.warn("Transaction rollback failed.", e);
 			}
 			throw e;
-		} finally {
-			try {
-				connection.commit(); 
-				connection.setAutoCommit(true);
-			} catch (Exception e) {
-				LOGGER.warn("Connection set auto-commit falied.", e);
-			}
 		}
 		return true;
 	}
@@ -658,9 +641,10 @@ public final class TpccTransaction implements TpccConstants {
 	 * 2.7.4 Transaction Profile -> 
 	 */
 	@SuppressWarnings("unused")
-	public static boolean delivery(Connection connection, Dbms dbms, int w_id, int o_carrier_id) throws Exception {
+	public static boolean delivery(StatementCache statements, Dbms dbms, int w_id, int o_carrier_id) throws Exception {
+		Connection connection = statements.getConnection();
 		try {
-			connection.setAutoCommit(false);
+			beginTransaction(connection);
 			for (int d_id = 1; d_id <= DIST_PER_WARE; d_id++) {
 				/* proceed = 1
 				 * 
@@ -669,7 +653,7 @@ public final class TpccTransaction implements TpccConstants {
 				 * district. NO_O_ID, the order number, is retrieved. 
 				 */
 				String sqlText1 = TpccStatements.deliveryStmt1(dbms);
-				PreparedStatement stmt1 = connection.prepareStatement(sqlText1);
+				PreparedStatement stmt1 = statements.prepare("deliveryStmt1", sqlText1);
 				stmt1.setInt(1, d_id);
 				stmt1.setInt(2, w_id);
 				ResultSet rs1 = stmt1.executeQuery();
@@ -678,11 +662,11 @@ public final class TpccTransaction implements TpccConstants {
 					no_o_id = rs1.getInt("no_o_id");
 				} else {
 					rs1.close();
-					stmt1.close();
+					statements.release(stmt1);
 					throw new NoDataFoundException("DELIVERY-1: " + sqlText1 + "; " + d_id + ", " + w_id);
 				}
 				rs1.close();
-				stmt1.close();
+				statements.release(stmt1);
 				
 				/*
 				 * proceed = 2
@@ -690,12 +674,12 @@ public final class TpccTransaction implements TpccConstants {
 				 * The selected row in the NEW-ORDER table is deleted.
 				 */
 				String sqlText2 = TpccStatements.deliveryStmt2(dbms);
-				PreparedStatement stmt2 = connection.prepareStatement(sqlText2);
+				PreparedStatement stmt2 = statements.prepare("deliveryStmt2", sqlText2);
 				stmt2.setInt(1, d_id);
 				stmt2.setInt(2, w_id);
 				stmt2.setInt(3, no_o_id);
 				int updates = stmt2.executeUpdate();
-				stmt2.close();
+				statements.release(stmt2);
 				
 				/*
 				 * proceed = 3, 4
@@ -704,7 +688,7 @@ public final class TpccTransaction implements TpccConstants {
 				 * 
 				 */
 				String sqlText3 = TpccStatements.deliveryStmt3(dbms);
-				PreparedStatement stmt3 = connection.prepareStatement(sqlText3);
+				PreparedStatement stmt3 = statements.prepare("deliveryStmt3", sqlText3);
 				stmt3.setInt(1, no_o_id);
 				stmt3.setInt(2, d_id );
 				stmt3.setInt(3, w_id );
@@ -714,21 +698,21 @@ public final class TpccTransaction implements TpccConstants {
 					c_id = rs3.getInt("c_id");
 				} else {
 					rs3.close();
-					stmt3.close();
+					statements.release(stmt3);
 					throw new NoDataFoundException("DELIVERY-3: " + sqlText3 + "; " + no_o_id + ", " + d_id + ", " + w_id);
 				}
 				rs3.close();
-				stmt3.close();
+				statements.release(stmt3);
 				
 				// proceed = 4
 				String sqlText4 = TpccStatements.deliveryStmt4(dbms);
-				PreparedStatement stmt4 = connection.prepareStatement(sqlText4);
+				PreparedStatement stmt4 = statements.prepare("deliveryStmt4", sqlText4);
 				stmt4.setInt(1, o_carrier_id); //o_carrier_id
 				stmt4.setInt(2, no_o_id);
 				stmt4.setInt(3, d_id);
 				stmt4.setInt(4, w_id);
 				updates = stmt4.executeUpdate();
-				stmt4.close();
+				statements.release(stmt4);
 				
 				/*
 				 * proceed = 5, 6
@@ -737,18 +721,18 @@ public final class TpccTransaction implements TpccConstants {
 				 * OL_AMOUNT  is retrieved.
 				 */
 				String sqlText5 = TpccStatements.deliveryStmt5(dbms);
-				PreparedStatement stmt5 = connection.prepareStatement(sqlText5);
+				PreparedStatement stmt5 = statements.prepare("deliveryStmt5", sqlText5);
 				Timestamp ol_delivery_d  = getNow();
 				stmt5.setTimestamp(1, ol_delivery_d );
 				stmt5.setInt(2, no_o_id);
 				stmt5.setInt(3, d_id);
 				stmt5.setInt(4, w_id);
 				updates = stmt5.executeUpdate();
-				stmt5.close();
+				statements.release(stmt5);
 				
 				// proceed = 6;
 				String sqlText6 = TpccStatements.deliveryStmt6(dbms);
-				PreparedStatement stmt6 = connection.prepareStatement(sqlText6);
+				PreparedStatement stmt6 = statements.prepare("deliveryStmt6", sqlText6);
 				stmt6.setInt(1, no_o_id);
 				stmt6.setInt(2, d_id);
 				stmt6.setInt(3, w_id);
@@ -758,11 +742,11 @@ public final class TpccTransaction implements TpccConstants {
 					ol_total = rs6.getInt(1);
 				} else {
 					rs6.close();
-					stmt6.close();
+					statements.release(stmt6);
 					throw new NoDataFoundException("DELIVERY-6: " + sqlText6 + "; " + no_o_id + ", " + d_id + ", " + w_id);
 				}
 				rs6.close();
-				stmt6.close();
+				statements.release(stmt6);
 				
 				/*
 				 * procced = 7
@@ -771,15 +755,15 @@ public final class TpccTransaction implements TpccConstants {
 				 * by 1.
 				 */
 				String sqlText7 = TpccStatements.deliveryStmt7(dbms);
-				PreparedStatement stmt7 = connection.prepareStatement(sqlText7);
+				PreparedStatement stmt7 = statements.prepare("deliveryStmt7", sqlText7);
 				stmt7.setInt(1, ol_total);
 				stmt7.setInt(2, c_id);
 				stmt7.setInt(3, d_id);
 				stmt7.setInt(4, w_id);
 				updates = stmt7.executeUpdate();
-				stmt7.close();
+				statements.release(stmt7);
 			}
-			connection.commit(); // end transaction.
+			statements.commit("delivery"); // end transaction.
 		} catch (Exception e) {
 			try {
 				connection.rollback();
@@ -787,13 +771,6 @@ public final class TpccTransaction implements TpccConstants {
 				LOGGER.warn("Transaction rollback failed.", e);
 			}
 			throw e;
-		} finally {
-			try {
-				connection.commit(); 
-				connection.setAutoCommit(true);
-			} catch (Exception e) {
-				LOGGER.warn("Connection set auto-commit falied.", e);
-			}
 		}
 		return true;
 	}
@@ -805,15 +782,16 @@ public final class TpccTransaction implements TpccConstants {
 	 * A.5	The Stock-Level Transaction 
 	 */
 	@SuppressWarnings("unused")
-	public static boolean slev(Connection connection, Dbms dbms, int w_id, int d_id, int level) throws Exception {
+	public static boolean slev(StatementCache statements, Dbms dbms, int w_id, int d_id, int level) throws Exception {
+		Connection connection = statements.getConnection();
 		try {
-			connection.setAutoCommit(false);
+			beginTransaction(connection);
 			/*
 			 * proceed = 1
 			 * The row in the DISTRICT table with matching D_W_ID and D_ID is selected and D_NEXT_O_ID is retrieved.
 			 */
 			String sqlText1 = TpccStatements.stockLevelStmt1(dbms);
-			PreparedStatement stmt1 = connection.prepareStatement(sqlText1);
+			PreparedStatement stmt1 = statements.prepare("stockLevelStmt1", sqlText1);
 			stmt1.setInt(1, w_id);
 			stmt1.setInt(2, d_id);
 			ResultSet rs1 = stmt1.executeQuery();
@@ -822,11 +800,11 @@ public final class TpccTransaction implements TpccConstants {
 				d_next_o_id = rs1.getInt("d_next_o_id");
 			} else {
 				rs1.close();
-				stmt1.close();
+				statements.release(stmt1);
 				throw new NoDataFoundException( "STOCK-LEVEL-1: " + sqlText1 + "; " + w_id + ", " + d_id);
 			}
 			rs1.close();
-			stmt1.close();
+			statements.release(stmt1);
 			
 			/*
 			 * All rows in the ORDER-LINE table with matching OL_W_ID (equals W_ID), OL_D_ID (equals D_ID), 
@@ -844,7 +822,7 @@ public final class TpccTransaction implements TpccConstants {
 			 */
 			
 			String sqlText2 = TpccStatements.stockLevelStmt2(dbms);
-			PreparedStatement stmt2 = connection.prepareStatement(sqlText2);
+			PreparedStatement stmt2 = statements.prepare("stockLevelStmt2", sqlText2);
 			stmt2.setInt(1, w_id);
 			stmt2.setInt(2, d_id);
 			stmt2.setInt(3, d_next_o_id);
@@ -857,8 +835,8 @@ public final class TpccTransaction implements TpccConstants {
 				stock_count = rs2.getInt(1);
 			}
 			rs2.close();
-			stmt2.close();
-			connection.commit(); // end transaction.
+			statements.release(stmt2);
+			statements.commit("stockLevel"); // end transaction.
 		} catch (Exception e) {
 			try {
 				connection.rollback();
@@ -866,18 +844,21 @@ public final class TpccTransaction implements TpccConstants {
 				LOGGER.warn("Transaction rollback failed.", e);
 			}
 			throw e;
-		} finally {
-			try {
-				connection.commit(); 
-				connection.setAutoCommit(true);
-			} catch (Exception e) {
-				LOGGER.warn("Connection set auto-commit falied.", e);
-			}
 		}
 		return true;
 	}
 
 
+	/**
+	 * 开始事务: 连接切换为手工提交模式. 事务结束后不再切换回自动提交, sticky连接在整个测试期间保持手工提交模式, 
+	 * 省去每个事务两次setAutoCommit的网络往返; 归还连接池时由连接池(HikariCP)恢复默认的auto-commit设置.
+	 */
+	private static void beginTransaction(Connection connection) throws SQLException {
+		if (connection.getAutoCommit()) {
+			connection.setAutoCommit(false);
+		}
+	}
+	
 	public static Timestamp getNow() {
 		//return Timestamp.valueOf(LocalDateTime.now());
 		return new Timestamp(new Date().getTime());
@@ -0,0 +1,44 @@
+package org.littlestar.tpcc;
+
+/**
+ * 一个终端的一副牌(5.2.4.2 deck of cards): 按TransactionMix的张数生成, 洗牌后依次抽取, 抽完后重新洗牌.
+ *
+ * 只能被一个终端(线程)使用.
+ */
+public class TransactionDeck {
+	private final TransactionType[] cards;
+	private int position;
+
+	public TransactionDeck(TransactionMix mix) {
+		this.cards = new TransactionType[mix.getDeckSize()];
+		int index = 0;
+		for (TransactionType type : TransactionType.values()) {
+			for (int i = 0; i < mix.getCards(type); i++) {
+				cards[index++] = type;
+			}
+		}
+		//// 第一副牌从随机位置开始抽, 让各终端的牌组边界错开.
+		shuffle();
+		this.position = RandomHelper.randomInt(0, cards.length - 1);
+	}
+
+	public TransactionType next() {
+		if (position >= cards.length) {
+			shuffle();
+			position = 0;
+		}
+		return cards[position++];
+	}
+
+	/**
+	 * Fisher-Yates shuffle.
+	 */
+	private void shuffle() {
+		for (int i = cards.length - 1; i > 0; i--) {
+			int j = RandomHelper.randomInt(0, i);
+			TransactionType card = cards[i];
+			cards[i] = cards[j];
+			cards[j] = card;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package org.littlestar.tpcc;
+
+import java.util.Objects;
+
+/**
+ * 事务组合(mix): 每种事务在一副牌(card deck)中的张数, 按TransactionType.getId()索引.
+ *
+ * 5.2.4.2: 每个终端使用一副牌, 每次从中随机抽一张(不放回), 抽完后重新洗牌. 与每次独立随机选择相比, 每副牌内事务的比例是精确的,
+ * 不会因为随机漂移而低于最小百分比(Payment 43%, Order-Status/Delivery/Stock-Level 4%).
+ *
+ * 可以配置非标准的组合用于定位瓶颈, 如只运行Payment("Payment=1"), 或者只读("OrderStatus=1,StockLevel=1").
+ */
+public class TransactionMix {
+	/**
+	 * 默认组合, 与之前的随机选择相同的45%/43%/4%/4%/4%, 一副100张的牌, tpmC可以与之前的结果比较.
+	 * 测试结束时未抽完的牌可能使实际比例略低于最小百分比, 需要余量时可以配置如"NewOrder=10,Payment=10,OrderStatus=1,Delivery=1,StockLevel=1".
+	 */
+	public static final TransactionMix STANDARD = new TransactionMix(new double[] { 45.0D, 43.0D, 4.0D, 4.0D, 4.0D });
+	private static final int MAX_DECK_SIZE = 10000;
+
+	private final int[] cards;
+	private final int deckSize;
+
+	/**
+	 * @param weights 每种事务的权重(百分比或者张数), 按TransactionType.getId()索引. 小数的权重按10/100倍放大为整数张数,
+	 *        然后按最大公约数约简.
+	 */
+	public TransactionMix(double[] weights) {
+		if (Objects.isNull(weights) || weights.length != TransactionType.values().length) {
+			throw new IllegalArgumentException("Transaction mix requires a weight for each transaction type.");
+		}
+		double scale = 1.0D;
+		while (scale < MAX_DECK_SIZE && !isIntegral(weights, scale)) {
+			scale *= 10.0D;
+		}
+		int[] counts = new int[weights.length];
+		int gcd = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] < 0.0D || Double.isNaN(weights[i])) {
+				throw new IllegalArgumentException("Illegal transaction mix weight '" + weights[i] + "'.");
+			}
+			counts[i] = (int) Math.round(weights[i] * scale);
+			gcd = gcd(gcd, counts[i]);
+		}
+		if (gcd == 0) {
+			throw new IllegalArgumentException("Transaction mix requires at least one transaction type with weight > 0.");
+		}
+		int size = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] /= gcd;
+			size += counts[i];
+		}
+		if (size > MAX_DECK_SIZE) {
+			throw new IllegalArgumentException("Transaction mix deck is too large (" + size + " cards).");
+		}
+		this.cards = counts;
+		this.deckSize = size;
+	}
+
+	private static boolean isIntegral(double[] weights, double scale) {
+		for (double weight : weights) {
+			double scaled = weight * scale;
+			if (Math.abs(scaled - Math.rint(scaled)) > 1e-6D) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int gcd(int a, int b) {
+		return (b == 0) ? a : gcd(b, a % b);
+	}
+
+	public TransactionDeck newDeck() {
+		return new TransactionDeck(this);
+	}
+
+	public int getCards(TransactionType type) {
+		return cards[type.getId()];
+	}
+
+	public int getDeckSize() {
+		return deckSize;
+	}
+
+	/**
+	 * @return 该事务在组合中的百分比.
+	 */
+	public double getPercentage(TransactionType type) {
+		return cards[type.getId()] * 100.0D / deckSize;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (TransactionType type : TransactionType.values()) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(type).append("=").append(String.format("%.2f%%", getPercentage(type)));
+		}
+		return builder.append(" (deck of ").append(deckSize).append(" cards)").toString();
+	}
+}
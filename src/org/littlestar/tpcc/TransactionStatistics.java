@@ -1,9 +1,21 @@
 package org.littlestar.tpcc;
 
+/**
+ * 一次事务执行(包括重试)的结果. 时间单位为微秒(μs), 由System.nanoTime()计算, 不受系统时钟调整的影响.
+ */
 public class TransactionStatistics {
 	private boolean isSuccess = false;
 	private long elapsedTime = 0L;
 	private int retryCount = 0;
+	private long retryTime = 0L;
+	private long queueTime = 0L;
+	private long acquireTime = 0L;
+	private long commitTime = 0L;
+	private long backoffTime = 0L;
+	private boolean rollback = false;
+	private int lineCount = 0;
+	private int remoteCount = 0;
+	private boolean byName = false;
 	private TransactionType type;
 
 	public TransactionStatistics(TransactionType type, boolean isSuccess, long elapsedTime, int retryCount) {
@@ -13,6 +25,16 @@ public class TransactionStatistics {
 		this.type = type;
 	}
 
+	/**
+	 * @param elapsedTime 响应时间(μs).
+	 * @param retryTime 失败的尝试和重试退避花费的时间(μs), 包含在elapsedTime中.
+	 */
+	public TransactionStatistics(TransactionType type, boolean isSuccess, long elapsedTime, int retryCount,
+			long retryTime) {
+		this(type, isSuccess, elapsedTime, retryCount);
+		this.retryTime = retryTime;
+	}
+
 	public void setElapsedTime(long elapsed) {
 		elapsedTime = elapsed;
 	}
@@ -29,6 +51,77 @@ public class TransactionStatistics {
 		return retryCount;
 	}
 
+	public long getRetryTime() {
+		return retryTime;
+	}
+
+	/**
+	 * 响应时间的组成(μs), 所有尝试累计: elapsedTime = queue + acquire + execute + commit + backoff.
+	 * @param queueTime 计划开始时间到第一次尝试开始(open-loop/terminal pacing的排队时间).
+	 * @param acquireTime 从数据源(连接池)获取连接.
+	 * @param commitTime 提交/回滚事务.
+	 * @param backoffTime 重试前的退避等待.
+	 */
+	public void setBreakdown(long queueTime, long acquireTime, long commitTime, long backoffTime) {
+		this.queueTime = queueTime;
+		this.acquireTime = acquireTime;
+		this.commitTime = commitTime;
+		this.backoffTime = backoffTime;
+	}
+
+	public long getQueueTime() {
+		return queueTime;
+	}
+
+	public long getAcquireTime() {
+		return acquireTime;
+	}
+
+	/**
+	 * @return 执行事务语句的时间, 即响应时间中除排队、获取连接、提交和退避之外的部分.
+	 */
+	public long getExecuteTime() {
+		return Math.max(0L, elapsedTime - queueTime - acquireTime - commitTime - backoffTime);
+	}
+
+	public long getCommitTime() {
+		return commitTime;
+	}
+
+	public long getBackoffTime() {
+		return backoffTime;
+	}
+
+	/**
+	 * 事务的输入, 用于检查输入数据的分布是否符合规范(ComplianceValidator).
+	 * @param rollback New-Order: 最后一个item为无效的item, 事务回滚(2.4.1.4, 1%).
+	 * @param lineCount New-Order: order line数(2.4.1.3, 平均10).
+	 * @param remoteCount New-Order: 由其他仓库供货的order line数(2.4.1.5, 1%); Payment: 其他仓库的客户为1(2.5.1.2, 15%).
+	 * @param byName Payment/Order-Status: 按c_last选择客户(2.5.1.2/2.6.1.2, 60%).
+	 */
+	public void setInputs(boolean rollback, int lineCount, int remoteCount, boolean byName) {
+		this.rollback = rollback;
+		this.lineCount = lineCount;
+		this.remoteCount = remoteCount;
+		this.byName = byName;
+	}
+
+	public boolean isRollback() {
+		return rollback;
+	}
+
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	public int getRemoteCount() {
+		return remoteCount;
+	}
+
+	public boolean isByName() {
+		return byName;
+	}
+
 	public void success(boolean status) {
 		isSuccess = status;
 	}
@@ -44,6 +137,6 @@ public class TransactionStatistics {
 	@Override
 	public String toString() {
 		return "transaction = " + type.toString() + "; success = " + isSuccess + "; elapsed = " + elapsedTime
-				+ " ms; retry = " + retryCount;
+				+ " μs; retry = " + retryCount + "; retry time = " + retryTime + " μs";
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
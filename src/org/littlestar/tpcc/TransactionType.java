@@ -1,5 +1,7 @@
 package org.littlestar.tpcc;
 
+import java.util.Objects;
+
 /**
 	New-Order(no)       n/a  (0.45) #=0;
 	Payment(py)	        43.0        #=1; 
@@ -19,4 +21,21 @@ public enum TransactionType {
 	public int getId() {
 		return id;
 	}
+	
+	/**
+	 * 解析事务类型名称, 忽略大小写和分隔符, 如: "NewOrder", "new-order", "New_Order".
+	 * @return 无法识别时返回null.
+	 */
+	public static TransactionType parse(String name) {
+		if (Objects.isNull(name)) {
+			return null;
+		}
+		String normalized = name.replaceAll("[^A-Za-z]", "");
+		for (TransactionType type : TransactionType.values()) {
+			if (type.name().equalsIgnoreCase(normalized)) {
+				return type;
+			}
+		}
+		return null;
+	}
 }
@@ -0,0 +1,59 @@
+package org.littlestar.tpcc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread support, resolved by reflection so that the project still builds and runs on Java 11.
+ * 
+ * Thread.ofVirtual().name(prefix, 0).factory() + Executors.newThreadPerTaskExecutor(factory)
+ */
+public final class VirtualThreads {
+	private VirtualThreads() {}
+
+	private static final Method OF_VIRTUAL;
+	private static final Method BUILDER_NAME;
+	private static final Method BUILDER_FACTORY;
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+	
+	static {
+		Method ofVirtual = null, builderName = null, builderFactory = null, newThreadPerTaskExecutor = null;
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			builderName = builderClass.getMethod("name", String.class, long.class);
+			builderFactory = builderClass.getMethod("factory");
+			newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+		} catch (Exception e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = builderName;
+		BUILDER_FACTORY = builderFactory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+	
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+	
+	public static ThreadFactory newThreadFactory(String namePrefix) throws Exception {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException(
+					"Virtual threads are not supported by Java " + System.getProperty("java.version") + ", requires Java 21 or later.");
+		}
+		Object builder = OF_VIRTUAL.invoke(null);
+		builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+		return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+	}
+	
+	/**
+	 * 每个任务(terminal)启动一个新的虚拟线程.
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String namePrefix) throws Exception {
+		ThreadFactory factory = newThreadFactory(namePrefix);
+		return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+	}
+}
@@ -2,12 +2,22 @@ package org.littlestar.tpcc.datasource;
 
 import java.sql.Connection;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 public class HikariCP implements TpccDataSource {
 	private final HikariDataSource dataSource;
+	private final PoolMetrics poolMetrics;
 
 	public HikariCP(HikariDataSource dataSource) {
+		this(dataSource, null);
+	}
+
+	/**
+	 * @param poolMetrics 已经设置为dataSource的MetricsTrackerFactory, 可以为null.
+	 */
+	public HikariCP(HikariDataSource dataSource, PoolMetrics poolMetrics) {
 		this.dataSource = dataSource;
+		this.poolMetrics = poolMetrics;
 	}
 
 	@Override
@@ -20,6 +30,24 @@ public class HikariCP implements TpccDataSource {
 		dataSource.close();
 	}
 	
+	/**
+	 * @return 连接池的运行状态(活动/空闲/等待连接的线程数), 连接池还没有初始化时返回null.
+	 */
+	public HikariPoolMXBean getPoolMXBean() {
+		return dataSource.getHikariPoolMXBean();
+	}
+	
+	public int getMaximumPoolSize() {
+		return dataSource.getMaximumPoolSize();
+	}
+	
+	/**
+	 * @return 连接池的获取/创建连接统计, 没有设置时返回null.
+	 */
+	public PoolMetrics getPoolMetrics() {
+		return poolMetrics;
+	}
+	
 	@Override
 	public String getDataSourceClassName() {
 		return HikariDataSource.class.getCanonicalName();
@@ -461,7 +461,10 @@ public class HikariCPBuilder {
 			dataSource.setSchema(schema);
 		}
 		
-		return new HikariCP(dataSource);
+		//// 获取/创建连接的统计, 按报告周期输出.
+		PoolMetrics poolMetrics = new PoolMetrics();
+		dataSource.setMetricsTrackerFactory(poolMetrics);
+		return new HikariCP(dataSource, poolMetrics);
 	}
 	
 }
@@ -0,0 +1,95 @@
+package org.littlestar.tpcc.datasource;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * HikariCP的MetricsTrackerFactory, 由HikariCPBuilder设置到连接池, 统计连接池自身看到的获取连接等待、创建连接的耗时和超时,
+ * 以及连接池的状态(等待连接的线程、活动/空闲连接). 与HikariCP的registerMbeans不同, 不依赖JMX, 由BenchmarkReporter按报告周期读取.
+ *
+ * snapshot()复制到按下面的索引的long数组, 时间单位为微秒(μs); 状态为读取时的值(PoolStats最多1秒更新一次), 其他为累计值.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+	public static final int PENDING_THREADS     = 0;
+	public static final int ACTIVE_CONNECTIONS  = 1;
+	public static final int IDLE_CONNECTIONS    = 2;
+	public static final int TOTAL_CONNECTIONS   = 3;
+	public static final int CREATED_COUNT       = 4;
+	public static final int CREATE_TIME         = 5;
+	public static final int ACQUIRED_COUNT      = 6;
+	public static final int ACQUIRE_TIME        = 7;
+	/** 上一次nextInterval()之后的最大获取连接等待. */
+	public static final int MAX_ACQUIRE_TIME    = 8;
+	public static final int TIMEOUT_COUNT       = 9;
+	public static final int FIELD_COUNT         = 10;
+
+	private final LongAdder createdCount = new LongAdder();
+	private final LongAdder createMillis = new LongAdder();
+	private final LongAdder acquiredCount = new LongAdder();
+	private final LongAdder acquireNanos = new LongAdder();
+	private final AtomicLong maxAcquireNanos = new AtomicLong();
+	private final LongAdder timeoutCount = new LongAdder();
+	private volatile PoolStats poolStats = null;
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		this.poolStats = poolStats;
+		return new IMetricsTracker() {
+			@Override
+			public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+				createdCount.increment();
+				createMillis.add(connectionCreatedMillis);
+			}
+
+			@Override
+			public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+				acquiredCount.increment();
+				acquireNanos.add(elapsedAcquiredNanos);
+				maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+			}
+
+			@Override
+			public void recordConnectionTimeout() {
+				timeoutCount.increment();
+			}
+		};
+	}
+
+	/**
+	 * @param target 长度FIELD_COUNT.
+	 */
+	public void snapshot(long[] target) {
+		PoolStats stats = poolStats;
+		target[PENDING_THREADS] = Objects.isNull(stats) ? 0L : stats.getPendingThreads();
+		target[ACTIVE_CONNECTIONS] = Objects.isNull(stats) ? 0L : stats.getActiveConnections();
+		target[IDLE_CONNECTIONS] = Objects.isNull(stats) ? 0L : stats.getIdleConnections();
+		target[TOTAL_CONNECTIONS] = Objects.isNull(stats) ? 0L : stats.getTotalConnections();
+		target[CREATED_COUNT] = createdCount.sum();
+		target[CREATE_TIME] = TimeUnit.MILLISECONDS.toMicros(createMillis.sum());
+		target[ACQUIRED_COUNT] = acquiredCount.sum();
+		target[ACQUIRE_TIME] = TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum());
+		target[MAX_ACQUIRE_TIME] = TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get());
+		target[TIMEOUT_COUNT] = timeoutCount.sum();
+	}
+
+	/**
+	 * 开始新的报告周期, 最大获取连接等待重新计算. 只能由一个读者(BenchmarkReporter)调用.
+	 */
+	public void nextInterval() {
+		maxAcquireNanos.set(0L);
+	}
+
+	/**
+	 * @return 累计值的字段(周期内的增量有意义), 状态和最大值为false.
+	 */
+	public static boolean isCounter(int field) {
+		return field == CREATED_COUNT || field == CREATE_TIME || field == ACQUIRED_COUNT || field == ACQUIRE_TIME
+				|| field == TIMEOUT_COUNT;
+	}
+}
@@ -9,6 +9,13 @@ set PATH=%JAVA_HOME%\bin;%PATH%
 set APP_HOME=%~dp0
 set APP_LIB="%APP_HOME%*;.;%APP_HOME%lib\*"
 set MAIN_CLASS=org.littlestar.tpcc.Benchmark
+
+REM ------ Compare result files (relative to the current directory), exit 1 on regression ------
+if /i not "%1"=="compare" goto :benchmark
+java -cp %APP_LIB% %MAIN_CLASS% %*
+exit /b %ERRORLEVEL%
+
+:benchmark
 cd %APP_HOME%
 
 if not exist "%APP_HOME%\logs" md "%APP_HOME%\logs"
@@ -73,7 +80,7 @@ if %MAJOR_JAVA_VER% GEQ 8 if %MAJOR_JAVA_VER% LSS 16 (
   set JVM_OPTS=%JVM_OPTS% %G1GC_OPTS%
 )
 
-set USAGE="usage: %0 {benchmark|load|drop|addfk|dropfk|check} {benchmark-config-file} "
+set USAGE="usage: %0 {benchmark|load|drop|addfk|dropfk|check|gather} {benchmark-config-file} | compare [--threshold=pct] [--alpha=a] {baseline-result} {result} ..."
 
 if "%1"=="" (
  echo %USAGE%
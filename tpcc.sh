@@ -1,7 +1,8 @@
 #!/bin/bash
 
-if [ "$#" -ne 2 ]; then
+if [ "$1" != "compare" ] && [ "$#" -ne 2 ]; then
   echo "Usage: $0 {benchmark|load|drop|addfk|dropfk|check|gather} {benchmark-config-file} "
+  echo "       $0 compare [--threshold=pct] [--alpha=a] {baseline-result} {result} ..."
   exit 1
 fi
 
@@ -25,6 +26,12 @@ APP_HOME=`dirname "$PRG"`
 APP_LIB="${APP_HOME}/*:.:${APP_HOME}/lib/*:${APP_HOME}/modules/*"
 MAIN_CLASS=org.littlestar.tpcc.Benchmark
 
+# ------ Compare result files (relative to the current directory), exit 1 on regression ------
+if [ "$1" = "compare" ]; then
+  shift
+  exec ${JAVACMD} -cp "${APP_LIB}" ${MAIN_CLASS} compare "$@"
+fi
+
 mkdir -p ${APP_HOME}/logs
 cd $APP_HOME
 
@@ -76,6 +83,14 @@ else
 fi
 #JVM_OPTS="${JVM_OPTS} ${GC_LOG_OPTS}"
 
+# ------ Java Flight Recorder (TPC-C Transaction/Statement/ConnectionAcquire events) ------
+#JFR_OPTS="-XX:StartFlightRecording=filename=./logs/tpcc.jfr,settings=profile"
+#JVM_OPTS="${JVM_OPTS} ${JFR_OPTS}"
+
+# ------ JMX remote (org.littlestar.tpcc:type=Benchmark/Loader MBeans) ------
+#JMX_OPTS="-Dcom.sun.management.jmxremote.port=9010 -Dcom.sun.management.jmxremote.authenticate=false -Dcom.sun.management.jmxremote.ssl=false"
+#JVM_OPTS="${JVM_OPTS} ${JMX_OPTS}"
+
 
 
 BENCHMARK_CFG=$1